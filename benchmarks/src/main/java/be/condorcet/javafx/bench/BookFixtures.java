@@ -0,0 +1,106 @@
+package be.condorcet.javafx.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.google.gson.Gson;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Jeux de données reproductibles pour les benchmarks (graine fixe).
+ */
+public final class BookFixtures {
+
+    private static final String[] GENRES = {
+        "Roman", "Policier", "Science-fiction", "Fantasy", "Biographie", "Histoire", "Poésie", "Jeunesse"
+    };
+    private static final String[] AUTHORS = {
+        "Victor Hugo", "Émile Zola", "Albert Camus", "Marguerite Duras", "Jules Verne",
+        "George Sand", "Gustave Flaubert", "Simone de Beauvoir", "Boris Vian", "Colette"
+    };
+    private static final String[] WORDS = {
+        "nuit", "mer", "été", "château", "forêt", "rêve", "ombre", "lumière", "voyage", "cœur",
+        "secret", "hiver", "ville", "silence", "étoile", "jardin", "mémoire", "feu", "vent", "île"
+    };
+
+    private static final String[] SYLLABLES = {
+        "ba", "ri", "lo", "mé", "tan", "cor", "vi", "sel", "du", "ran", "pe", "zo", "gu", "li", "char",
+        "mon", "té", "ver", "na", "fou", "bré", "sou", "cla", "dé", "ni", "pal", "quo", "jé", "ro", "sa"
+    };
+
+    private BookFixtures() {
+    }
+
+    public static List<Book> books(int count) {
+        Random random = new Random(42);
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = capitalize(word(random)) + " " + word(random) + " " + (i % 97);
+            StringBuilder synopsis = new StringBuilder();
+            for (int w = 0; w < 40; w++) {
+                synopsis.append(word(random)).append(' ');
+            }
+            books.add(new Book(
+                    (long) i + 1,
+                    title,
+                    AUTHORS[random.nextInt(AUTHORS.length)],
+                    String.format("978%010d", i),
+                    GENRES[random.nextInt(GENRES.length)],
+                    random.nextInt(20),
+                    "https://covers.example.org/" + i + ".jpg",
+                    synopsis.toString().trim()));
+        }
+        return books;
+    }
+
+    /**
+     * Titres et auteurs variés, proches d'un vrai catalogue : mots inventés (2 à 3 syllabes), de 2 à 5 mots
+     * par titre, environ un auteur pour dix livres. books() n'a que 20 mots et 10 auteurs : tout titre
+     * y ressemble à une bonne part du catalogue.
+     */
+    public static List<Book> diverseBooks(int count) {
+        Random random = new Random(42);
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder title = new StringBuilder(capitalize(pseudoWord(random)));
+            for (int w = 1 + random.nextInt(4); w > 0; w--) {
+                title.append(' ').append(pseudoWord(random));
+            }
+            Random authorRandom = new Random(random.nextInt(Math.max(1, count / 10)));
+            String author = capitalize(pseudoWord(authorRandom)) + " " + capitalize(pseudoWord(authorRandom));
+            books.add(new Book(
+                    (long) i + 1,
+                    title.toString(),
+                    author,
+                    String.format("978%010d", i),
+                    GENRES[random.nextInt(GENRES.length)],
+                    random.nextInt(20),
+                    "https://covers.example.org/" + i + ".jpg",
+                    null));
+        }
+        return books;
+    }
+
+    public static byte[] json(int count) {
+        return new Gson().toJson(books(count)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String pseudoWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int s = 2 + random.nextInt(2); s > 0; s--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
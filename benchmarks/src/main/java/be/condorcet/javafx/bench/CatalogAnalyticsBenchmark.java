@@ -0,0 +1,78 @@
+package be.condorcet.javafx.bench;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.service.CatalogAnalytics;
+
+/**
+ * Indicateurs d'inventaire : calcul complet en parallèle selon le nombre de threads du pool fork/join
+ * (un flux parallèle lancé depuis un pool s'exécute dans ce pool), contre la mise à jour incrémentale
+ * d'un livre modifié. threads=1 donne la référence séquentielle ; à comparer au nombre de cœurs de la machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogAnalyticsBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private List<Book> books;
+    private ForkJoinPool pool;
+    private CatalogAnalytics analytics;
+    private int nextUpdate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        books = BookFixtures.books(size);
+        pool = new ForkJoinPool(threads);
+        analytics = CatalogAnalytics.compute(books);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public CatalogAnalytics fullCompute() {
+        return pool.submit(() -> CatalogAnalytics.compute(books)).join();
+    }
+
+    // Modification du stock d'un livre : retrait de l'ancienne version, ajout de la nouvelle
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public CatalogAnalytics incrementalUpdate() {
+        int i = nextUpdate++ % books.size();
+        Book before = books.get(i);
+        Book after = before.copy();
+        after.setStock(before.getStock() == 0 ? 3 : 0);
+        analytics.remove(before);
+        analytics.add(after);
+        books.set(i, after);
+        return analytics;
+    }
+}
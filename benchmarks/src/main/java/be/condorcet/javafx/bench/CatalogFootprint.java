@@ -0,0 +1,85 @@
+package be.condorcet.javafx.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.BookCatalog;
+import be.condorcet.javafx.model.ColumnarBookCatalog;
+import be.condorcet.javafx.service.BookSearchIndex;
+
+/**
+ * Mémoire retenue par le catalogue (objets Book contre stockage en colonnes), mesurée après GC.
+ * Les livres passent par Gson par tranches, comme en production : chaque auteur et genre répété
+ * est une chaîne distincte. Chaque stockage est mesuré seul puis avec l'index de recherche attaché
+ * avant le chargement, comme dans l'application : c'est ce second chiffre qui compte en usage réel.
+ *
+ * Usage : java -Xmx6g -cp target/benchmarks.jar be.condorcet.javafx.bench.CatalogFootprint [nombre de livres]
+ */
+public final class CatalogFootprint {
+
+    private static final int CHUNK = 10_000;
+
+    private CatalogFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long objects = retained(new BookCatalog(), count, false);
+        long columnar = retained(new ColumnarBookCatalog(), count, false);
+        long objectsIndexed = retained(new BookCatalog(), count, true);
+        long columnarIndexed = retained(new ColumnarBookCatalog(), count, true);
+        System.out.printf("%,d livres                  catalogue seul        avec index de recherche%n", count);
+        print("BookCatalog", objects, objectsIndexed, count);
+        print("ColumnarBookCatalog", columnar, columnarIndexed, count);
+        System.out.printf("  rapport              %19.1fx %24.1fx%n",
+                (double) objects / columnar, (double) objectsIndexed / columnarIndexed);
+    }
+
+    private static void print(String name, long alone, long indexed, int count) {
+        System.out.printf("  %-20s %,9d Ko (%4d o/livre) %,9d Ko (%4d o/livre)%n",
+                name, alone / 1024, alone / count, indexed / 1024, indexed / count);
+    }
+
+    private static long retained(BookCatalog catalog, int count, boolean withIndex) {
+        long before = usedAfterGc();
+        BookSearchIndex index = null;
+        if (withIndex) {
+            index = new BookSearchIndex();
+            index.attach(catalog.getItems());
+        }
+        Gson gson = new Gson();
+        var type = new TypeToken<List<Book>>(){}.getType();
+        List<Book> all = BookFixtures.books(count);
+        long loadNanos = 0;
+        for (int from = 0; from < count; from += CHUNK) {
+            String json = gson.toJson(all.subList(from, Math.min(count, from + CHUNK)));
+            List<Book> batch = gson.fromJson(json, type);
+            long start = System.nanoTime();
+            catalog.addAll(batch);
+            loadNanos += System.nanoTime() - start;
+        }
+        all = null;
+        // Construit l'index par id, qui fait partie de la mémoire retenue en usage normal
+        catalog.get(1L);
+        System.out.printf("  %s%s : chargement %d ms%n", catalog.getClass().getSimpleName(),
+                withIndex ? " et index" : "", loadNanos / 1_000_000);
+        long after = usedAfterGc();
+        if (catalog.size() != count || (index != null && index.search("978") == null)) {
+            throw new IllegalStateException("catalogue incomplet");
+        }
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
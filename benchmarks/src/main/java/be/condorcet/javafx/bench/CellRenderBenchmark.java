@@ -0,0 +1,96 @@
+package be.condorcet.javafx.bench;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.service.BookApiService;
+import be.condorcet.javafx.view.BookCatalogController;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * Coût d'un ListCell.updateItem de la liste du catalogue, sans écran.
+ * Les cellules sont celles de la vraie cell factory (chargée depuis book-catalog.fxml) ;
+ * on fait défiler un "viewport" de quelques cellules sur le catalogue.
+ * Lancer avec -prof gc pour mesurer les allocations par rendu.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dglass.platform=Headless", "-Dprism.order=sw"})
+public class CellRenderBenchmark {
+
+    private static final int VIEWPORT_CELLS = 8;
+
+    @Param({"10000"})
+    public int books;
+
+    private final List<ListCell<Object>> cells = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        FxToolkit.start();
+
+        // Couverture locale : on mesure le rendu, pas le réseau
+        Path cover = Files.createTempFile("cover", ".png");
+        ImageIO.write(new BufferedImage(300, 450, BufferedImage.TYPE_INT_RGB), "png", cover.toFile());
+        List<Book> data = BookFixtures.books(books);
+        data.forEach(book -> book.setImageUrl(cover.toUri().toString()));
+
+        FxToolkit.runAndWait(() -> {
+            try {
+                FXMLLoader loader = new FXMLLoader(BookCatalogController.class.getResource(
+                        "/be/condorcet/javafx/view/book-catalog.fxml"));
+                loader.load();
+                BookCatalogController controller = loader.getController();
+                controller.setApiService(new BookApiService());
+
+                ListView<Object> listView = (ListView<Object>) loader.getNamespace().get("bookListView");
+                listView.setItems(FXCollections.<Object>observableArrayList(data));
+                for (int i = 0; i < VIEWPORT_CELLS; i++) {
+                    ListCell<Object> cell = listView.getCellFactory().call(listView);
+                    cell.updateListView(listView);
+                    cells.add(cell);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public ListCell<Object> updateItem() {
+        // Chaque appel fait passer une cellule du viewport au livre suivant, comme pendant un défilement
+        int index = next++ % books;
+        ListCell<Object> cell = cells.get(index % VIEWPORT_CELLS);
+        cell.updateIndex(index);
+        return cell;
+    }
+}
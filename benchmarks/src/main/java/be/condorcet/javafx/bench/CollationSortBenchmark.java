@@ -0,0 +1,115 @@
+package be.condorcet.javafx.bench;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Tri des titres dans l'ordre français, comme la vue triée du catalogue (SortedCatalogView) :
+ * Collator.compare à chaque comparaison, contre des clés de collation calculées une fois (en octets),
+ * en séquentiel et en parallèle ; puis insertion d'un livre par dichotomie contre un nouveau tri complet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollationSortBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private static final Collator COLLATOR = frenchCollator();
+    private static final ThreadLocal<Collator> COLLATORS = ThreadLocal.withInitial(() -> (Collator) COLLATOR.clone());
+    private static final Comparator<byte[]> KEY_ORDER = Arrays::compareUnsigned;
+
+    private List<Book> books;
+    private byte[][] sortedKeys;
+    private byte[] insertedKey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        books = BookFixtures.books(size);
+        sortedKeys = keys(false);
+        Arrays.sort(sortedKeys, KEY_ORDER);
+        insertedKey = keyOf(COLLATOR, "Mémoires d'outre-tombe");
+    }
+
+    @Benchmark
+    public List<Book> collatorComparator() {
+        List<Book> copy = new ArrayList<>(books);
+        copy.sort((a, b) -> COLLATOR.compare(a.getTitle(), b.getTitle()));
+        return copy;
+    }
+
+    @Benchmark
+    public byte[][] precomputedKeys() {
+        byte[][] keys = keys(false);
+        Arrays.sort(keys, KEY_ORDER);
+        return keys;
+    }
+
+    @Benchmark
+    public byte[][] precomputedKeysParallel() {
+        byte[][] keys = keys(true);
+        Arrays.parallelSort(keys, KEY_ORDER);
+        return keys;
+    }
+
+    // Un livre modifié : tri complet des clés existantes contre recherche dichotomique et décalage
+    @Benchmark
+    public List<byte[]> singleEditResort() {
+        List<byte[]> keys = new ArrayList<>(Arrays.asList(sortedKeys));
+        keys.add(insertedKey);
+        keys.sort(KEY_ORDER);
+        return keys;
+    }
+
+    @Benchmark
+    public List<byte[]> singleEditBinaryInsert() {
+        List<byte[]> keys = new ArrayList<>(Arrays.asList(sortedKeys));
+        int pos = Collections.binarySearch(keys, insertedKey, KEY_ORDER);
+        keys.add(pos < 0 ? -pos - 1 : pos, insertedKey);
+        return keys;
+    }
+
+    private byte[][] keys(boolean parallel) {
+        byte[][] keys = new byte[books.size()][];
+        IntStream indexes = IntStream.range(0, keys.length);
+        (parallel ? indexes.parallel() : indexes).forEach(i -> keys[i] = keyOf(COLLATORS.get(), books.get(i).getTitle()));
+        return keys;
+    }
+
+    private static byte[] keyOf(Collator collator, String text) {
+        return collator.getCollationKey(text).toByteArray();
+    }
+
+    private static Collator frenchCollator() {
+        Collator collator = Collator.getInstance(Locale.FRENCH);
+        collator.setStrength(Collator.SECONDARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+}
@@ -0,0 +1,82 @@
+package be.condorcet.javafx.bench;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compare deux fichiers de résultats JMH (-rf json) produits sur deux commits.
+ *
+ * Usage : java -cp target/benchmarks.jar be.condorcet.javafx.bench.CompareResults avant.json apres.json [seuil%]
+ * Affiche l'écart par benchmark et par jeu de paramètres ; code de sortie 1 si un écart dépasse le seuil
+ * dans le mauvais sens (10 % par défaut).
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : CompareResults <avant.json> <apres.json> [seuil%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonObject> before = read(Path.of(args[0]));
+        Map<String, JsonObject> after = read(Path.of(args[1]));
+
+        boolean regression = false;
+        for (Map.Entry<String, JsonObject> entry : after.entrySet()) {
+            JsonObject base = before.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-70s  (nouveau)%n", entry.getKey());
+                continue;
+            }
+            double old = score(base);
+            double now = score(entry.getValue());
+            double delta = old == 0 ? 0 : (now - old) / old * 100;
+            String unit = entry.getValue().getAsJsonObject("primaryMetric").get("scoreUnit").getAsString();
+            // En mode débit (ops/temps) plus grand est mieux ; en mode temps, plus petit est mieux
+            boolean higherIsBetter = unit.startsWith("ops/");
+            boolean worse = higherIsBetter ? delta < -threshold : delta > threshold;
+            regression |= worse;
+            System.out.printf("%-70s %12.3f -> %12.3f %-10s %+7.1f%%%s%n",
+                    entry.getKey(), old, now, unit, delta, worse ? "  REGRESSION" : "");
+        }
+        System.exit(regression ? 1 : 0);
+    }
+
+    private static Map<String, JsonObject> read(Path file) throws IOException {
+        Map<String, JsonObject> results = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject result = element.getAsJsonObject();
+                results.put(key(result), result);
+            }
+        }
+        return results;
+    }
+
+    private static String key(JsonObject result) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (result.has("params")) {
+            result.getAsJsonObject("params").entrySet()
+                    .forEach(p -> params.put(p.getKey(), p.getValue().getAsString()));
+        }
+        String name = result.get("benchmark").getAsString();
+        return name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1)
+                + (params.isEmpty() ? "" : " " + params);
+    }
+
+    private static double score(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+    }
+}
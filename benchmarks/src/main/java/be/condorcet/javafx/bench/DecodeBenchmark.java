@@ -0,0 +1,63 @@
+package be.condorcet.javafx.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.Gson;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.service.BookJsonDecoder;
+
+/**
+ * Décodage Gson d'un catalogue : corps lu en String puis fromJson (loadBooksAsync),
+ * contre lecture en flux par lots (streamBooksAsync).
+ * Lancer avec -prof gc pour comparer aussi les allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class DecodeBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int books;
+
+    private byte[] payload;
+    private BookJsonDecoder decoder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = BookFixtures.json(books);
+        decoder = new BookJsonDecoder(new Gson());
+    }
+
+    @Benchmark
+    public List<Book> stringDecode() {
+        // Comme BodyHandlers.ofString() : le corps entier est d'abord converti en String
+        return decoder.decodeList(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void streamingDecode(Blackhole bh) throws IOException {
+        decoder.decodeStream(new ByteArrayInputStream(payload), 50, 500, Long.MAX_VALUE, bh::consume);
+    }
+}
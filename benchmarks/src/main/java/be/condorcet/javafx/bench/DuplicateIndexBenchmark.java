@@ -0,0 +1,85 @@
+package be.condorcet.javafx.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.service.DuplicateIndex;
+import be.condorcet.javafx.service.TextNormalizer;
+
+/**
+ * Recherche des doublons d'un livre saisi (accents et casse changés, ISBN-10) : DuplicateIndex contre
+ * la comparaison naïve avec chaque livre du catalogue, qui rend un import quadratique.
+ * corpus=diverse : titres et auteurs variés ; corpus=uniform : BookFixtures.books, 20 mots et 10 auteurs,
+ * le pire cas où une bonne part du catalogue ressemble à chaque titre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class DuplicateIndexBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"diverse", "uniform"})
+    public String corpus;
+
+    private List<Book> books;
+    private DuplicateIndex index;
+    private List<Book> probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        books = "diverse".equals(corpus) ? BookFixtures.diverseBooks(size) : BookFixtures.books(size);
+        index = new DuplicateIndex();
+        books.forEach(index::add);
+        // Variantes de livres existants, telles qu'on les retrouve dans un fichier à importer
+        probes = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            Book original = books.get(i * (size / 64));
+            Book probe = original.copy();
+            probe.setId(null);
+            probe.setTitle(original.getTitle().toUpperCase().replace('É', 'E'));
+            probe.setAuthor(original.getAuthor().replace('é', 'e'));
+            probe.setIsbn(null);
+            probes.add(probe);
+        }
+    }
+
+    @Benchmark
+    public List<DuplicateIndex.Match> indexed() {
+        return index.find(probes.get(next++ & 63), null, 3);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        Book probe = probes.get(next++ & 63);
+        String title = TextNormalizer.fold(probe.getTitle());
+        String author = TextNormalizer.fold(probe.getAuthor());
+        int found = 0;
+        for (Book book : books) {
+            if (TextNormalizer.fold(book.getTitle()).equals(title) && TextNormalizer.fold(book.getAuthor()).equals(author)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
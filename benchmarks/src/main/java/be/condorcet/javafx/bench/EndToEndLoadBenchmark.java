@@ -0,0 +1,126 @@
+package be.condorcet.javafx.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpServer;
+
+import be.condorcet.javafx.service.BookApiService;
+
+/**
+ * Latence de bout en bout d'un chargement du catalogue (requête, décodage, remise au thread FX)
+ * contre un serveur HTTP local qui sert un catalogue fixe sur un port libre,
+ * en clair ou compressé en gzip quand le client l'accepte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Dglass.platform=Headless", "-Dprism.order=sw"})
+public class EndToEndLoadBenchmark {
+
+    @Param({"1000", "100000"})
+    public int books;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    private HttpServer server;
+    private BookApiService apiService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        FxToolkit.start();
+        byte[] payload = "gzip".equals(encoding) ? gzip(BookFixtures.json(books)) : BookFixtures.json(books);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/books", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if ("gzip".equals(encoding)) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        // Comme LoadGenerator : l'adresse de l'API est fixée avant le premier usage de BookApiService
+        String url = "http://localhost:" + server.getAddress().getPort();
+        System.setProperty("krousty.api.url", url);
+        apiService = new BookApiService();
+        if (!url.equals(BookApiService.getBaseUrl())) {
+            throw new IllegalStateException("BookApiService déjà initialisé avec " + BookApiService.getBaseUrl());
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int loadBooks() throws InterruptedException, IOException {
+        CountDownLatch done = new CountDownLatch(1);
+        int[] size = new int[1];
+        AtomicBoolean failed = new AtomicBoolean();
+        apiService.loadBooksAsync(list -> {
+            size[0] = list.size();
+            done.countDown();
+        }, error -> {
+            failed.set(true);
+            done.countDown();
+        });
+        done.await();
+        if (failed.get()) {
+            throw new IOException("Chargement en échec");
+        }
+        return size[0];
+    }
+
+    @Benchmark
+    public int streamBooks() throws InterruptedException, IOException {
+        CountDownLatch done = new CountDownLatch(1);
+        int[] size = new int[1];
+        AtomicBoolean failed = new AtomicBoolean();
+        apiService.streamBooksAsync(batch -> size[0] += batch.size(), done::countDown, error -> {
+            failed.set(true);
+            done.countDown();
+        });
+        done.await();
+        if (failed.get()) {
+            throw new IOException("Chargement en échec");
+        }
+        return size[0];
+    }
+}
@@ -0,0 +1,41 @@
+package be.condorcet.javafx.bench;
+
+import java.util.concurrent.CountDownLatch;
+
+import javafx.application.Platform;
+
+/**
+ * Démarre le toolkit JavaFX une seule fois par JVM de benchmark.
+ * En environnement sans écran, lancer avec -Dglass.platform=Headless -Dprism.order=sw (JavaFX 25).
+ */
+final class FxToolkit {
+
+    private static boolean started;
+
+    private FxToolkit() {
+    }
+
+    static synchronized void start() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        CountDownLatch ready = new CountDownLatch(1);
+        Platform.startup(ready::countDown);
+        ready.await();
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    // Exécute une action sur le thread FX et attend sa fin
+    static void runAndWait(Runnable action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+}
@@ -0,0 +1,101 @@
+package be.condorcet.javafx.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.BookCatalog;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+
+/**
+ * Mutations d'ObservableList : ajout livre par livre contre ajout groupé, et opérations du BookCatalog.
+ * Un listener est branché pour reproduire le coût des notifications vers la ListView.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListMutationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Book> books;
+    private BookCatalog catalog;
+    private int nextUpdate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        books = BookFixtures.books(size);
+        catalog = new BookCatalog();
+        catalog.setAll(books);
+    }
+
+    private static ObservableList<Book> observed(Blackhole bh) {
+        ObservableList<Book> list = FXCollections.observableArrayList();
+        list.addListener((ListChangeListener<Book>) bh::consume);
+        return list;
+    }
+
+    @Benchmark
+    public ObservableList<Book> perItemAdd(Blackhole bh) {
+        ObservableList<Book> list = observed(bh);
+        for (Book book : books) {
+            list.add(book);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public ObservableList<Book> bulkAddAll(Blackhole bh) {
+        ObservableList<Book> list = observed(bh);
+        list.addAll(books);
+        return list;
+    }
+
+    // Même chaîne que l'écran : catalogue -> FilteredList -> SortedList
+    @Benchmark
+    public SortedList<Book> bulkAddThroughViewChain(Blackhole bh) {
+        ObservableList<Book> list = FXCollections.observableArrayList();
+        SortedList<Book> sorted = new SortedList<>(new FilteredList<>(list));
+        sorted.addListener((ListChangeListener<Book>) bh::consume);
+        list.addAll(books);
+        return sorted;
+    }
+
+    @Benchmark
+    public BookCatalog catalogSetAll() {
+        BookCatalog fresh = new BookCatalog();
+        fresh.setAll(books);
+        return fresh;
+    }
+
+    // Une modification appliquée sur place (ce que fait le contrôleur après un PUT)
+    @Benchmark
+    public boolean catalogSingleUpdate() {
+        Book original = books.get(nextUpdate++ % size);
+        Book updated = new Book(original.getId(), original.getTitle(), original.getAuthor(), original.getIsbn(),
+                original.getGenre(), original.getStock() + 1, original.getImageUrl(), original.getSynopsis());
+        return catalog.applyUpdated(updated);
+    }
+}
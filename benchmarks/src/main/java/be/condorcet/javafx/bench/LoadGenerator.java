@@ -0,0 +1,213 @@
+package be.condorcet.javafx.bench;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import be.condorcet.javafx.metrics.LatencyHistogram;
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.service.BookApiService;
+import be.condorcet.javafx.service.RequestScheduler;
+
+/**
+ * Générateur de charge sans écran : des clients simulés, chacun avec son BookApiService et son propre
+ * ordonnanceur (donc ses connexions), enchaînent lectures et écritures pendant une durée fixe.
+ * Affiche ensuite le débit et les latences (p50 / p99 / p99.9 / max) par opération.
+ * Sans --url, un StubBookServer est démarré dans la même JVM (mêmes options --latency, --jitter, --errors, --bandwidth).
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar be.condorcet.javafx.bench.LoadGenerator --clients=50 --duration=30 --books=10000 \
+ *      --writes=0.1 --full=0.05 --latency=5 --jitter=5
+ * </pre>
+ */
+public class LoadGenerator {
+
+    enum Operation { CATALOGUE, PAGE, CREATION, MODIFICATION, SUPPRESSION }
+
+    private static final long OPERATION_TIMEOUT_SECONDS = 60;
+
+    private final int clients;
+    private final double writeRatio;
+    private final double fullLoadRatio;
+    private final int pageSize;
+    private final long thinkMillis;
+    private final String username;
+    private final String password;
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final int catalogSize;
+    private volatile boolean running = true;
+
+    LoadGenerator(Map<String, String> options, int catalogSize) {
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "20"));
+        this.writeRatio = Double.parseDouble(options.getOrDefault("writes", "0.1"));
+        this.fullLoadRatio = Double.parseDouble(options.getOrDefault("full", "0.05"));
+        this.pageSize = Integer.parseInt(options.getOrDefault("page", "50"));
+        this.thinkMillis = Long.parseLong(options.getOrDefault("think", "0"));
+        this.username = options.getOrDefault("user", StubBookServer.DEFAULT_USERNAME);
+        this.password = options.getOrDefault("password", StubBookServer.DEFAULT_PASSWORD);
+        this.catalogSize = catalogSize;
+        for (Operation op : Operation.values()) {
+            latencies.put(op, new LatencyHistogram());
+            errors.put(op, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = StubBookServer.parseArgs(args);
+        int books = Integer.parseInt(options.getOrDefault("books", "10000"));
+        StubBookServer server = null;
+        if (!options.containsKey("url")) {
+            server = new StubBookServer(0, books,
+                    options.getOrDefault("user", StubBookServer.DEFAULT_USERNAME),
+                    options.getOrDefault("password", StubBookServer.DEFAULT_PASSWORD));
+            server.configure(options);
+            server.start();
+        }
+        // Lu à l'initialisation de BookApiService : à fixer avant toute utilisation du service
+        System.setProperty("krousty.api.url", server != null ? server.getUrl() : options.get("url"));
+        // Pas de thread FX : les callbacks du service s'exécutent sur les threads du client HTTP
+        PerfMetrics.setUiExecutor(Runnable::run);
+
+        LoadGenerator generator = new LoadGenerator(options, books);
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "5"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "30"));
+        System.out.printf("%d clients contre %s : %d s de chauffe, %d s de mesure%n",
+                generator.clients, BookApiService.getBaseUrl(), warmup, duration);
+        double seconds = generator.run(warmup, duration);
+        generator.printReport(seconds);
+        System.out.print(PerfMetrics.report());
+        if (server != null) {
+            System.out.printf("Serveur : %d requêtes, %d erreurs injectées%n",
+                    server.getRequestCount(), server.getInjectedErrorCount());
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    // Retourne la durée réelle de la mesure, en secondes
+    double run(long warmupSeconds, long durationSeconds) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            BookApiService service = new BookApiService(username, password, RequestScheduler.create());
+            threads.add(Thread.ofVirtual().name("client-" + i).start(() -> simulate(service)));
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        latencies.values().forEach(LatencyHistogram::reset);
+        errors.values().forEach(LongAdder::reset);
+        PerfMetrics.reset();
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(OPERATION_TIMEOUT_SECONDS));
+        }
+        return seconds;
+    }
+
+    // Boucle fermée : chaque client attend la fin de son opération avant la suivante
+    private void simulate(BookApiService service) {
+        List<Long> created = new ArrayList<>();
+        while (running) {
+            Operation op = nextOperation(created);
+            long start = System.nanoTime();
+            try {
+                execute(service, op, created).get(OPERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                latencies.get(op).recordNanos(System.nanoTime() - start);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                errors.get(op).increment();
+            }
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(thinkMillis * 2 + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Operation nextOperation(List<Long> created) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < writeRatio) {
+            // Chaque client ne supprime que ses propres livres : le catalogue garde sa taille
+            int pick = random.nextInt(3);
+            if (pick == 2 && !created.isEmpty()) {
+                return Operation.SUPPRESSION;
+            }
+            return pick == 1 ? Operation.MODIFICATION : Operation.CREATION;
+        }
+        return random.nextDouble() < fullLoadRatio ? Operation.CATALOGUE : Operation.PAGE;
+    }
+
+    private CompletableFuture<?> execute(BookApiService service, Operation op, List<Long> created) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CompletableFuture<Object> done = new CompletableFuture<>();
+        switch (op) {
+            case CATALOGUE:
+                service.loadBooksAsync(done::complete, error -> done.completeExceptionally(new IOException("catalogue : " + error)));
+                return done;
+            case PAGE:
+                int pages = Math.max(1, catalogSize / pageSize);
+                service.loadBooksPageAsync(random.nextInt(pages), pageSize, null, done::complete,
+                        error -> done.completeExceptionally(new IOException("page : " + error)));
+                return done;
+            case CREATION:
+                Book book = BookFixtures.books(1).get(0);
+                book.setId(null);
+                return service.createBookAsync(book).thenApply(resp -> {
+                    Book saved = service.resolveSavedBook(checked(resp), book);
+                    if (saved != null) {
+                        created.add(saved.getId());
+                    }
+                    return saved;
+                });
+            case MODIFICATION:
+                Book update = BookFixtures.books(1).get(0);
+                update.setId(created.isEmpty() ? 1L + random.nextInt(catalogSize) : created.get(random.nextInt(created.size())));
+                // Changement de stock seul : PATCH minimal, ou PUT du livre complet si le serveur refuse PATCH
+                update.clearDirty();
+                update.setStock(update.getStock() + 1 + random.nextInt(20));
+                return service.patchBookAsync(update).thenApply(LoadGenerator::checked);
+            default:
+                Long id = created.remove(created.size() - 1);
+                return service.deleteBookAsync(id).thenApply(LoadGenerator::checked);
+        }
+    }
+
+    private static <T> HttpResponse<T> checked(HttpResponse<T> resp) {
+        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+            throw new IllegalStateException("HTTP " + resp.statusCode());
+        }
+        return resp;
+    }
+
+    void printReport(double seconds) {
+        System.out.printf("%-14s %9s %10s %9s %9s %9s %9s %8s%n",
+                "Opération", "n", "débit/s", "p50", "p99", "p99.9", "max ms", "erreurs");
+        long total = 0;
+        for (Operation op : Operation.values()) {
+            LatencyHistogram h = latencies.get(op);
+            long n = h.getCount();
+            total += n;
+            System.out.printf("%-14s %9d %10.1f %9.1f %9.1f %9.1f %9.1f %8d%n", op, n, n / seconds,
+                    h.percentile(50) / 1000.0, h.percentile(99) / 1000.0, h.percentile(99.9) / 1000.0,
+                    h.getMax() / 1000.0, errors.get(op).sum());
+        }
+        System.out.printf("Total : %d opérations en %.1f s, %.1f op/s%n", total, seconds, total / seconds);
+    }
+}
@@ -0,0 +1,67 @@
+package be.condorcet.javafx.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import be.condorcet.javafx.service.BookSearchIndex;
+
+/**
+ * Recherche au fil de la frappe dans BookSearchIndex (BookFixtures.diverseBooks).
+ * query=short : deux lettres, la première recherche lancée et la plus chère, sa liste couvre une bonne part
+ * du catalogue ; prefix : début d'un mot ; words : deux mots intersectés ; isbn : ISBN avec tirets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SearchIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"short", "prefix", "words", "isbn"})
+    public String query;
+
+    private BookSearchIndex index;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new BookSearchIndex();
+        BookFixtures.diverseBooks(size).forEach(index::add);
+        switch (query) {
+            case "short":
+                text = "ro";
+                break;
+            case "prefix":
+                text = "corvi";
+                break;
+            case "words":
+                text = "ro sa";
+                break;
+            default:
+                text = "978-000-0123";
+                break;
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(text);
+    }
+}
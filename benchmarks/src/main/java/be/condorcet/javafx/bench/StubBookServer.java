@@ -0,0 +1,603 @@
+package be.condorcet.javafx.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Backend de remplacement pour les mesures de bout en bout : contrat CRUD /api/books de l'API Spring Boot
+ * sur le HttpServer du JDK. Lectures publiques, écritures en authentification Basic ; liste complète ou paginée
+ * (format Spring Data), ETag sur le catalogue, réponses gzip si le client les accepte.
+ * Flux de changements pour la synchronisation incrémentale : GET /api/books/changes?since=v
+ * et sa variante SSE /api/books/changes/stream?since=v (v : en-tête X-Catalog-Version du catalogue).
+ * Modifications en PUT (livre complet) ou PATCH (JSON Merge Patch, désactivable avec --patch=false).
+ * Latence, gigue, taux d'erreurs (503) et débit sont réglables, y compris pendant un test.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar be.condorcet.javafx.bench.StubBookServer --books=100000 --latency=20 --jitter=10 \
+ *      --errors=0.01 --bandwidth=2000 --port=8082
+ * </pre>
+ */
+public class StubBookServer {
+
+    public static final String DEFAULT_USERNAME = "admin";
+    public static final String DEFAULT_PASSWORD = "admin";
+
+    private static final String BOOKS_ENDPOINT = "/api/books";
+    private static final Type BOOK_LIST_TYPE = new TypeToken<List<Book>>(){}.getType();
+    private static final int MIN_COMPRESSED_RESPONSE = 1024;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final long SSE_HEARTBEAT_MILLIS = 15_000;
+
+    static {
+        // Sans TCP_NODELAY, Nagle et l'ACK différé ajoutent ~40 ms à chaque petite réponse en keep-alive
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final Gson gson = new Gson();
+    private final String expectedAuth;
+    private final ConcurrentSkipListMap<Long, Book> books = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    // Incrémentée à chaque écriture : ETag du catalogue et invalidation de la version sérialisée
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+    // Journal des écritures : version -> id du livre touché
+    private final ConcurrentSkipListMap<Long, Long> changes = new ConcurrentSkipListMap<>();
+    private final Object changeSignal = new Object();
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    // Octets par seconde et par réponse, 0 = illimité
+    private volatile long bandwidth;
+    private volatile boolean compression = true;
+    // false : PATCH répond 405, comme un backend qui ne le connaît pas
+    private volatile boolean patch = true;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    public StubBookServer(int port, int datasetSize, String username, String password) throws IOException {
+        this.expectedAuth = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        for (Book book : BookFixtures.books(datasetSize)) {
+            books.put(book.getId(), book);
+        }
+        nextId.set(datasetSize + 1L);
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext(BOOKS_ENDPOINT, exchange -> {
+            try {
+                handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public StubBookServer(int port, int datasetSize) throws IOException {
+        this(port, datasetSize, DEFAULT_USERNAME, DEFAULT_PASSWORD);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    // Port réel (utile avec le port 0 : port libre choisi par le système)
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    public int getBookCount() {
+        return books.size();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.sum();
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    // Ajoutée à la latence : uniforme entre 0 et jitterMillis
+    public void setJitterMillis(long jitterMillis) {
+        this.jitterMillis = jitterMillis;
+    }
+
+    // Proportion de requêtes (0..1) qui reçoivent un 503
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setBandwidth(long bytesPerSecond) {
+        this.bandwidth = bytesPerSecond;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public void setPatchSupported(boolean patch) {
+        this.patch = patch;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        simulateLatency();
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.increment();
+            send(exchange, 503, null);
+            return;
+        }
+        String method = exchange.getRequestMethod();
+        String auth = exchange.getRequestHeaders().getFirst("Authorization");
+        // Comme Spring Security : des identifiants faux sont refusés même sur une lecture publique
+        if ((auth != null && !auth.equals(expectedAuth)) || (auth == null && !"GET".equals(method) && !"HEAD".equals(method))) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"krousty\"");
+            send(exchange, 401, null);
+            return;
+        }
+
+        String rest = exchange.getRequestURI().getPath().substring(BOOKS_ENDPOINT.length());
+        try {
+            if (rest.isEmpty() || rest.equals("/")) {
+                if ("GET".equals(method)) {
+                    list(exchange);
+                } else if ("HEAD".equals(method)) {
+                    // Comme Spring MVC : les en-têtes du GET, sans le corps (sonde de connexion du client)
+                    Snapshot current = snapshot();
+                    exchange.getResponseHeaders().set("ETag", "\"" + current.version + "\"");
+                    exchange.getResponseHeaders().set("X-Catalog-Version", String.valueOf(current.version));
+                    send(exchange, 200, null);
+                } else if ("POST".equals(method)) {
+                    create(exchange);
+                } else {
+                    send(exchange, 405, null);
+                }
+            } else if (rest.equals("/changes") && "GET".equals(method)) {
+                changes(exchange);
+            } else if (rest.equals("/changes/stream") && "GET".equals(method)) {
+                streamChanges(exchange);
+            } else if (rest.equals("/bulk")) {
+                if ("POST".equals(method)) {
+                    createBulk(exchange);
+                } else {
+                    send(exchange, 405, null);
+                }
+            } else {
+                Long id = parseId(rest.substring(1));
+                if (id == null) {
+                    send(exchange, 404, null);
+                } else if ("GET".equals(method)) {
+                    Book book = books.get(id);
+                    send(exchange, book == null ? 404 : 200, book == null ? null : json(book));
+                } else if ("PUT".equals(method)) {
+                    update(exchange, id);
+                } else if ("PATCH".equals(method) && patch) {
+                    patch(exchange, id);
+                } else if ("DELETE".equals(method)) {
+                    boolean removed = books.remove(id) != null;
+                    if (removed) {
+                        changed(id);
+                    }
+                    send(exchange, removed ? 204 : 404, null);
+                } else {
+                    send(exchange, 405, null);
+                }
+            }
+        } catch (JsonParseException e) {
+            send(exchange, 400, null);
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        Snapshot current = snapshot();
+        String etag = "\"" + current.version + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("X-Catalog-Version", String.valueOf(current.version));
+        Map<String, String> query = query(exchange.getRequestURI());
+        if (!query.containsKey("page") && !query.containsKey("size")) {
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                send(exchange, 304, null);
+            } else if (acceptsGzip(exchange)) {
+                sendEncoded(exchange, 200, current.gzip());
+            } else {
+                send(exchange, 200, current.json());
+            }
+            return;
+        }
+        int page = Math.max(0, intParam(query, "page", 0));
+        int size = Math.max(1, intParam(query, "size", 20));
+        int from = (int) Math.min((long) page * size, current.books.length);
+        int to = Math.min(from + size, current.books.length);
+        Map<String, Object> body = new HashMap<>();
+        body.put("content", Arrays.asList(current.books).subList(from, to));
+        body.put("totalElements", current.books.length);
+        body.put("last", to >= current.books.length);
+        send(exchange, 200, json(body));
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        Book book = gson.fromJson(readBody(exchange), Book.class);
+        if (book == null) {
+            send(exchange, 400, null);
+            return;
+        }
+        Book saved = save(book);
+        exchange.getResponseHeaders().set("Location", BOOKS_ENDPOINT + "/" + saved.getId());
+        send(exchange, 201, json(saved));
+    }
+
+    private void createBulk(HttpExchange exchange) throws IOException {
+        List<Book> received = gson.fromJson(readBody(exchange), BOOK_LIST_TYPE);
+        List<Book> saved = new ArrayList<>();
+        if (received != null) {
+            for (Book book : received) {
+                saved.add(save(book));
+            }
+        }
+        send(exchange, 201, json(saved));
+    }
+
+    private void update(HttpExchange exchange, long id) throws IOException {
+        Book book = gson.fromJson(readBody(exchange), Book.class);
+        if (book == null) {
+            send(exchange, 400, null);
+            return;
+        }
+        book.setId(id);
+        if (books.replace(id, book) == null) {
+            send(exchange, 404, null);
+            return;
+        }
+        changed(id);
+        send(exchange, 200, json(book));
+    }
+
+    // JSON Merge Patch (RFC 7396) : les champs présents remplacent, un null efface
+    private void patch(HttpExchange exchange, long id) throws IOException {
+        JsonElement body = JsonParser.parseString(readBody(exchange));
+        if (!body.isJsonObject()) {
+            send(exchange, 400, null);
+            return;
+        }
+        Book patched = books.computeIfPresent(id, (key, current) -> {
+            JsonObject merged = gson.toJsonTree(current).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> field : body.getAsJsonObject().entrySet()) {
+                if (field.getValue().isJsonNull()) {
+                    merged.remove(field.getKey());
+                } else {
+                    merged.add(field.getKey(), field.getValue());
+                }
+            }
+            Book book = gson.fromJson(merged, Book.class);
+            book.setId(key);
+            return book;
+        });
+        if (patched == null) {
+            send(exchange, 404, null);
+            return;
+        }
+        changed(id);
+        send(exchange, 200, json(patched));
+    }
+
+    private Book save(Book book) {
+        book.setId(nextId.getAndIncrement());
+        books.put(book.getId(), book);
+        changed(book.getId());
+        return book;
+    }
+
+    private void changed(long id) {
+        changes.put(version.incrementAndGet(), id);
+        synchronized (changeSignal) {
+            changeSignal.notifyAll();
+        }
+    }
+
+    private void changes(HttpExchange exchange) throws IOException {
+        Long since = parseId(query(exchange.getRequestURI()).getOrDefault("since", ""));
+        if (since == null) {
+            send(exchange, 400, null);
+            return;
+        }
+        send(exchange, 200, json(delta(since)));
+    }
+
+    // Un événement SSE par lot de changements ; le flux reste ouvert jusqu'à la déconnexion du client
+    private void streamChanges(HttpExchange exchange) throws IOException {
+        Long since = parseId(query(exchange.getRequestURI()).getOrDefault("since", ""));
+        if (since == null) {
+            send(exchange, 400, null);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        long last = since;
+        try {
+            while (true) {
+                synchronized (changeSignal) {
+                    if (version.get() == last) {
+                        changeSignal.wait(SSE_HEARTBEAT_MILLIS);
+                    }
+                }
+                if (version.get() == last) {
+                    out.write(":\n\n".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    Map<String, Object> delta = delta(last);
+                    last = (Long) delta.get("version");
+                    out.write(("data: " + gson.toJson(delta) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client déconnecté
+        }
+    }
+
+    // Livres créés ou modifiés et ids supprimés depuis since, au format CatalogDelta
+    private Map<String, Object> delta(long since) {
+        long current = version.get();
+        List<Book> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(changes.subMap(since, false, current, true).values())) {
+            Book book = books.get(id);
+            if (book != null) {
+                upserted.add(book);
+            } else {
+                deleted.add(id);
+            }
+        }
+        Map<String, Object> delta = new HashMap<>();
+        delta.put("version", current);
+        delta.put("upserted", upserted);
+        delta.put("deleted", deleted);
+        return delta;
+    }
+
+    // Catalogue figé et sérialisé une fois par version, partagé par toutes les lectures concurrentes
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        long v = version.get();
+        if (current == null || current.version != v) {
+            current = new Snapshot(v, books.values().toArray(new Book[0]));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private void simulateLatency() {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private String readBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        try (InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[CHUNK_SIZE];
+            int n;
+            while ((n = reader.read(buffer)) > 0) {
+                sb.append(buffer, 0, n);
+            }
+            return sb.toString();
+        }
+    }
+
+    private boolean acceptsGzip(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return compression && accept != null && accept.contains("gzip");
+    }
+
+    private byte[] json(Object value) {
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body != null && body.length >= MIN_COMPRESSED_RESPONSE && acceptsGzip(exchange)) {
+            sendEncoded(exchange, status, gzip(body));
+            return;
+        }
+        if (body != null) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+        }
+        write(exchange, status, body);
+    }
+
+    private void sendEncoded(HttpExchange exchange, int status, byte[] gzipped) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        write(exchange, status, gzipped);
+    }
+
+    // Corps envoyé par morceaux, avec une pause qui ramène le débit à la bande passante simulée
+    private void write(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        long start = System.nanoTime();
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int off = 0; off < body.length; off += CHUNK_SIZE) {
+                int len = Math.min(CHUNK_SIZE, body.length - off);
+                out.write(body, off, len);
+                long limit = bandwidth;
+                if (limit > 0) {
+                    long due = (off + len) * 1_000_000_000L / limit;
+                    long ahead = due - (System.nanoTime() - start);
+                    if (ahead > 0) {
+                        try {
+                            Thread.sleep(ahead / 1_000_000, (int) (ahead % 1_000_000));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, CHUNK_SIZE)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        if (uri.getRawQuery() != null) {
+            for (String pair : uri.getRawQuery().split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        try {
+            return params.containsKey(name) ? Integer.parseInt(params.get(name)) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // Arguments --nom=valeur
+    static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    // Applique les réglages communs au serveur et au générateur de charge
+    void configure(Map<String, String> options) {
+        setLatencyMillis(Long.parseLong(options.getOrDefault("latency", "0")));
+        setJitterMillis(Long.parseLong(options.getOrDefault("jitter", "0")));
+        setErrorRate(Double.parseDouble(options.getOrDefault("errors", "0")));
+        // En Ko/s
+        setBandwidth(Long.parseLong(options.getOrDefault("bandwidth", "0")) * 1024);
+        setCompression(Boolean.parseBoolean(options.getOrDefault("gzip", "true")));
+        setPatchSupported(Boolean.parseBoolean(options.getOrDefault("patch", "true")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseArgs(args);
+        StubBookServer server = new StubBookServer(
+                Integer.parseInt(options.getOrDefault("port", "8082")),
+                Integer.parseInt(options.getOrDefault("books", "10000")),
+                options.getOrDefault("user", DEFAULT_USERNAME),
+                options.getOrDefault("password", DEFAULT_PASSWORD));
+        server.configure(options);
+        server.start();
+        System.out.printf("StubBookServer : %d livres sur %s (écritures : %s)%n", server.getBookCount(), server.getUrl(),
+                options.getOrDefault("user", DEFAULT_USERNAME));
+    }
+
+    /** Catalogue à une version donnée, avec ses sérialisations calculées à la première demande. */
+    private final class Snapshot {
+        private final long version;
+        private final Book[] books;
+        private byte[] json;
+        private byte[] gzip;
+
+        private Snapshot(long version, Book[] books) {
+            this.version = version;
+            this.books = books;
+        }
+
+        private synchronized byte[] json() {
+            if (json == null) {
+                json = StubBookServer.this.json(books);
+            }
+            return json;
+        }
+
+        private synchronized byte[] gzip() {
+            if (gzip == null) {
+                gzip = StubBookServer.gzip(json());
+            }
+            return gzip;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package be.condorcet.javafx;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.metrics.StartupTimer;
 import be.condorcet.javafx.service.BookApiService;
 import be.condorcet.javafx.view.BookCatalogController;
 import javafx.application.Application;
-import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -15,8 +20,12 @@ import javafx.stage.Stage;
 
 public class App extends Application {
 
+    private static final System.Logger LOG = System.getLogger(App.class.getName());
+
     @Override
     public void start(Stage primaryStage) throws Exception {
+        CompletableFuture<FXMLLoader> catalogView = preloadCatalogView();
+
         // === FENÊTRE DE CONNEXION STYLÉE ===
         GridPane grid = new GridPane();
         grid.setAlignment(Pos.CENTER);
@@ -70,34 +79,65 @@ public class App extends Application {
                 return;
             }
 
-            // Test de connexion
-            BookApiService testService = new BookApiService(username, password);
-
-            testService.loadBooksAsync(
-                books -> Platform.runLater(() -> {
-                    try {
-                        FXMLLoader loader = new FXMLLoader(getClass().getResource("/be/condorcet/javafx/view/book-catalog.fxml"));
-                        Scene mainScene = new Scene(loader.load());
-
-                        BookCatalogController controller = loader.getController();
-                        controller.setApiService(new BookApiService(username, password));
-                        controller.loadBooksAfterLogin();
-
-                        primaryStage.setScene(mainScene);
-                        primaryStage.setTitle("Krousty Books");
-                        primaryStage.show();
-
-                        loginStage.close();
-                    } catch (Exception ex) {
-                        errorLabel.setText("Erreur chargement interface");
-                        ex.printStackTrace();
-                    }
-                }),
-                () -> Platform.runLater(() -> errorLabel.setText("Identifiants incorrects ou serveur inaccessible"))
-            );
+            loginBtn.setDisable(true);
+            errorLabel.setText("");
+            // La vue est prête en général bien avant que l'utilisateur ait fini de taper
+            catalogView.whenComplete((loader, ex) -> PerfMetrics.runLater(() -> {
+                if (ex != null) {
+                    LOG.log(System.Logger.Level.ERROR, "Chargement de book-catalog.fxml impossible", ex);
+                    errorLabel.setText("Erreur chargement interface");
+                    loginBtn.setDisable(false);
+                    return;
+                }
+                BookCatalogController controller = loader.getController();
+                controller.login(new BookApiService(username, password),
+                    () -> {
+                        loginBtn.setDisable(false);
+                        passwordField.clear();
+                        showCatalog(primaryStage, loginStage, loader);
+                    },
+                    () -> {
+                        loginBtn.setDisable(false);
+                        errorLabel.setText("Identifiants incorrects");
+                    },
+                    error -> {
+                        loginBtn.setDisable(false);
+                        errorLabel.setText(error);
+                    });
+            }));
         });
 
-        loginStage.showAndWait();
+        loginStage.show();
+        StartupTimer.mark("formulaire de connexion affiché");
+    }
+
+    // FXML et contrôleur construits hors du thread FX pendant que le formulaire de connexion est affiché
+    private static CompletableFuture<FXMLLoader> preloadCatalogView() {
+        return CompletableFuture.supplyAsync(() -> {
+            FXMLLoader loader = new FXMLLoader(App.class.getResource("/be/condorcet/javafx/view/book-catalog.fxml"));
+            try {
+                loader.load();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            StartupTimer.mark("catalogue prêt");
+            return loader;
+        }, task -> Thread.ofVirtual().name("fxml-preload").start(task));
+    }
+
+    private void showCatalog(Stage primaryStage, Stage loginStage, FXMLLoader loader) {
+        if (primaryStage.getScene() == null) {
+            primaryStage.setScene(new Scene(loader.getRoot()));
+            primaryStage.setTitle("Krousty Books");
+            BookCatalogController controller = loader.getController();
+            // Déconnexion : la même scène sera réaffichée à la prochaine connexion
+            controller.setOnLogout(() -> {
+                loginStage.show();
+                primaryStage.hide();
+            });
+        }
+        primaryStage.show();
+        loginStage.hide();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,21 @@
+package be.condorcet.javafx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Événement JFR émis à chaque changement d'état du disjoncteur d'un serveur. */
+@Name("be.condorcet.javafx.CircuitBreaker")
+@Label("Disjoncteur")
+@Category({"Krousty Books", "Réseau"})
+class CircuitBreakerEvent extends jdk.jfr.Event {
+
+    @Label("Serveur")
+    String server;
+
+    @Label("État précédent")
+    String from;
+
+    @Label("Nouvel état")
+    String to;
+}
@@ -0,0 +1,25 @@
+package be.condorcet.javafx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** Événement JFR : décodage JSON d'une réponse du catalogue. */
+@Name("be.condorcet.javafx.Decode")
+@Label("Décodage JSON")
+@Category({"Krousty Books", "Réseau"})
+class DecodeEvent extends jdk.jfr.Event {
+
+    @Label("Livres")
+    int books;
+
+    @Label("Octets")
+    @DataAmount
+    long bytes;
+
+    @Label("Durée")
+    @Timespan(Timespan.MILLISECONDS)
+    long durationMillis;
+}
@@ -0,0 +1,22 @@
+package be.condorcet.javafx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Événement JFR : tâche exécutée via Platform.runLater. La durée de l'événement est celle de la tâche ;
+ * seules les tâches de plus de 5 ms sont enregistrées par défaut.
+ */
+@Name("be.condorcet.javafx.FxTask")
+@Label("Tâche FX")
+@Category({"Krousty Books", "JavaFX"})
+@Threshold("5 ms")
+class FxTaskEvent extends jdk.jfr.Event {
+
+    @Label("Attente dans la file")
+    @Timespan(Timespan.MILLISECONDS)
+    long queuedMillis;
+}
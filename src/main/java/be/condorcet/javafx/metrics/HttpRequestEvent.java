@@ -0,0 +1,30 @@
+package be.condorcet.javafx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** Événement JFR émis à la réception des en-têtes de chaque réponse HTTP. */
+@Name("be.condorcet.javafx.HttpRequest")
+@Label("Requête HTTP")
+@Category({"Krousty Books", "Réseau"})
+class HttpRequestEvent extends jdk.jfr.Event {
+
+    @Label("Méthode")
+    String method;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Statut")
+    int status;
+
+    @Label("Attente dans la file")
+    @Timespan(Timespan.MILLISECONDS)
+    long queuedMillis;
+
+    @Label("Durée")
+    @Timespan(Timespan.MILLISECONDS)
+    long durationMillis;
+}
@@ -0,0 +1,33 @@
+package be.condorcet.javafx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Événement JFR émis quand le corps d'une réponse HTTP a été entièrement lu et décompressé. */
+@Name("be.condorcet.javafx.HttpTransfer")
+@Label("Transfert HTTP")
+@Category({"Krousty Books", "Réseau"})
+class HttpTransferEvent extends jdk.jfr.Event {
+
+    @Label("Méthode")
+    String method;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Protocole")
+    String protocol;
+
+    @Label("Encodage")
+    String encoding;
+
+    @Label("Octets reçus")
+    @DataAmount
+    long wireBytes;
+
+    @Label("Octets décodés")
+    @DataAmount
+    long decodedBytes;
+}
@@ -0,0 +1,188 @@
+package be.condorcet.javafx.metrics;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+import javafx.application.Platform;
+
+/**
+ * Registre global des mesures de performance : histogrammes de latence par nom
+ * (ex. "http GET /api/books/{id}") et compteurs. Chaque mesure est aussi émise comme
+ * événement JFR, enregistré seulement si un enregistrement Flight Recorder est actif.
+ */
+public final class PerfMetrics {
+
+    public static final String DECODE = "décodage JSON";
+    public static final String FX_QUEUE = "file runLater";
+    public static final String CELL_UPDATE = "cellule updateItem";
+    public static final String FX_PULSE = "pulse FX";
+    public static final String HTTP_QUEUE = "file HTTP";
+    public static final String WIRE_BYTES = "octets reçus (réseau)";
+    public static final String DECODED_BYTES = "octets décodés";
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    // Exécution des callbacks d'interface ; remplaçable par les outils sans écran (générateur de charge)
+    private static volatile Executor uiExecutor = Platform::runLater;
+
+    private static final int RECENT_TRANSFERS = 100;
+    private static final Deque<TransferStats> TRANSFERS = new ArrayDeque<>();
+
+    private PerfMetrics() {
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    // Chemin sans query, identifiants numériques remplacés : un histogramme par endpoint et non par livre
+    public static String endpointOf(URI uri) {
+        String path = uri.getPath();
+        return path == null ? "" : path.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    public static void recordHttp(String method, URI uri, int status, long queuedNanos, long nanos) {
+        String endpoint = endpointOf(uri);
+        histogram("http " + method + " " + endpoint).recordNanos(nanos);
+        histogram(HTTP_QUEUE).recordNanos(queuedNanos);
+        if (status >= 400) {
+            counter("erreurs " + method + " " + endpoint).increment();
+        }
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.endpoint = endpoint;
+            event.status = status;
+            event.queuedMillis = queuedNanos / 1_000_000;
+            event.durationMillis = nanos / 1_000_000;
+            event.commit();
+        }
+    }
+
+    public static void recordError(String method, URI uri, Throwable ex) {
+        counter("erreurs " + method + " " + endpointOf(uri)).increment();
+    }
+
+    // Nouvel essai d'une requête idempotente après une erreur réseau, un délai dépassé ou un 429 / 502-504
+    public static void recordRetry(String method, URI uri) {
+        counter("reprises " + method + " " + endpointOf(uri)).increment();
+    }
+
+    public static void recordCircuitState(String server, String from, String to) {
+        counter("disjoncteur : " + from + " -> " + to).increment();
+        CircuitBreakerEvent event = new CircuitBreakerEvent();
+        if (event.shouldCommit()) {
+            event.server = server;
+            event.from = from;
+            event.to = to;
+            event.commit();
+        }
+    }
+
+    // Corps de réponse entièrement lu : octets sur le réseau et après décompression
+    public static void recordTransfer(String method, URI uri, String protocol, String encoding,
+                                      long wireBytes, long decodedBytes) {
+        TransferStats stats = new TransferStats(method, endpointOf(uri), protocol, encoding, wireBytes, decodedBytes);
+        counter(WIRE_BYTES).add(wireBytes);
+        counter(DECODED_BYTES).add(decodedBytes);
+        synchronized (TRANSFERS) {
+            if (TRANSFERS.size() == RECENT_TRANSFERS) {
+                TRANSFERS.removeFirst();
+            }
+            TRANSFERS.addLast(stats);
+        }
+        HttpTransferEvent event = new HttpTransferEvent();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.endpoint = stats.getEndpoint();
+            event.protocol = protocol;
+            event.encoding = encoding;
+            event.wireBytes = wireBytes;
+            event.decodedBytes = decodedBytes;
+            event.commit();
+        }
+    }
+
+    // Derniers échanges, du plus ancien au plus récent
+    public static List<TransferStats> recentTransfers() {
+        synchronized (TRANSFERS) {
+            return new ArrayList<>(TRANSFERS);
+        }
+    }
+
+    public static void recordDecode(long nanos, int books, long bytes) {
+        histogram(DECODE).recordNanos(nanos);
+        DecodeEvent event = new DecodeEvent();
+        if (event.shouldCommit()) {
+            event.books = books;
+            event.bytes = bytes;
+            event.durationMillis = nanos / 1_000_000;
+            event.commit();
+        }
+    }
+
+    public static void recordCellUpdate(long nanos) {
+        histogram(CELL_UPDATE).recordNanos(nanos);
+    }
+
+    public static void setUiExecutor(Executor executor) {
+        uiExecutor = executor;
+    }
+
+    // Platform.runLater mesuré : temps passé dans la file du thread FX et durée de la tâche
+    public static void runLater(Runnable task) {
+        long queued = System.nanoTime();
+        uiExecutor.execute(() -> {
+            long start = System.nanoTime();
+            histogram(FX_QUEUE).recordNanos(start - queued);
+            FxTaskEvent event = new FxTaskEvent();
+            event.begin();
+            try {
+                task.run();
+            } finally {
+                if (event.shouldCommit()) {
+                    event.queuedMillis = (start - queued) / 1_000_000;
+                    event.commit();
+                }
+            }
+        });
+    }
+
+    public static void reset() {
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+        COUNTERS.values().forEach(LongAdder::reset);
+        synchronized (TRANSFERS) {
+            TRANSFERS.clear();
+        }
+    }
+
+    // Résumé texte pour l'overlay : une ligne par histogramme (µs -> ms) puis les compteurs
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(HISTOGRAMS).forEach((name, h) -> {
+            if (h.getCount() > 0) {
+                sb.append(String.format("%-32s n=%-6d p50=%7.1f p99=%7.1f max=%7.1f ms%n", name, h.getCount(),
+                        h.percentile(50) / 1000.0, h.percentile(99) / 1000.0, h.getMax() / 1000.0));
+            }
+        });
+        new TreeMap<>(COUNTERS).forEach((name, c) -> sb.append(String.format("%-32s %d%n", name, c.sum())));
+        long wire = counter(WIRE_BYTES).sum();
+        if (wire > 0) {
+            sb.append(String.format("%-32s %.1fx%n", "compression", (double) counter(DECODED_BYTES).sum() / wire));
+        }
+        return sb.toString();
+    }
+}
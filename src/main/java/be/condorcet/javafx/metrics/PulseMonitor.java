@@ -0,0 +1,26 @@
+package be.condorcet.javafx.metrics;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Intervalle entre deux pulses JavaFX (rendu d'une frame). Un AnimationTimer actif force un pulse
+ * à chaque frame : il n'est démarré que pendant l'affichage de l'overlay de statistiques.
+ */
+public class PulseMonitor extends AnimationTimer {
+
+    private long lastPulse;
+
+    @Override
+    public void handle(long now) {
+        if (lastPulse != 0) {
+            PerfMetrics.histogram(PerfMetrics.FX_PULSE).recordNanos(now - lastPulse);
+        }
+        lastPulse = now;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        lastPulse = 0;
+    }
+}
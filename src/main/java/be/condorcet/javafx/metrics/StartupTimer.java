@@ -0,0 +1,35 @@
+package be.condorcet.javafx.metrics;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Jalons du démarrage, mesurés depuis le lancement du processus (ou à défaut le chargement de cette classe)
+ * et journalisés une seule fois : formulaire de connexion affiché, catalogue prêt, premier livre rendu.
+ */
+public final class StartupTimer {
+
+    public static final String FIRST_BOOK = "premier livre affiché";
+
+    private static final System.Logger LOG = System.getLogger(StartupTimer.class.getName());
+    private static final Instant START = ProcessHandle.current().info().startInstant().orElseGet(Instant::now);
+
+    private static volatile boolean firstBookRendered;
+
+    private StartupTimer() {
+    }
+
+    public static void mark(String milestone) {
+        long millis = Duration.between(START, Instant.now()).toMillis();
+        PerfMetrics.histogram("démarrage : " + milestone).record(millis * 1000);
+        LOG.log(System.Logger.Level.INFO, "Démarrage : {0} après {1} ms", milestone, millis);
+    }
+
+    // Appelé à chaque rendu de cellule : une simple lecture de champ une fois le jalon atteint
+    public static void firstBookRendered() {
+        if (!firstBookRendered) {
+            firstBookRendered = true;
+            mark(FIRST_BOOK);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package be.condorcet.javafx.metrics;
+
+/**
+ * Volume d'un échange HTTP : octets reçus sur le réseau (corps éventuellement compressé)
+ * et octets après décompression, avec l'encodage et la version du protocole négociés.
+ */
+public class TransferStats {
+    private final String method;
+    private final String endpoint;
+    private final String protocol;
+    private final String encoding;
+    private final long wireBytes;
+    private final long decodedBytes;
+
+    public TransferStats(String method, String endpoint, String protocol, String encoding,
+                         long wireBytes, long decodedBytes) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.protocol = protocol;
+        this.encoding = encoding;
+        this.wireBytes = wireBytes;
+        this.decodedBytes = decodedBytes;
+    }
+
+    public String getMethod() { return method; }
+    public String getEndpoint() { return endpoint; }
+    // "HTTP/2" ou "HTTP/1.1"
+    public String getProtocol() { return protocol; }
+    // "identity" si le corps n'était pas compressé
+    public String getEncoding() { return encoding; }
+    public long getWireBytes() { return wireBytes; }
+    public long getDecodedBytes() { return decodedBytes; }
+
+    // Octets décodés par octet reçu (1 sans compression)
+    public double getCompressionRatio() {
+        return wireBytes == 0 ? 1 : (double) decodedBytes / wireBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s %s %s %d -> %d octets", method, endpoint, protocol, encoding, wireBytes, decodedBytes);
+    }
+}
@@ -1,6 +1,13 @@
 package be.condorcet.javafx.model;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 public class Book {
+    // Image enregistrée quand aucune couverture n'est fournie
+    public static final String PLACEHOLDER_IMAGE = "https://via.placeholder.com/300x450?text=No+Image";
+
     private Long id;
     private String title;
     private String author;
@@ -9,6 +16,17 @@ public class Book {
     private int stock;
     private String imageUrl;   
     private String synopsis;   
+    // Champs modifiés par les setters, un bit par champ ; transient : ni envoyé ni journalisé
+    private transient int dirty;
+
+    private static final int TITLE = 1;
+    private static final int AUTHOR = 1 << 1;
+    private static final int ISBN = 1 << 2;
+    private static final int GENRE = 1 << 3;
+    private static final int STOCK = 1 << 4;
+    private static final int IMAGE_URL = 1 << 5;
+    private static final int SYNOPSIS = 1 << 6;
+    private static final String[] FIELD_NAMES = { "title", "author", "isbn", "genre", "stock", "imageUrl", "synopsis" };
 
     // Constructeur vide obligatoire pour Gson
     public Book() {}
@@ -34,13 +52,125 @@ public class Book {
     public String getSynopsis() { return synopsis; }
 
     public void setId(Long id) { this.id = id; }
-    public void setTitle(String title) { this.title = title; }
-    public void setAuthor(String author) { this.author = author; }
-    public void setIsbn(String isbn) { this.isbn = isbn; }
-    public void setGenre(String genre) { this.genre = genre; }
-    public void setStock(int stock) { this.stock = stock; }
-    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
-    public void setSynopsis(String synopsis) { this.synopsis = synopsis; }
+
+    // Chaque setter ne marque le champ modifié que si la valeur change vraiment
+    public void setTitle(String title) {
+        if (!Objects.equals(this.title, title)) {
+            this.title = title;
+            dirty |= TITLE;
+        }
+    }
+
+    public void setAuthor(String author) {
+        if (!Objects.equals(this.author, author)) {
+            this.author = author;
+            dirty |= AUTHOR;
+        }
+    }
+
+    public void setIsbn(String isbn) {
+        if (!Objects.equals(this.isbn, isbn)) {
+            this.isbn = isbn;
+            dirty |= ISBN;
+        }
+    }
+
+    public void setGenre(String genre) {
+        if (!Objects.equals(this.genre, genre)) {
+            this.genre = genre;
+            dirty |= GENRE;
+        }
+    }
+
+    public void setStock(int stock) {
+        if (this.stock != stock) {
+            this.stock = stock;
+            dirty |= STOCK;
+        }
+    }
+
+    public void setImageUrl(String imageUrl) {
+        if (!Objects.equals(this.imageUrl, imageUrl)) {
+            this.imageUrl = imageUrl;
+            dirty |= IMAGE_URL;
+        }
+    }
+
+    public void setSynopsis(String synopsis) {
+        if (!Objects.equals(this.synopsis, synopsis)) {
+            this.synopsis = synopsis;
+            dirty |= SYNOPSIS;
+        }
+    }
+
+    public boolean isDirty() {
+        return dirty != 0;
+    }
+
+    // Noms JSON des champs modifiés depuis la création ou le dernier clearDirty(), dans l'ordre des champs
+    public List<String> getDirtyFields() {
+        List<String> fields = new ArrayList<>(Integer.bitCount(dirty));
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if ((dirty & (1 << i)) != 0) {
+                fields.add(FIELD_NAMES[i]);
+            }
+        }
+        return fields;
+    }
+
+    public void clearDirty() {
+        dirty = 0;
+    }
+
+    /**
+     * Copie de before portant les valeurs de ce livre : seuls les champs qui diffèrent entre les deux
+     * sont marqués modifiés (corps d'un PATCH).
+     */
+    public Book changesSince(Book before) {
+        Book changes = before.copy();
+        changes.setId(id);
+        changes.setTitle(title);
+        changes.setAuthor(author);
+        changes.setIsbn(isbn);
+        changes.setGenre(genre);
+        changes.setStock(stock);
+        changes.setImageUrl(imageUrl);
+        changes.setSynopsis(synopsis);
+        return changes;
+    }
+
+    // Copie indépendante et sans champ modifié : les modifications locales ne touchent pas le livre affiché
+    public Book copy() {
+        return new Book(id, title, author, isbn, genre, stock, imageUrl, synopsis);
+    }
+
+    // Règle de saisie commune au formulaire d'ajout et à l'import : titre, auteur et genre obligatoires
+    public boolean hasRequiredFields() {
+        return title != null && !title.isBlank()
+                && author != null && !author.isBlank()
+                && genre != null && !genre.isBlank();
+    }
+
+    public boolean hasCover() {
+        return imageUrl != null && !imageUrl.isBlank() && !PLACEHOLDER_IMAGE.equals(imageUrl);
+    }
+
+    public boolean hasSynopsis() {
+        return synopsis != null && !synopsis.isBlank();
+    }
+
+    // Comparaison champ par champ, utilisée pour ne réappliquer que les livres modifiés
+    public boolean hasSameContent(Book other) {
+        return other != null
+                && stock == other.stock
+                && Objects.equals(id, other.id)
+                && Objects.equals(title, other.title)
+                && Objects.equals(author, other.author)
+                && Objects.equals(isbn, other.isbn)
+                && Objects.equals(genre, other.genre)
+                && Objects.equals(imageUrl, other.imageUrl)
+                && Objects.equals(synopsis, other.synopsis);
+    }
 
     @Override
     public String toString() {
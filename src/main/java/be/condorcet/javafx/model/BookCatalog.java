@@ -0,0 +1,223 @@
+package be.condorcet.javafx.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Catalogue côté client, indexé par id.
+ * La liste observable est créée une seule fois : les ajouts, modifications et
+ * suppressions sont appliqués sur place au lieu de recharger tout le catalogue.
+ */
+public class BookCatalog {
+
+    private final ObservableList<Book> items;
+    private final Map<Long, Book> byId = new HashMap<>();
+
+    public BookCatalog() {
+        this(FXCollections.observableArrayList());
+    }
+
+    // Pour un autre stockage de la liste (ColumnarBookCatalog)
+    protected BookCatalog(ObservableList<Book> items) {
+        this.items = items;
+    }
+
+    public ObservableList<Book> getItems() {
+        return items;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public Book get(Long id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public void setAll(List<Book> books) {
+        byId.clear();
+        for (Book book : books) {
+            if (book.getId() != null) {
+                byId.put(book.getId(), book);
+            }
+        }
+        items.setAll(books);
+    }
+
+    public void clear() {
+        byId.clear();
+        items.clear();
+    }
+
+    // Ajout d'un lot reçu en streaming
+    public void addAll(List<Book> books) {
+        for (Book book : books) {
+            if (book.getId() != null) {
+                byId.put(book.getId(), book);
+            }
+        }
+        items.addAll(books);
+    }
+
+    /**
+     * Applique uniquement les différences entre le catalogue local et une version fraîche :
+     * suppressions, remplacements des livres modifiés, ajouts en fin de liste.
+     * Retourne le nombre de livres touchés.
+     */
+    public int applyDiff(List<Book> fresh) {
+        Set<Long> freshIds = new HashSet<>(fresh.size() * 2);
+        for (Book book : fresh) {
+            freshIds.add(book.getId());
+        }
+
+        Set<Book> removed = new HashSet<>();
+        for (Book book : items) {
+            if (book != null && !freshIds.contains(book.getId())) {
+                removed.add(book);
+                byId.remove(book.getId());
+            }
+        }
+        if (!removed.isEmpty()) {
+            items.removeIf(removed::contains);
+        }
+
+        Map<Long, Book> updates = new HashMap<>();
+        List<Book> added = new ArrayList<>();
+        for (Book book : fresh) {
+            Book existing = byId.get(book.getId());
+            if (existing == null) {
+                added.add(book);
+            } else if (!existing.hasSameContent(book)) {
+                updates.put(book.getId(), book);
+            }
+        }
+        int replaced = replaceInPlace(updates);
+        addAll(added);
+        return removed.size() + replaced + added.size();
+    }
+
+    /**
+     * Applique un lot de changements reçus du serveur (synchronisation incrémentale) :
+     * suppressions en une passe, remplacements sur place, créations ajoutées en fin de liste.
+     * Un id ne doit pas être à la fois dans upserted et deleted. Retourne le nombre de livres touchés.
+     */
+    public int applyDelta(List<Book> upserted, Collection<Long> deleted) {
+        Set<Book> removed = new HashSet<>();
+        for (Long id : deleted) {
+            Book existing = byId.remove(id);
+            if (existing != null) {
+                removed.add(existing);
+            }
+        }
+        if (!removed.isEmpty()) {
+            items.removeIf(removed::contains);
+        }
+
+        Map<Long, Book> updates = new HashMap<>();
+        List<Book> added = new ArrayList<>();
+        for (Book book : upserted) {
+            Book existing = byId.get(book.getId());
+            if (existing == null) {
+                added.add(book);
+            } else if (!existing.hasSameContent(book)) {
+                updates.put(book.getId(), book);
+            }
+        }
+        int replaced = replaceInPlace(updates);
+        addAll(added);
+        return removed.size() + replaced + added.size();
+    }
+
+    // Une seule passe sur la liste pour tous les remplacements, au lieu d'un indexOf par livre
+    private int replaceInPlace(Map<Long, Book> updates) {
+        int remaining = updates.size();
+        for (int i = 0; i < items.size() && remaining > 0; i++) {
+            Book current = items.get(i);
+            Book update = current == null ? null : updates.get(current.getId());
+            if (update != null && byId.get(current.getId()) == current) {
+                byId.put(update.getId(), update);
+                items.set(i, update);
+                remaining--;
+            }
+        }
+        return updates.size() - remaining;
+    }
+
+    /**
+     * Remplace la plage [from, to) par des emplacements vides (null) pour libérer la mémoire
+     * d'une page éloignée de la zone visible. Les lignes sont remplacées sur place : aucun index ne bouge.
+     */
+    public void evict(int from, int to) {
+        to = Math.min(to, items.size());
+        if (from >= to) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            Book book = items.get(i);
+            if (book != null) {
+                if (book.getId() != null) {
+                    byId.remove(book.getId());
+                }
+                items.set(i, null);
+            }
+        }
+    }
+
+    // Remplit à nouveau les emplacements vides d'une page rechargée
+    public void fill(int from, List<Book> books) {
+        int to = Math.min(from + books.size(), items.size());
+        if (from >= to) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            Book book = books.get(i - from);
+            if (items.get(i) == null && book.getId() != null && !byId.containsKey(book.getId())) {
+                byId.put(book.getId(), book);
+                items.set(i, book);
+            }
+        }
+    }
+
+    // Retourne false si la réponse du serveur ne correspond pas au catalogue local
+    public boolean applyCreated(Book created) {
+        if (created == null || created.getId() == null || byId.containsKey(created.getId())) {
+            return false;
+        }
+        byId.put(created.getId(), created);
+        items.add(created);
+        return true;
+    }
+
+    public boolean applyUpdated(Book updated) {
+        return updated != null && applyReplaced(updated.getId(), updated);
+    }
+
+    // Remplace sur place le livre portant cet id, y compris par un livre d'un autre id (id temporaire -> id serveur)
+    public boolean applyReplaced(Long id, Book replacement) {
+        if (id == null || replacement == null || replacement.getId() == null) {
+            return false;
+        }
+        Book existing = byId.get(id);
+        int pos = existing == null ? -1 : items.indexOf(existing);
+        if (pos < 0) {
+            return false;
+        }
+        byId.remove(id);
+        byId.put(replacement.getId(), replacement);
+        items.set(pos, replacement);
+        return true;
+    }
+
+    public boolean applyDeleted(Long id) {
+        Book existing = id == null ? null : byId.remove(id);
+        return existing != null && items.remove(existing);
+    }
+}
@@ -0,0 +1,34 @@
+package be.condorcet.javafx.model;
+
+import java.util.List;
+
+/**
+ * Une page de livres renvoyée par l'API.
+ * unpaged = true quand le backend a ignoré les paramètres de pagination
+ * et renvoyé tout le catalogue d'un coup.
+ */
+public class BookPage {
+    private final int page;
+    private final List<Book> content;
+    private final long totalElements;
+    private final boolean last;
+    private final String nextCursor;
+    private final boolean unpaged;
+
+    public BookPage(int page, List<Book> content, long totalElements, boolean last, String nextCursor, boolean unpaged) {
+        this.page = page;
+        this.content = content;
+        this.totalElements = totalElements;
+        this.last = last;
+        this.nextCursor = nextCursor;
+        this.unpaged = unpaged;
+    }
+
+    public int getPage() { return page; }
+    public List<Book> getContent() { return content; }
+    // -1 si le backend ne donne pas le total
+    public long getTotalElements() { return totalElements; }
+    public boolean isLast() { return last; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isUnpaged() { return unpaged; }
+}
@@ -0,0 +1,134 @@
+package be.condorcet.javafx.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stockage compact des champs texte à forte cardinalité (titre, ISBN, URL d'image, synopsis) :
+ * un enregistrement de 4 champs déjà encodés (TextCodec) par livre, dans des blocs de 4 Mo.
+ * Chaque champ est précédé de sa longueur + 1 en varint (0 = null). Une référence vaut
+ * (numéro de bloc << 32) | position. L'arène n'est jamais modifiée en place : les enregistrements
+ * remplacés deviennent des octets morts, récupérés par compaction dans une nouvelle arène.
+ */
+final class ByteArena {
+
+    static final int TITLE = 0;
+    static final int ISBN = 1;
+    static final int IMAGE_URL = 2;
+    static final int SYNOPSIS = 3;
+    private static final int FIELDS = 4;
+
+    private static final int CHUNK_SIZE = 1 << 22;
+
+    /** Décodage d'un champ lu en place dans un bloc. */
+    interface FieldDecoder {
+        String decode(byte[] buffer, int offset, int length);
+    }
+
+    private final List<byte[]> chunks = new ArrayList<>();
+    private byte[] current;
+    private int position;
+    private long size;
+
+    long append(byte[] t, byte[] i, byte[] u, byte[] s) {
+        int length = encodedLength(t) + encodedLength(i) + encodedLength(u) + encodedLength(s);
+        long ref = reserve(length);
+        writeField(t);
+        writeField(i);
+        writeField(u);
+        writeField(s);
+        return ref;
+    }
+
+    // Copie brute d'un enregistrement d'une autre arène (compaction), sans décodage
+    long copyFrom(ByteArena other, long ref) {
+        int length = other.recordLength(ref);
+        byte[] chunk = other.chunks.get(chunkOf(ref));
+        long copy = reserve(length);
+        System.arraycopy(chunk, offsetOf(ref), current, position, length);
+        position += length;
+        return copy;
+    }
+
+    String read(long ref, int field, FieldDecoder decoder) {
+        byte[] chunk = chunks.get(chunkOf(ref));
+        int pos = offsetOf(ref);
+        for (int f = 0; ; f++) {
+            int header = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = chunk[pos++];
+                header |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (f == field) {
+                return header == 0 ? null : decoder.decode(chunk, pos, header - 1);
+            }
+            pos += Math.max(0, header - 1);
+        }
+    }
+
+    int recordLength(long ref) {
+        byte[] chunk = chunks.get(chunkOf(ref));
+        int start = offsetOf(ref);
+        int pos = start;
+        for (int f = 0; f < FIELDS; f++) {
+            int header = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = chunk[pos++];
+                header |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            pos += Math.max(0, header - 1);
+        }
+        return pos - start;
+    }
+
+    // Octets occupés par les enregistrements (vivants et morts)
+    long size() {
+        return size;
+    }
+
+    private long reserve(int length) {
+        if (current == null || position + length > current.length) {
+            current = new byte[Math.max(CHUNK_SIZE, length)];
+            chunks.add(current);
+            position = 0;
+        }
+        size += length;
+        return ((long) (chunks.size() - 1) << 32) | position;
+    }
+
+    private void writeField(byte[] value) {
+        int header = value == null ? 0 : value.length + 1;
+        while ((header & ~0x7F) != 0) {
+            current[position++] = (byte) ((header & 0x7F) | 0x80);
+            header >>>= 7;
+        }
+        current[position++] = (byte) header;
+        if (value != null) {
+            System.arraycopy(value, 0, current, position, value.length);
+            position += value.length;
+        }
+    }
+
+    private static int encodedLength(byte[] value) {
+        int header = value == null ? 0 : value.length + 1;
+        int bytes = 1;
+        while ((header >>>= 7) != 0) {
+            bytes++;
+        }
+        return bytes + (value == null ? 0 : value.length);
+    }
+
+    private static int chunkOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int offsetOf(long ref) {
+        return (int) ref;
+    }
+}
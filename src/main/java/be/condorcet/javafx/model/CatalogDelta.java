@@ -0,0 +1,27 @@
+package be.condorcet.javafx.model;
+
+import java.util.List;
+
+/**
+ * Changements du catalogue depuis une version : livres créés ou modifiés (upserted) et ids supprimés.
+ * version est le jeton à renvoyer au serveur pour obtenir les changements suivants.
+ */
+public class CatalogDelta {
+    private final String version;
+    private final List<Book> upserted;
+    private final List<Long> deleted;
+
+    public CatalogDelta(String version, List<Book> upserted, List<Long> deleted) {
+        this.version = version;
+        this.upserted = upserted;
+        this.deleted = deleted;
+    }
+
+    public String getVersion() { return version; }
+    public List<Book> getUpserted() { return upserted != null ? upserted : List.of(); }
+    public List<Long> getDeleted() { return deleted != null ? deleted : List.of(); }
+
+    public boolean isEmpty() {
+        return getUpserted().isEmpty() && getDeleted().isEmpty();
+    }
+}
@@ -0,0 +1,130 @@
+package be.condorcet.javafx.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Catalogue stocké en colonnes (ColumnarBookList) pour les très gros catalogues : -Dkrousty.store=columnar.
+ * Aucun Book n'est retenu ; la recherche par id passe par l'index primitif de la liste
+ * au lieu de la table id -> Book du catalogue de base.
+ * Chaque get construit un nouveau Book : tout ce qui garde un livre par ligne (tri et groupement,
+ * inventaire, index des doublons) est désactivé avec ce stockage, et la recherche lit ses résultats par id.
+ */
+public class ColumnarBookCatalog extends BookCatalog {
+
+    private final ColumnarBookList books;
+
+    public ColumnarBookCatalog() {
+        this(new ColumnarBookList());
+    }
+
+    private ColumnarBookCatalog(ColumnarBookList books) {
+        super(books);
+        this.books = books;
+    }
+
+    @Override
+    public Book get(Long id) {
+        int row = books.indexOfId(id);
+        return row < 0 ? null : books.get(row);
+    }
+
+    @Override
+    public void setAll(List<Book> fresh) {
+        books.setAll(fresh);
+    }
+
+    @Override
+    public void clear() {
+        books.clear();
+    }
+
+    @Override
+    public void addAll(List<Book> batch) {
+        books.addAll(batch);
+    }
+
+    @Override
+    public int applyDiff(List<Book> fresh) {
+        Set<Long> freshIds = new HashSet<>(fresh.size() * 2);
+        for (Book book : fresh) {
+            freshIds.add(book.getId());
+        }
+        int changes = books.removeIds(id -> !freshIds.contains(id));
+
+        List<Book> added = new ArrayList<>();
+        for (Book book : fresh) {
+            int row = books.indexOfId(book.getId());
+            if (row < 0) {
+                added.add(book);
+            } else if (!books.get(row).hasSameContent(book)) {
+                books.set(row, book);
+                changes++;
+            }
+        }
+        books.addAll(added);
+        return changes + added.size();
+    }
+
+    @Override
+    public int applyDelta(List<Book> upserted, Collection<Long> deleted) {
+        Set<Long> deletedIds = new HashSet<>(deleted);
+        int changes = deletedIds.isEmpty() ? 0 : books.removeIds(deletedIds::contains);
+
+        List<Book> added = new ArrayList<>();
+        for (Book book : upserted) {
+            int row = books.indexOfId(book.getId());
+            if (row < 0) {
+                added.add(book);
+            } else if (!books.get(row).hasSameContent(book)) {
+                books.set(row, book);
+                changes++;
+            }
+        }
+        books.addAll(added);
+        return changes + added.size();
+    }
+
+    @Override
+    public void fill(int from, List<Book> page) {
+        int to = Math.min(from + page.size(), books.size());
+        for (int i = from; i < to; i++) {
+            Book book = page.get(i - from);
+            if (books.isEmptyRow(i) && book.getId() != null && books.indexOfId(book.getId()) < 0) {
+                books.set(i, book);
+            }
+        }
+    }
+
+    @Override
+    public boolean applyCreated(Book created) {
+        if (created == null || created.getId() == null || books.indexOfId(created.getId()) >= 0) {
+            return false;
+        }
+        books.add(created);
+        return true;
+    }
+
+    @Override
+    public boolean applyReplaced(Long id, Book replacement) {
+        int row = replacement == null || replacement.getId() == null ? -1 : books.indexOfId(id);
+        if (row < 0) {
+            return false;
+        }
+        books.set(row, replacement);
+        return true;
+    }
+
+    @Override
+    public boolean applyDeleted(Long id) {
+        int row = books.indexOfId(id);
+        if (row < 0) {
+            return false;
+        }
+        books.remove(row);
+        return true;
+    }
+}
@@ -0,0 +1,315 @@
+package be.condorcet.javafx.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+import javafx.collections.ModifiableObservableListBase;
+
+/**
+ * Liste observable de livres stockée en colonnes : id et stock dans des tableaux primitifs,
+ * auteur et genre encodés par dictionnaire, titre / ISBN / URL d'image / synopsis dans une ByteArena
+ * (mots du titre et du synopsis codés dans un vocabulaire partagé, préfixe des URL factorisé : TextCodec).
+ * Aucun objet Book n'est conservé : get(i) construit une vue à la demande, ce que la ListView
+ * ne fait que pour les cellules visibles. Les vues sont des copies : les modifier ne change pas la liste.
+ * Les lignes vides (null) du mode paginé sont supportées.
+ */
+public class ColumnarBookList extends ModifiableObservableListBase<Book> {
+
+    private static final long NO_ID = Long.MIN_VALUE;
+    private static final long EMPTY_ROW = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    // Compaction de l'arène quand plus de la moitié de ses octets sont morts (et au moins 1 Mo)
+    private static final long MIN_GARBAGE_TO_COMPACT = 1 << 20;
+
+    private final StringDictionary authors = new StringDictionary();
+    private final StringDictionary genres = new StringDictionary();
+    private final TextCodec codec = new TextCodec();
+    private ByteArena arena = new ByteArena();
+    private long garbageBytes;
+
+    private Rows rows = new Rows(INITIAL_CAPACITY, arena);
+    private int size;
+
+    private final IdIndex index = new IdIndex();
+    private boolean indexDirty;
+
+    @Override
+    public Book get(int i) {
+        Objects.checkIndex(i, size);
+        return rows.view(i);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Ligne du livre portant cet id, -1 s'il est absent
+    public int indexOfId(Long id) {
+        if (id == null) {
+            return -1;
+        }
+        if (indexDirty) {
+            rebuildIndex();
+        }
+        return index.get(id);
+    }
+
+    public boolean isEmptyRow(int i) {
+        Objects.checkIndex(i, size);
+        return rows.refs[i] == EMPTY_ROW;
+    }
+
+    // Octets occupés par le texte (arène), pour les statistiques
+    public long getArenaBytes() {
+        return arena.size();
+    }
+
+    @Override
+    protected void doAdd(int i, Book book) {
+        ensureCapacity(size + 1);
+        if (i < size) {
+            rows.move(i, i + 1, size - i);
+            indexDirty = true;
+        }
+        write(i, book);
+        size++;
+        if (!indexDirty && rows.ids[i] != NO_ID) {
+            index.put(rows.ids[i], i);
+        }
+    }
+
+    @Override
+    protected Book doSet(int i, Book book) {
+        Book old = rows.view(i);
+        long oldId = rows.ids[i];
+        release(i);
+        write(i, book);
+        if (oldId != rows.ids[i]) {
+            if (oldId == NO_ID && !indexDirty) {
+                index.put(rows.ids[i], i);
+            } else {
+                indexDirty = true;
+            }
+        }
+        compactIfNeeded();
+        return old;
+    }
+
+    @Override
+    protected Book doRemove(int i) {
+        Book old = rows.view(i);
+        release(i);
+        rows.move(i + 1, i, size - i - 1);
+        size--;
+        indexDirty = true;
+        compactIfNeeded();
+        return old;
+    }
+
+    // Suppression d'une plage en un seul décalage (clear, subList().clear()) ; les livres retirés sont lus à la demande
+    @Override
+    protected void removeRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        Rows removed;
+        if (from == 0 && to == size) {
+            removed = rows;
+            arena = new ByteArena();
+            garbageBytes = 0;
+            rows = new Rows(INITIAL_CAPACITY, arena);
+        } else {
+            removed = rows.copy(from, to);
+            for (int i = from; i < to; i++) {
+                release(i);
+            }
+            rows.move(to, from, size - to);
+        }
+        size -= to - from;
+        indexDirty = true;
+        modCount++;
+        beginChange();
+        try {
+            nextRemove(from, removed.asList(to - from));
+        } finally {
+            endChange();
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Retire en une passe toutes les lignes dont l'id vérifie le prédicat (les lignes vides et sans id sont gardées).
+     * Retourne le nombre de livres retirés ; un seul événement de changement est émis.
+     */
+    public int removeIds(LongPredicate predicate) {
+        int write = 0;
+        int removedCount = 0;
+        beginChange();
+        try {
+            int row = 0;
+            while (row < size) {
+                if (matches(row, predicate)) {
+                    int start = row;
+                    while (row < size && matches(row, predicate)) {
+                        release(row);
+                        row++;
+                    }
+                    // Coordonnées après les suppressions précédentes : la plage commence à write
+                    nextRemove(write, rows.copy(start, row).asList(row - start));
+                    removedCount += row - start;
+                } else {
+                    if (write != row) {
+                        rows.move(row, write, 1);
+                    }
+                    write++;
+                    row++;
+                }
+            }
+            if (removedCount > 0) {
+                size = write;
+                indexDirty = true;
+                modCount++;
+            }
+        } finally {
+            endChange();
+        }
+        compactIfNeeded();
+        return removedCount;
+    }
+
+    private boolean matches(int row, LongPredicate predicate) {
+        return rows.ids[row] != NO_ID && predicate.test(rows.ids[row]);
+    }
+
+    private void write(int i, Book book) {
+        if (book == null) {
+            rows.ids[i] = NO_ID;
+            rows.stocks[i] = 0;
+            rows.authorCodes[i] = StringDictionary.NULL_CODE;
+            rows.genreCodes[i] = StringDictionary.NULL_CODE;
+            rows.refs[i] = EMPTY_ROW;
+            return;
+        }
+        rows.ids[i] = book.getId() == null ? NO_ID : book.getId();
+        rows.stocks[i] = book.getStock();
+        rows.authorCodes[i] = authors.encode(book.getAuthor());
+        rows.genreCodes[i] = genres.encode(book.getGenre());
+        rows.refs[i] = arena.append(codec.encodeWords(book.getTitle()), TextCodec.encodeUtf8(book.getIsbn()),
+                codec.encodeUrl(book.getImageUrl()), codec.encodeWords(book.getSynopsis()));
+    }
+
+    private void release(int i) {
+        if (rows.refs[i] != EMPTY_ROW) {
+            garbageBytes += arena.recordLength(rows.refs[i]);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rows.ids.length) {
+            rows = rows.resize(Math.max(capacity, rows.ids.length + (rows.ids.length >> 1)));
+        }
+    }
+
+    private void rebuildIndex() {
+        index.clear(size);
+        for (int i = 0; i < size; i++) {
+            if (rows.ids[i] != NO_ID) {
+                index.put(rows.ids[i], i);
+            }
+        }
+        indexDirty = false;
+    }
+
+    // Réécrit les enregistrements vivants dans une nouvelle arène ; l'ancienne reste lisible par les vues déjà émises
+    private void compactIfNeeded() {
+        if (garbageBytes < MIN_GARBAGE_TO_COMPACT || garbageBytes * 2 < arena.size()) {
+            return;
+        }
+        ByteArena compacted = new ByteArena();
+        long[] refs = new long[rows.ids.length];
+        for (int i = 0; i < size; i++) {
+            refs[i] = rows.refs[i] == EMPTY_ROW ? EMPTY_ROW : compacted.copyFrom(arena, rows.refs[i]);
+        }
+        arena = compacted;
+        garbageBytes = 0;
+        rows = new Rows(rows.ids, rows.stocks, rows.authorCodes, rows.genreCodes, refs, compacted);
+    }
+
+    /** Colonnes d'un ensemble de lignes, liées à l'arène où se trouvent leurs textes. */
+    private final class Rows {
+        private final long[] ids;
+        private final int[] stocks;
+        private final int[] authorCodes;
+        private final int[] genreCodes;
+        private final long[] refs;
+        private final ByteArena texts;
+
+        private Rows(int capacity, ByteArena texts) {
+            this(new long[capacity], new int[capacity], new int[capacity], new int[capacity], new long[capacity], texts);
+        }
+
+        private Rows(long[] ids, int[] stocks, int[] authorCodes, int[] genreCodes, long[] refs, ByteArena texts) {
+            this.ids = ids;
+            this.stocks = stocks;
+            this.authorCodes = authorCodes;
+            this.genreCodes = genreCodes;
+            this.refs = refs;
+            this.texts = texts;
+        }
+
+        private Book view(int i) {
+            long ref = refs[i];
+            if (ref == EMPTY_ROW) {
+                return null;
+            }
+            return new Book(
+                    ids[i] == NO_ID ? null : ids[i],
+                    texts.read(ref, ByteArena.TITLE, codec.wordDecoder),
+                    authors.decode(authorCodes[i]),
+                    texts.read(ref, ByteArena.ISBN, TextCodec.UTF8),
+                    genres.decode(genreCodes[i]),
+                    stocks[i],
+                    texts.read(ref, ByteArena.IMAGE_URL, codec.urlDecoder),
+                    texts.read(ref, ByteArena.SYNOPSIS, codec.wordDecoder));
+        }
+
+        private void move(int from, int to, int count) {
+            System.arraycopy(ids, from, ids, to, count);
+            System.arraycopy(stocks, from, stocks, to, count);
+            System.arraycopy(authorCodes, from, authorCodes, to, count);
+            System.arraycopy(genreCodes, from, genreCodes, to, count);
+            System.arraycopy(refs, from, refs, to, count);
+        }
+
+        private Rows copy(int from, int to) {
+            return new Rows(Arrays.copyOfRange(ids, from, to), Arrays.copyOfRange(stocks, from, to),
+                    Arrays.copyOfRange(authorCodes, from, to), Arrays.copyOfRange(genreCodes, from, to),
+                    Arrays.copyOfRange(refs, from, to), texts);
+        }
+
+        private Rows resize(int capacity) {
+            return new Rows(Arrays.copyOf(ids, capacity), Arrays.copyOf(stocks, capacity),
+                    Arrays.copyOf(authorCodes, capacity), Arrays.copyOf(genreCodes, capacity),
+                    Arrays.copyOf(refs, capacity), texts);
+        }
+
+        private List<Book> asList(int count) {
+            return new AbstractList<>() {
+                @Override
+                public Book get(int i) {
+                    Objects.checkIndex(i, count);
+                    return view(i);
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+    }
+}
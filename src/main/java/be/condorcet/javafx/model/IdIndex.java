@@ -0,0 +1,84 @@
+package be.condorcet.javafx.model;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage id -> ligne à adressage ouvert, sur tableaux primitifs (pas de Long ni d'Integer).
+ * Pas de suppression : la table est reconstruite quand des lignes sont décalées.
+ */
+final class IdIndex {
+
+    static final int ABSENT = -1;
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] rows;
+    private int count;
+
+    IdIndex() {
+        allocate(16);
+    }
+
+    void clear(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        if (keys.length == capacity) {
+            Arrays.fill(keys, FREE);
+        } else {
+            allocate(capacity);
+        }
+        count = 0;
+    }
+
+    void put(long id, int row) {
+        if ((count + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != FREE && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == FREE) {
+            keys[slot] = id;
+            count++;
+        }
+        rows[slot] = row;
+    }
+
+    int get(long id) {
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == id) {
+                return rows[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldRows = rows;
+        allocate(keys.length * 2);
+        count = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldRows[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        rows = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    private static int hash(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
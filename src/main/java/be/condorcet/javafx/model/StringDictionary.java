@@ -0,0 +1,101 @@
+package be.condorcet.javafx.model;
+
+import java.util.Arrays;
+
+/**
+ * Dictionnaire de chaînes pour les colonnes à faible cardinalité (auteur, genre) et le vocabulaire des textes :
+ * chaque valeur distincte n'est stockée qu'une fois et référencée par un code entier.
+ * Table à adressage ouvert qui accepte une portion de chaîne : un mot déjà connu est retrouvé sans créer de sous-chaîne.
+ */
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private String[] values = new String[16];
+    private int[] hashes = new int[16];
+    private int size;
+    // code + 1 par case, 0 = case libre
+    private int[] table = new int[32];
+
+    int encode(String value) {
+        return value == null ? NULL_CODE : encode(value, 0, value.length());
+    }
+
+    // Code de source[start, end)
+    int encode(String source, int start, int end) {
+        return encode(source, start, end, polynomialHash(source, start, end));
+    }
+
+    // Variante pour un appelant qui a déjà calculé le hash (31 * h + c) en parcourant le texte
+    int encode(String source, int start, int end, int polynomialHash) {
+        int length = end - start;
+        int hash = mix(polynomialHash);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            int code = table[slot] - 1;
+            if (hashes[code] == hash && sameChars(values[code], source, start, length)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int code = size++;
+        if (code == values.length) {
+            values = Arrays.copyOf(values, code * 2);
+            hashes = Arrays.copyOf(hashes, code * 2);
+        }
+        values[code] = start == 0 && end == source.length() ? source : source.substring(start, end);
+        hashes[code] = hash;
+        table[slot] = code + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    // Toujours la même instance pour un code donné : les vues ne dupliquent pas la chaîne
+    String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code + 1;
+        }
+    }
+
+    private static boolean sameChars(String value, String source, int start, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int polynomialHash(String source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
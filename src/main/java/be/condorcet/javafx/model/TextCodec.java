@@ -0,0 +1,110 @@
+package be.condorcet.javafx.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodage des champs texte de la ByteArena.
+ * Titre et synopsis : suite de codes de mots (varint) dans un vocabulaire partagé, le texte étant découpé
+ * sur les espaces (découpage exact : espaces multiples, en tête et en fin conservés).
+ * URL d'image : code du préfixe (jusqu'au dernier '/') puis le reste en UTF-8. ISBN : UTF-8.
+ * Non thread-safe, comme la liste qui l'utilise.
+ */
+final class TextCodec {
+
+    private final StringDictionary words = new StringDictionary();
+    private final StringDictionary urlPrefixes = new StringDictionary();
+    private byte[] buffer = new byte[256];
+    private int length;
+    private final StringBuilder text = new StringBuilder(256);
+
+    // Décodeurs sans état capturé : aucune allocation de lambda à la lecture
+    final ByteArena.FieldDecoder wordDecoder = this::decodeWords;
+    final ByteArena.FieldDecoder urlDecoder = this::decodeUrl;
+    static final ByteArena.FieldDecoder UTF8 = (b, off, len) -> new String(b, off, len, StandardCharsets.UTF_8);
+
+    byte[] encodeWords(String value) {
+        if (value == null) {
+            return null;
+        }
+        length = 0;
+        // Une seule passe : le hash du mot est calculé en cherchant l'espace suivant
+        int start = 0;
+        int hash = 0;
+        int end = value.length();
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == ' ') {
+                writeVarint(words.encode(value, start, i, hash));
+                start = i + 1;
+                hash = 0;
+            } else {
+                hash = 31 * hash + c;
+            }
+        }
+        writeVarint(words.encode(value, start, end, hash));
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private String decodeWords(byte[] b, int off, int len) {
+        text.setLength(0);
+        int pos = off;
+        int end = off + len;
+        while (pos < end) {
+            if (pos > off) {
+                text.append(' ');
+            }
+            int code = 0;
+            int shift = 0;
+            int x;
+            do {
+                x = b[pos++];
+                code |= (x & 0x7F) << shift;
+                shift += 7;
+            } while ((x & 0x80) != 0);
+            text.append(words.decode(code));
+        }
+        return text.toString();
+    }
+
+    byte[] encodeUrl(String value) {
+        if (value == null) {
+            return null;
+        }
+        int cut = value.lastIndexOf('/') + 1;
+        length = 0;
+        writeVarint(urlPrefixes.encode(value, 0, cut));
+        byte[] rest = value.substring(cut).getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = Arrays.copyOf(buffer, length + rest.length);
+        System.arraycopy(rest, 0, encoded, length, rest.length);
+        return encoded;
+    }
+
+    private String decodeUrl(byte[] b, int off, int len) {
+        int code = 0;
+        int shift = 0;
+        int pos = off;
+        int x;
+        do {
+            x = b[pos++];
+            code |= (x & 0x7F) << shift;
+            shift += 7;
+        } while ((x & 0x80) != 0);
+        return urlPrefixes.decode(code) + new String(b, pos, off + len - pos, StandardCharsets.UTF_8);
+    }
+
+    static byte[] encodeUtf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void writeVarint(int value) {
+        if (length + 5 > buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+}
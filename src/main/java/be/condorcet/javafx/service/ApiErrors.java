@@ -0,0 +1,88 @@
+package be.condorcet.javafx.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonParseException;
+
+/** Message affichable pour l'échec d'une requête : cause réseau, délai, disjoncteur ou statut HTTP. */
+public final class ApiErrors {
+
+    private static final Pattern HTTP_STATUS = Pattern.compile("HTTP (\\d{3})");
+
+    private ApiErrors() {
+    }
+
+    public static String describe(Throwable ex) {
+        Throwable t = unwrap(ex);
+        if (t instanceof CircuitOpenException) {
+            long seconds = (((CircuitOpenException) t).getRetryInMillis() + 999) / 1000;
+            return "Serveur indisponible après plusieurs échecs, nouvel essai dans " + seconds + " s";
+        }
+        if (t instanceof HttpConnectTimeoutException) {
+            return "Serveur injoignable (délai de connexion dépassé)";
+        }
+        if (t instanceof HttpTimeoutException) {
+            return "Le serveur ne répond pas (délai dépassé)";
+        }
+        if (t instanceof ConnectException) {
+            return "Serveur injoignable (connexion refusée)";
+        }
+        if (t instanceof UnknownHostException || t instanceof UnresolvedAddressException) {
+            return "Adresse du serveur inconnue (" + BookApiService.getBaseUrl() + ")";
+        }
+        if (t instanceof JsonParseException) {
+            return "Réponse du serveur illisible";
+        }
+        Matcher status = HTTP_STATUS.matcher(String.valueOf(t.getMessage()));
+        if (status.find()) {
+            int code = Integer.parseInt(status.group(1));
+            if (code == 429 || code == 503) {
+                return "Serveur surchargé (HTTP " + code + ")";
+            }
+            return code >= 500 ? "Erreur du serveur (HTTP " + code + ")" : "Réponse inattendue du serveur (HTTP " + code + ")";
+        }
+        if (t instanceof IOException) {
+            return "Erreur réseau" + (t.getMessage() != null ? " : " + t.getMessage() : "");
+        }
+        return "Erreur de connexion à l'API";
+    }
+
+    /**
+     * Vraie panne réseau (connexion refusée, délai, adresse inconnue...) : le serveur n'a pas pu répondre.
+     * Une réponse d'erreur du serveur ou un disjoncteur ouvert n'en sont pas.
+     */
+    static boolean isNetworkError(Throwable ex) {
+        Throwable t = unwrap(ex);
+        return t instanceof IOException && !(t instanceof CircuitOpenException)
+                && !HTTP_STATUS.matcher(String.valueOf(t.getMessage())).find();
+    }
+
+    /**
+     * Connexion refusée, délai de connexion ou disjoncteur ouvert : la requête n'est pas partie,
+     * la renvoyer ne peut rien créer deux fois.
+     */
+    static boolean neverSent(Throwable ex) {
+        Throwable t = unwrap(ex);
+        return t instanceof ConnectException || t instanceof HttpConnectTimeoutException
+                || t instanceof CircuitOpenException;
+    }
+
+    static Throwable unwrap(Throwable ex) {
+        Throwable t = ex;
+        while ((t instanceof CompletionException || t instanceof ExecutionException || t instanceof UncheckedIOException)
+                && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+}
@@ -1,57 +1,228 @@
 package be.condorcet.javafx.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 
+import be.condorcet.javafx.metrics.PerfMetrics;
 import be.condorcet.javafx.model.Book;
-import javafx.application.Platform;
+import be.condorcet.javafx.model.BookPage;
+import be.condorcet.javafx.model.CatalogDelta;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 public class BookApiService {
 
-    private static final String BASE_URL = "http://localhost:8082";
+    private static final System.Logger LOG = System.getLogger(BookApiService.class.getName());
+
+    // -Dkrousty.api.url, sinon la variable d'environnement KROUSTY_API_URL (ex. StubBookServer des benchmarks)
+    private static final String BASE_URL = baseUrl();
     private static final String BOOKS_ENDPOINT = "/api/books";
 
-    private final HttpClient client = HttpClient.newHttpClient();
+    // Streaming : petit premier lot pour afficher vite le premier écran, puis des lots plus gros
+    private static final int FIRST_BATCH_SIZE = 50;
+    private static final int BATCH_SIZE = 500;
+    private static final long MAX_BATCH_DELAY_NANOS = 50_000_000L;
+    // Nombre maximum de lots en attente dans la file du thread FX
+    private static final int MAX_PENDING_BATCHES = 4;
+
+    // Canal de l'ordonnanceur pour les chargements complets : seul le plus récent atteint l'interface
+    private static final String CATALOG_CHANNEL = "catalog";
+
+    private static final String MERGE_PATCH_TYPE = "application/merge-patch+json";
+    // Les null d'une Merge Patch sont significatifs (champ vidé) : Gson les omet par défaut
+    private static final Gson PATCH_GSON = new GsonBuilder().serializeNulls().create();
+
+    private static final Path DATA_DIR = Path.of(System.getProperty("user.home"), ".krousty-books");
+    private static final String SNAPSHOT_FILE = "catalog.bin";
+    private static final Executor SNAPSHOT_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final RequestScheduler scheduler;
+    private final HttpClient client;
     private final Gson gson = new Gson();
+    private final BookJsonDecoder decoder = new BookJsonDecoder(gson);
     private final String authHeader;
+    // Fichiers locaux propres à l'utilisateur et au serveur (journal des écritures, copie du catalogue)
+    private final Path userDirectory;
+    private final CatalogSnapshot snapshot;
+    // Dernière version à écrire ; les sauvegardes rapprochées sont fusionnées
+    private final AtomicReference<List<Book>> pendingSnapshot = new AtomicReference<>();
+    private final ConditionalRequestCache cache = new ConditionalRequestCache();
+    // Passe à false au premier PATCH refusé par le backend : les modifications partent alors en PUT
+    private volatile boolean patchSupported = true;
+    // Version du dernier catalogue complet reçu : point de départ de la synchronisation incrémentale
+    private volatile String catalogVersion;
 
     public BookApiService(String username, String password) {
+        this(username, password, RequestScheduler.shared());
+    }
+
+    // Ordonnanceur dédié : un par client simulé dans le générateur de charge
+    public BookApiService(String username, String password, RequestScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.client = scheduler.client();
         if (username != null && !username.isBlank() && password != null && !password.isBlank()) {
             this.authHeader = "Basic " + Base64.getEncoder()
                     .encodeToString((username + ":" + password).getBytes());
         } else {
             this.authHeader = null;
         }
+        this.userDirectory = DATA_DIR.resolve(userKey(username));
+        this.snapshot = new CatalogSnapshot(userDirectory.resolve(SNAPSHOT_FILE));
+    }
+
+    // Empreinte du serveur et du nom d'utilisateur : les écritures d'un compte ne sont jamais rejouées sous un autre
+    private static String userKey(String username) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((BASE_URL + "\n" + (username == null ? "" : username)).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public BookApiService() {
         this(null, null);
     }
 
+    private static String baseUrl() {
+        String url = System.getProperty("krousty.api.url", System.getenv("KROUSTY_API_URL"));
+        if (url == null || url.isBlank()) {
+            return "http://localhost:8082";
+        }
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public static String getBaseUrl() {
+        return BASE_URL;
+    }
+
     public HttpClient getClient() {
         return client;
     }
 
-    private HttpRequest getPublicBooksRequest() {
-        return HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + BOOKS_ENDPOINT))
-                .GET()
-                .build();
+    public Path getUserDirectory() {
+        return userDirectory;
+    }
+
+    public RequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public ConditionalRequestCache getCache() {
+        return cache;
+    }
+
+    // Disjoncteur du serveur de l'API
+    public CircuitBreaker getCircuitBreaker() {
+        return scheduler.breaker(URI.create(BASE_URL));
+    }
+
+    public boolean isCircuitOpen() {
+        return getCircuitBreaker().getState() != CircuitBreaker.State.CLOSED;
+    }
+
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    // Suivi des changements à partir du dernier catalogue chargé (CatalogSync)
+    public CatalogSync newCatalogSync(Consumer<CatalogDelta> onDelta, Consumer<List<Book>> onCatalog) {
+        return new CatalogSync(this, BOOKS_ENDPOINT, onDelta, onCatalog);
+    }
+
+    public boolean hasSnapshot() {
+        return snapshot.exists();
+    }
+
+    // Lue sur le thread des copies locales, donc après toute sauvegarde déjà demandée ; résultat sur le thread FX
+    public void readSnapshotAsync(Consumer<List<Book>> onRead) {
+        SNAPSHOT_EXECUTOR.execute(() -> {
+            List<Book> books;
+            try {
+                books = snapshot.readAll();
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.WARNING, "Lecture de la copie locale impossible", e);
+                books = List.of();
+            }
+            List<Book> read = books;
+            PerfMetrics.runLater(() -> onRead.accept(read));
+        });
+    }
+
+    public void saveSnapshotAsync(List<Book> books) {
+        if (pendingSnapshot.getAndSet(new ArrayList<>(books)) == null) {
+            SNAPSHOT_EXECUTOR.execute(() -> {
+                try {
+                    snapshot.write(pendingSnapshot.getAndSet(null));
+                } catch (IOException e) {
+                    LOG.log(System.Logger.Level.WARNING, "Écriture de la copie locale impossible", e);
+                }
+            });
+        }
+    }
+
+    private HttpRequest getPublicBooksRequest(ConditionalRequestCache.Entry cached) {
+        return publicRequest(BOOKS_ENDPOINT, cached);
+    }
+
+    // Adresse d'un chemin de l'API sur le serveur configuré
+    URI endpoint(String path) {
+        return URI.create(BASE_URL + path);
+    }
+
+    HttpRequest publicRequest(String path, ConditionalRequestCache.Entry cached) {
+        HttpRequest.Builder builder = HttpCompression.acceptCompressed(HttpRequest.newBuilder())
+                .uri(endpoint(path))
+                .GET();
+        return cache.addValidators(builder, cached).build();
     }
 
     public HttpRequest.Builder authenticatedRequest(String path) {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + path))
+        HttpRequest.Builder builder = HttpCompression.acceptCompressed(HttpRequest.newBuilder())
+                .uri(endpoint(path))
                 .header("Content-Type", "application/json");
         if (authHeader != null) {
             builder.header("Authorization", authHeader);
@@ -59,27 +230,330 @@ public class BookApiService {
         return builder;
     }
 
-    public void loadBooksAsync(Consumer<ObservableList<Book>> onSuccess, Runnable onError) {
-        HttpRequest request = getPublicBooksRequest();
-        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(HttpResponse::body)
-                .thenApply(json -> {
-                    var type = new TypeToken<List<Book>>(){}.getType();
-                    return gson.fromJson(json, type);
+    /** onError reçoit la cause de l'échec, déjà formulée pour l'utilisateur (ApiErrors). */
+    public void loadBooksAsync(Consumer<ObservableList<Book>> onSuccess, Consumer<String> onError) {
+        ConditionalRequestCache.Entry cached = cache.get(BOOKS_ENDPOINT);
+        HttpRequest request = getPublicBooksRequest(cached);
+        long generation = scheduler.nextGeneration(CATALOG_CHANNEL);
+        scheduler.submitShared(request, RequestScheduler.Priority.BACKGROUND)
+                .thenApply(resp -> {
+                    if (resp.statusCode() == 304 && cached != null) {
+                        return cache.<List<Book>>hit(cached);
+                    }
+                    return decodeCatalog(resp);
                 })
-                .thenAccept(rawList -> Platform.runLater(() -> {
-                    @SuppressWarnings("unchecked")
-                    List<Book> bookList = (List<Book>) rawList;
-                    ObservableList<Book> observableBooks = FXCollections.observableArrayList(bookList);
-                    onSuccess.accept(observableBooks);
+                .exceptionally(ex -> servedFromCache(ex, cached))
+                .thenAccept(bookList -> PerfMetrics.runLater(() -> {
+                    // Un chargement plus récent a été lancé : cette réponse est ignorée
+                    if (scheduler.isCurrent(CATALOG_CHANNEL, generation)) {
+                        ObservableList<Book> observableBooks = FXCollections.observableArrayList(bookList);
+                        onSuccess.accept(observableBooks);
+                    }
                 }))
                 .exceptionally(ex -> {
-                    ex.printStackTrace();
-                    Platform.runLater(onError);
+                    if (!RequestScheduler.isCancellation(ex) && scheduler.isCurrent(CATALOG_CHANNEL, generation)) {
+                        LOG.log(System.Logger.Level.WARNING, "Chargement du catalogue impossible", ex);
+                        PerfMetrics.runLater(() -> onError.accept(ApiErrors.describe(ex)));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Catalogue complet seulement s'il a changé depuis le dernier chargement (null sur 304).
+     * Hors canal "catalog" : n'annule pas un chargement demandé par l'utilisateur.
+     */
+    CompletableFuture<List<Book>> fetchCatalogIfModified() {
+        ConditionalRequestCache.Entry cached = cache.get(BOOKS_ENDPOINT);
+        return scheduler.submitShared(getPublicBooksRequest(cached), RequestScheduler.Priority.BACKGROUND)
+                .thenApply(resp -> resp.statusCode() == 304 && cached != null ? null : decodeCatalog(resp))
+                .exceptionally(ex -> {
+                    // Disjoncteur ouvert : rien de nouveau, le catalogue affiché est conservé
+                    servedFromCache(ex, cached);
                     return null;
                 });
     }
 
+    /**
+     * Livre du catalogue du serveur identique à une création dont la réponse s'est perdue, null s'il n'y est pas.
+     * Plusieurs candidats : le plus récent (plus grand id) ; un livre identique déjà présent avant l'envoi
+     * serait pris pour elle, ce qui évite au pire un doublon. Le catalogue lu ne remplace ni le cache ni la
+     * version de synchronisation, qui suivent le catalogue affiché.
+     */
+    CompletableFuture<Book> findCreatedAsync(Book sent) {
+        return scheduler.submitShared(getPublicBooksRequest(null), RequestScheduler.Priority.BACKGROUND)
+                .thenApply(resp -> {
+                    if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+                        throw new IllegalStateException("HTTP " + resp.statusCode());
+                    }
+                    Book found = null;
+                    for (Book book : decoder.decodeList(resp.body())) {
+                        if (book.getId() != null && isSameCreation(book, sent)
+                                && (found == null || book.getId() > found.getId())) {
+                            found = book;
+                        }
+                    }
+                    return found;
+                });
+    }
+
+    // Le stock n'entre pas en compte : il a pu changer depuis la création
+    private static boolean isSameCreation(Book stored, Book sent) {
+        return Objects.equals(stored.getTitle(), sent.getTitle())
+                && Objects.equals(stored.getAuthor(), sent.getAuthor())
+                && Objects.equals(stored.getIsbn(), sent.getIsbn())
+                && Objects.equals(stored.getGenre(), sent.getGenre());
+    }
+
+    /**
+     * Lecture refusée par le disjoncteur ouvert : la dernière réponse en cache est servie à la place.
+     * Toute autre erreur, ou pas de cache, est propagée.
+     */
+    private <T> T servedFromCache(Throwable ex, ConditionalRequestCache.Entry cached) {
+        if (cached == null || !(ApiErrors.unwrap(ex) instanceof CircuitOpenException)) {
+            throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+        }
+        PerfMetrics.counter("disjoncteur : lectures servies du cache").increment();
+        return cache.hit(cached);
+    }
+
+    private List<Book> decodeCatalog(HttpResponse<String> resp) {
+        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+            throw new IllegalStateException("HTTP " + resp.statusCode());
+        }
+        long start = System.nanoTime();
+        List<Book> books = decoder.decodeList(resp.body());
+        PerfMetrics.recordDecode(System.nanoTime() - start, books.size(), resp.body().length());
+        cache.store(BOOKS_ENDPOINT, resp.headers(), books, resp.body().length());
+        rememberVersion(resp.headers());
+        return books;
+    }
+
+    // En-tête X-Catalog-Version du backend, sinon date de la réponse en ms (une seconde de marge : les doublons sont sans effet)
+    private void rememberVersion(HttpHeaders headers) {
+        Optional<String> version = headers.firstValue(CatalogSync.VERSION_HEADER);
+        if (version.isPresent()) {
+            catalogVersion = version.get();
+            return;
+        }
+        headers.firstValue("Date").ifPresent(date -> {
+            try {
+                long millis = ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                catalogVersion = String.valueOf(millis - 1000);
+            } catch (DateTimeParseException e) {
+                LOG.log(System.Logger.Level.DEBUG, "En-tête Date illisible : " + date);
+            }
+        });
+    }
+
+    /**
+     * Connexion : HEAD authentifié sur le catalogue, qui ne sert qu'à valider les identifiants sans rien télécharger ;
+     * le catalogue est ensuite affiché depuis la copie locale puis revalidé en streaming.
+     * Backend sans HEAD (405/501) : un GET dont le corps est ignoré, seul cas où le catalogue est reçu deux fois.
+     * onUnauthorized : 401/403 ; onUnreachable : panne réseau, le serveur n'a pas répondu ;
+     * onError : autre réponse du serveur ou disjoncteur ouvert. Les deux derniers reçoivent la cause affichable.
+     */
+    public void loginAsync(Runnable onSuccess, Runnable onUnauthorized, Consumer<String> onUnreachable,
+                           Consumer<String> onError) {
+        HttpRequest head = authenticatedRequest(BOOKS_ENDPOINT).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        scheduler.submit(head, HttpResponse.BodyHandlers.discarding(), RequestScheduler.Priority.INTERACTIVE)
+                .thenCompose(resp -> {
+                    if (resp.statusCode() != 405 && resp.statusCode() != 501) {
+                        return CompletableFuture.completedFuture(resp);
+                    }
+                    HttpRequest get = authenticatedRequest(BOOKS_ENDPOINT).GET().build();
+                    return scheduler.submit(get, HttpResponse.BodyHandlers.discarding(), RequestScheduler.Priority.INTERACTIVE);
+                })
+                .thenAccept(resp -> {
+                    if (resp.statusCode() == 401 || resp.statusCode() == 403) {
+                        PerfMetrics.runLater(onUnauthorized);
+                        return;
+                    }
+                    if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+                        throw new IllegalStateException("HTTP " + resp.statusCode());
+                    }
+                    PerfMetrics.runLater(onSuccess);
+                })
+                .exceptionally(ex -> {
+                    LOG.log(System.Logger.Level.WARNING, "Connexion au serveur impossible", ex);
+                    String error = ApiErrors.describe(ex);
+                    boolean unreachable = ApiErrors.isNetworkError(ex);
+                    PerfMetrics.runLater(() -> (unreachable ? onUnreachable : onError).accept(error));
+                    return null;
+                });
+    }
+
+    /**
+     * Chargement en streaming : le corps est lu comme un flux par le JsonReader de Gson
+     * et les livres sont transmis au thread FX par lots bornés, au fur et à mesure du décodage.
+     * Un corps gzip/deflate est décompressé dans ce même flux, sans être d'abord chargé en mémoire.
+     * Disjoncteur ouvert : le catalogue en cache est republié comme pour un 304.
+     */
+    public void streamBooksAsync(Consumer<List<Book>> onBatch, Runnable onComplete, Consumer<String> onError) {
+        ConditionalRequestCache.Entry cached = cache.get(BOOKS_ENDPOINT);
+        HttpRequest request = getPublicBooksRequest(cached);
+        long generation = scheduler.nextGeneration(CATALOG_CHANNEL);
+        BooleanSupplier current = () -> scheduler.isCurrent(CATALOG_CHANNEL, generation);
+        scheduler.submitLatest(CATALOG_CHANNEL, generation, request,
+                        HttpResponse.BodyHandlers.ofInputStream(), RequestScheduler.Priority.BACKGROUND)
+                .thenAcceptAsync(resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 304 && cached != null) {
+                            publishAll(cache.hit(cached), onBatch, current);
+                        } else if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+                            throw new IOException("HTTP " + resp.statusCode());
+                        } else {
+                            String encoding = HttpCompression.encodingOf(resp.headers());
+                            CountingInputStream wire = new CountingInputStream(body);
+                            CountingInputStream counting = new CountingInputStream(HttpCompression.decode(encoding, wire));
+                            List<Book> decoded = new ArrayList<>();
+                            long start = System.nanoTime();
+                            long publishNanos = decodeBooks(counting, onBatch, decoded, current);
+                            // Travail du JsonReader seul : sans l'attente du réseau (et la décompression) ni celle du thread FX
+                            long decodeNanos = System.nanoTime() - start - counting.getReadNanos() - publishNanos;
+                            PerfMetrics.recordDecode(Math.max(0, decodeNanos), decoded.size(), counting.getCount());
+                            PerfMetrics.recordTransfer(request.method(), request.uri(),
+                                    HttpCompression.protocolOf(resp.version()), encoding,
+                                    wire.getCount(), counting.getCount());
+                            cache.store(BOOKS_ENDPOINT, resp.headers(), decoded, counting.getCount());
+                            rememberVersion(resp.headers());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    PerfMetrics.runLater(() -> {
+                        if (current.getAsBoolean()) {
+                            onComplete.run();
+                        }
+                    });
+                }, scheduler.executor())
+                .exceptionally(ex -> {
+                    if (cached != null && ApiErrors.unwrap(ex) instanceof CircuitOpenException) {
+                        PerfMetrics.counter("disjoncteur : lectures servies du cache").increment();
+                        // Hors du thread appelant, qui peut être le thread FX : publishAll attend le thread FX
+                        scheduler.executor().execute(() -> {
+                            publishAll(cache.hit(cached), onBatch, current);
+                            PerfMetrics.runLater(() -> {
+                                if (current.getAsBoolean()) {
+                                    onComplete.run();
+                                }
+                            });
+                        });
+                    } else if (!RequestScheduler.isCancellation(ex) && current.getAsBoolean()) {
+                        LOG.log(System.Logger.Level.WARNING, "Chargement du catalogue impossible", ex);
+                        PerfMetrics.runLater(() -> onError.accept(ApiErrors.describe(ex)));
+                    }
+                    return null;
+                });
+    }
+
+    // Réponse 304 : la liste déjà décodée est republiée par lots, sans parsing
+    private static void publishAll(List<Book> books, Consumer<List<Book>> onBatch, BooleanSupplier current) {
+        Semaphore pendingBatches = new Semaphore(MAX_PENDING_BATCHES);
+        for (int from = 0; from < books.size(); from += BATCH_SIZE) {
+            int to = Math.min(from + BATCH_SIZE, books.size());
+            publishBatch(new ArrayList<>(books.subList(from, to)), onBatch, pendingBatches, current);
+        }
+    }
+
+    // Retourne le temps passé à transmettre les lots, attente du thread FX comprise
+    private long decodeBooks(InputStream body, Consumer<List<Book>> onBatch, List<Book> decoded,
+                             BooleanSupplier current) throws IOException {
+        Semaphore pendingBatches = new Semaphore(MAX_PENDING_BATCHES);
+        long[] publishNanos = new long[1];
+        decoder.decodeStream(body, FIRST_BATCH_SIZE, BATCH_SIZE, MAX_BATCH_DELAY_NANOS, batch -> {
+            long start = System.nanoTime();
+            decoded.addAll(batch);
+            publishBatch(batch, onBatch, pendingBatches, current);
+            publishNanos[0] += System.nanoTime() - start;
+        });
+        return publishNanos[0];
+    }
+
+    private static void publishBatch(List<Book> batch, Consumer<List<Book>> onBatch, Semaphore pendingBatches,
+                                     BooleanSupplier current) {
+        // Chargement périmé : on arrête de décoder
+        if (!current.getAsBoolean()) {
+            throw new CancellationException("Chargement remplacé par un plus récent");
+        }
+        // Bloque le décodeur si le thread FX a déjà trop de lots en retard
+        pendingBatches.acquireUninterruptibly();
+        PerfMetrics.runLater(() -> {
+            try {
+                if (current.getAsBoolean()) {
+                    onBatch.accept(batch);
+                }
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    /**
+     * Chargement d'une page (page/size, ou cursor/size si un curseur est fourni).
+     * Accepte une page au format Spring Data ({content, totalElements, last}) ou un simple tableau ;
+     * un tableau plus long que la taille demandée signifie que le backend ignore la pagination.
+     */
+    public void loadBooksPageAsync(int page, int size, String cursor, Consumer<BookPage> onSuccess, Consumer<String> onError) {
+        String query = cursor != null
+                ? "?cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) + "&size=" + size
+                : "?page=" + page + "&size=" + size;
+        String path = BOOKS_ENDPOINT + query;
+        ConditionalRequestCache.Entry cached = cache.get(path);
+        HttpRequest request = publicRequest(path, cached);
+        scheduler.submitShared(request, RequestScheduler.Priority.INTERACTIVE)
+                .thenApply(resp -> {
+                    if (resp.statusCode() == 304 && cached != null) {
+                        return cache.<BookPage>hit(cached);
+                    }
+                    if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+                        throw new IllegalStateException("HTTP " + resp.statusCode());
+                    }
+                    long start = System.nanoTime();
+                    BookPage bookPage = parsePage(page, size, resp.body());
+                    PerfMetrics.recordDecode(System.nanoTime() - start, bookPage.getContent().size(), resp.body().length());
+                    cache.store(path, resp.headers(), bookPage, resp.body().length());
+                    return bookPage;
+                })
+                .exceptionally(ex -> servedFromCache(ex, cached))
+                .thenAccept(bookPage -> PerfMetrics.runLater(() -> onSuccess.accept(bookPage)))
+                .exceptionally(ex -> {
+                    LOG.log(System.Logger.Level.WARNING, "Chargement de la page " + page + " impossible", ex);
+                    PerfMetrics.runLater(() -> onError.accept(ApiErrors.describe(ex)));
+                    return null;
+                });
+    }
+
+    private BookPage parsePage(int page, int size, String json) {
+        var type = new TypeToken<List<Book>>(){}.getType();
+        JsonElement root = JsonParser.parseString(json);
+        if (root.isJsonArray()) {
+            List<Book> books = gson.fromJson(root, type);
+            if (books.size() > size) {
+                return new BookPage(0, books, books.size(), true, null, true);
+            }
+            return new BookPage(page, books, -1, books.size() < size, null, false);
+        }
+
+        JsonObject obj = root.getAsJsonObject();
+        List<Book> books = obj.has("content") ? gson.fromJson(obj.get("content"), type) : List.of();
+        long total = obj.has("totalElements") ? obj.get("totalElements").getAsLong() : -1;
+        String nextCursor = obj.has("nextCursor") && !obj.get("nextCursor").isJsonNull()
+                ? obj.get("nextCursor").getAsString()
+                : null;
+        boolean last;
+        if (obj.has("last")) {
+            last = obj.get("last").getAsBoolean();
+        } else if (obj.has("nextCursor")) {
+            last = nextCursor == null;
+        } else if (total >= 0) {
+            last = (long) page * size + books.size() >= total;
+        } else {
+            last = books.size() < size;
+        }
+        return new BookPage(page, books, total, last, nextCursor, false);
+    }
+
     public void sendAuthenticatedRequest(HttpRequest.Builder originalBuilder,
                                         Runnable onSuccess,
                                         Runnable onError) {
@@ -93,8 +567,8 @@ public class BookApiService {
 
         HttpRequest request = builder.build();
 
-        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(resp -> Platform.runLater(() -> {
+        sendWriteAsync(request)
+                .thenAccept(resp -> PerfMetrics.runLater(() -> {
                     if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
                         onSuccess.run();
                     } else {
@@ -102,8 +576,112 @@ public class BookApiService {
                     }
                 }))
                 .exceptionally(ex -> {
-                    Platform.runLater(onError);
+                    PerfMetrics.runLater(onError);
                     return null;
                 });
     }
+
+    public CompletableFuture<HttpResponse<String>> createBookAsync(Book book) {
+        HttpRequest request = HttpCompression.jsonBody(authenticatedRequest(BOOKS_ENDPOINT), "POST", gson.toJson(book))
+                .build();
+        return sendWriteAsync(request);
+    }
+
+    // Création groupée ; un 404/405 signifie que le backend n'a pas d'endpoint bulk
+    public CompletableFuture<HttpResponse<String>> createBooksBulkAsync(List<Book> books) {
+        HttpRequest request = HttpCompression.jsonBody(authenticatedRequest(BOOKS_ENDPOINT + "/bulk"), "POST", gson.toJson(books))
+                .build();
+        return sendWriteAsync(request);
+    }
+
+    public CompletableFuture<HttpResponse<String>> updateBookAsync(Book book) {
+        HttpRequest request = HttpCompression.jsonBody(authenticatedRequest(BOOKS_ENDPOINT + "/" + book.getId()),
+                        "PUT", gson.toJson(book))
+                .build();
+        return sendWriteAsync(request);
+    }
+
+    /**
+     * Envoie seulement les champs modifiés du livre (getDirtyFields) en JSON Merge Patch (RFC 7396).
+     * Si le backend ne connaît pas PATCH (405, 415, 501), le livre complet part en PUT, et les modifications
+     * suivantes passent directement en PUT.
+     */
+    public CompletableFuture<HttpResponse<String>> patchBookAsync(Book book) {
+        if (!patchSupported || !book.isDirty()) {
+            return updateBookAsync(book);
+        }
+        JsonObject all = gson.toJsonTree(book).getAsJsonObject();
+        JsonObject patch = new JsonObject();
+        for (String field : book.getDirtyFields()) {
+            // Un champ vidé part en null explicite : pour une Merge Patch, un champ absent reste inchangé
+            JsonElement value = all.get(field);
+            patch.add(field, value != null ? value : JsonNull.INSTANCE);
+        }
+        HttpRequest.Builder builder = authenticatedRequest(BOOKS_ENDPOINT + "/" + book.getId())
+                .setHeader("Content-Type", MERGE_PATCH_TYPE);
+        HttpRequest request = HttpCompression.jsonBody(builder, "PATCH", PATCH_GSON.toJson(patch)).build();
+        PerfMetrics.counter("écritures : PATCH").increment();
+        return sendWriteAsync(request).thenCompose(resp -> {
+            int status = resp.statusCode();
+            if (status != 405 && status != 415 && status != 501) {
+                return CompletableFuture.completedFuture(resp);
+            }
+            LOG.log(System.Logger.Level.INFO, "PATCH non supporté (HTTP " + status + "), repli sur PUT");
+            patchSupported = false;
+            return updateBookAsync(book);
+        });
+    }
+
+    public CompletableFuture<HttpResponse<String>> deleteBookAsync(Long id) {
+        HttpRequest request = authenticatedRequest(BOOKS_ENDPOINT + "/" + id)
+                .DELETE()
+                .build();
+        return sendWriteAsync(request);
+    }
+
+    // Toute écriture réussie rend obsolètes les lectures en cache du catalogue
+    private CompletableFuture<HttpResponse<String>> sendWriteAsync(HttpRequest request) {
+        return scheduler.submit(request, HttpCompression.ofString(request), RequestScheduler.Priority.INTERACTIVE)
+                .whenComplete((resp, ex) -> {
+                    if (resp != null && resp.statusCode() >= 200 && resp.statusCode() < 300) {
+                        cache.invalidate(BOOKS_ENDPOINT);
+                    }
+                });
+    }
+
+    /**
+     * Reconstitue le livre enregistré à partir de la réponse d'un POST/PUT :
+     * l'entité renvoyée dans le corps, sinon l'id de l'en-tête Location (201),
+     * sinon le livre envoyé s'il a déjà un id. Retourne null si rien n'est exploitable.
+     */
+    public Book resolveSavedBook(HttpResponse<String> resp, Book sent) {
+        String body = resp.body();
+        if (body != null && !body.isBlank()) {
+            try {
+                Book entity = gson.fromJson(body, Book.class);
+                if (entity != null && entity.getId() != null) {
+                    return entity;
+                }
+            } catch (JsonParseException ignored) {
+                // Corps non JSON : on se rabat sur l'en-tête Location
+            }
+        }
+        Long locationId = resp.headers().firstValue("Location")
+                .map(BookApiService::idFromLocation)
+                .orElse(null);
+        if (locationId != null) {
+            sent.setId(locationId);
+            return sent;
+        }
+        return sent.getId() != null ? sent : null;
+    }
+
+    private static Long idFromLocation(String location) {
+        try {
+            String path = URI.create(location).getPath();
+            return Long.valueOf(path.substring(path.lastIndexOf('/') + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
\ No newline at end of file
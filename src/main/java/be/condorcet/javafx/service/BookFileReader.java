@@ -0,0 +1,226 @@
+package be.condorcet.javafx.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Lecture en flux d'un fichier d'import, un livre à la fois :
+ * CSV avec ligne d'en-tête (.csv), JSON lines (.jsonl / .ndjson) ou tableau JSON (.json).
+ */
+class BookFileReader implements Closeable {
+
+    private enum Format { CSV, JSON_LINES, JSON_ARRAY }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final Gson gson = new Gson();
+    private Map<String, Integer> columns;
+    private char delimiter = ',';
+    private JsonReader jsonReader;
+    private int record;
+
+    BookFileReader(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            format = Format.CSV;
+        } else if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            format = Format.JSON_LINES;
+        } else if (name.endsWith(".json")) {
+            format = Format.JSON_ARRAY;
+        } else {
+            throw new IOException("Format non supporté (attendu .csv, .jsonl ou .json) : " + name);
+        }
+        reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    // Numéro de l'enregistrement courant (1 = premier livre), pour les messages d'erreur
+    int getRecordNumber() {
+        return record;
+    }
+
+    /**
+     * Livre suivant, null en fin de fichier.
+     * Une ligne illisible lève IllegalArgumentException : l'appelant la compte comme rejetée et continue.
+     */
+    Book next() throws IOException {
+        Book book;
+        switch (format) {
+            case CSV:
+                book = nextCsv();
+                break;
+            case JSON_LINES:
+                book = nextJsonLine();
+                break;
+            default:
+                book = nextJsonElement();
+                break;
+        }
+        // Même couverture par défaut qu'un livre ajouté à la main
+        if (book != null && (book.getImageUrl() == null || book.getImageUrl().isBlank())) {
+            book.setImageUrl(Book.PLACEHOLDER_IMAGE);
+        }
+        return book;
+    }
+
+    private Book nextJsonLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        record++;
+        try {
+            return gson.fromJson(line, Book.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("JSON invalide", e);
+        }
+    }
+
+    private Book nextJsonElement() throws IOException {
+        if (jsonReader == null) {
+            jsonReader = new JsonReader(reader);
+            jsonReader.beginArray();
+        }
+        if (!jsonReader.hasNext() || jsonReader.peek() == JsonToken.END_ARRAY) {
+            return null;
+        }
+        record++;
+        try {
+            return gson.fromJson(jsonReader, Book.class);
+        } catch (JsonParseException e) {
+            // Le flux n'est plus fiable après une erreur de syntaxe
+            throw new IOException("JSON invalide à l'enregistrement " + record, e);
+        }
+    }
+
+    private Book nextCsv() throws IOException {
+        if (columns == null) {
+            detectDelimiter();
+            List<String> header = readCsvRecord();
+            if (header == null) {
+                return null;
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(canonicalColumn(header.get(i)), i);
+            }
+        }
+        List<String> values = readCsvRecord();
+        if (values == null) {
+            return null;
+        }
+        record++;
+        Book book = new Book();
+        book.setTitle(column(values, "title"));
+        book.setAuthor(column(values, "author"));
+        book.setIsbn(column(values, "isbn"));
+        book.setGenre(column(values, "genre"));
+        book.setImageUrl(column(values, "imageUrl"));
+        book.setSynopsis(column(values, "synopsis"));
+        String stock = column(values, "stock");
+        if (stock != null && !stock.isEmpty()) {
+            try {
+                book.setStock(Integer.parseInt(stock));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Stock invalide : " + stock);
+            }
+        }
+        return book;
+    }
+
+    private String column(List<String> values, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        return values.get(index).trim();
+    }
+
+    // En-têtes acceptés en anglais (noms des champs JSON) ou en français
+    private static String canonicalColumn(String header) {
+        String h = TextNormalizer.fold(header.trim()).replaceAll("[^a-z]", "");
+        switch (h) {
+            case "titre": return "title";
+            case "auteur": return "author";
+            case "image":
+            case "imageurl":
+            case "urlimage": return "imageUrl";
+            default: return h;
+        }
+    }
+
+    // Export Excel français : ';' comme séparateur ; on choisit d'après la ligne d'en-tête
+    private void detectDelimiter() throws IOException {
+        reader.mark(8192);
+        String header = reader.readLine();
+        reader.reset();
+        if (header != null && header.chars().filter(ch -> ch == ';').count() > header.chars().filter(ch -> ch == ',').count()) {
+            delimiter = ';';
+        }
+    }
+
+    // Enregistrement CSV (RFC 4180) : champs entre guillemets, "" pour un guillemet, retours à la ligne autorisés
+    private List<String> readCsvRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                if (fields.isEmpty() && field.length() == 0) {
+                    continue; // ligne vide
+                }
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any || (c == -1 && fields.isEmpty() && field.length() == 0)) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,306 @@
+package be.condorcet.javafx.service;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Import en masse d'un fichier CSV / JSON lines.
+ * Le fichier est lu en flux et validé ligne par ligne avec les mêmes règles que le formulaire d'ajout.
+ * Les livres sont envoyés par lots à l'endpoint bulk s'il existe, sinon par POST individuels,
+ * avec au plus WINDOW requêtes en vol et des reprises sur 429 / 5xx.
+ * Chaque ligne est comparée au catalogue et aux lignes précédentes du fichier (DuplicateIndex) :
+ * un doublon exact est ignoré, un livre seulement ressemblant est importé mais signalé.
+ */
+public class BookImporter {
+
+    private static final int BULK_BATCH_SIZE = 200;
+    private static final int WINDOW = 8;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 250;
+    private static final long MAX_BACKOFF_MS = 10_000;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    /** Avancement de l'import, transmis régulièrement puis une dernière fois à la fin. */
+    public static final class Progress {
+        private final int read;
+        private final int imported;
+        private final int rejected;
+        private final int duplicates;
+        private final int failed;
+        private final double booksPerSecond;
+        private final boolean done;
+        private final List<String> errors;
+
+        Progress(int read, int imported, int rejected, int duplicates, int failed, double booksPerSecond, boolean done,
+                 List<String> errors) {
+            this.read = read;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.duplicates = duplicates;
+            this.failed = failed;
+            this.booksPerSecond = booksPerSecond;
+            this.done = done;
+            this.errors = errors;
+        }
+
+        public int getRead() { return read; }
+        public int getImported() { return imported; }
+        // Lignes invalides (champs obligatoires manquants, format illisible)
+        public int getRejected() { return rejected; }
+        // Doublons exacts d'un livre du catalogue ou d'une ligne précédente, non importés
+        public int getDuplicates() { return duplicates; }
+        // Livres refusés par le serveur ou perdus après toutes les reprises
+        public int getFailed() { return failed; }
+        public double getBooksPerSecond() { return booksPerSecond; }
+        public boolean isDone() { return done; }
+        public List<String> getErrors() { return errors; }
+    }
+
+    private final BookApiService apiService;
+    private final DuplicateIndex catalogIndex;
+    // Lignes déjà lues du fichier, indexées sous leur numéro
+    private final DuplicateIndex fileIndex = new DuplicateIndex();
+
+    private final AtomicInteger read = new AtomicInteger();
+    private final AtomicInteger imported = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger duplicates = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final List<String> errors = new ArrayList<>();
+    // null tant que le premier lot n'a pas été envoyé
+    private Boolean bulkSupported;
+    private long startNanos;
+    private volatile long lastProgressNanos;
+
+    public BookImporter(BookApiService apiService, DuplicateIndex catalogIndex) {
+        this.apiService = apiService;
+        this.catalogIndex = catalogIndex;
+    }
+
+    /**
+     * Lance l'import sur un thread de fond. onProgress est appelé depuis des threads de travail :
+     * l'appelant repasse lui-même sur le thread FX.
+     */
+    public CompletableFuture<Progress> importFileAsync(Path file, Consumer<Progress> onProgress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return importFile(file, onProgress);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, task -> Thread.ofVirtual().name("book-import").start(task));
+    }
+
+    private Progress importFile(Path file, Consumer<Progress> onProgress) throws IOException {
+        startNanos = System.nanoTime();
+        Semaphore window = new Semaphore(WINDOW);
+        try (BookFileReader reader = new BookFileReader(file);
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Book> batch = new ArrayList<>(BULK_BATCH_SIZE);
+            while (true) {
+                Book book;
+                try {
+                    book = reader.next();
+                } catch (IllegalArgumentException e) {
+                    read.incrementAndGet();
+                    reject("Ligne " + reader.getRecordNumber() + " : " + e.getMessage());
+                    continue;
+                }
+                if (book == null) {
+                    break;
+                }
+                read.incrementAndGet();
+                if (!book.hasRequiredFields()) {
+                    reject("Ligne " + reader.getRecordNumber() + " : titre, auteur et genre sont obligatoires");
+                    continue;
+                }
+                book.setId(null);
+                if (isDuplicate(book, reader.getRecordNumber())) {
+                    continue;
+                }
+                batch.add(book);
+                if (batch.size() == BULK_BATCH_SIZE) {
+                    submit(batch, window, workers, onProgress);
+                    batch = new ArrayList<>(BULK_BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch, window, workers, onProgress);
+            }
+            // La fermeture de l'ExecutorService attend la fin des envois en cours
+        }
+        Progress last = progress(true);
+        onProgress.accept(last);
+        return last;
+    }
+
+    private boolean isDuplicate(Book book, long line) {
+        List<DuplicateIndex.Match> matches = new ArrayList<>(catalogIndex.find(book, null, 1));
+        List<DuplicateIndex.Match> inFile = fileIndex.find(book, null, 1);
+        matches.addAll(inFile);
+        fileIndex.add(line, book);
+        if (matches.isEmpty()) {
+            return false;
+        }
+        DuplicateIndex.Match best = matches.stream()
+                .max(Comparator.comparing(DuplicateIndex.Match::isExact)
+                        .thenComparingDouble(DuplicateIndex.Match::getSimilarity))
+                .get();
+        String other = inFile.contains(best)
+                ? "la ligne " + best.getId()
+                : "« " + best.getTitle() + " » de " + best.getAuthor() + " du catalogue";
+        if (best.isExact()) {
+            duplicates.incrementAndGet();
+            error("Ligne " + line + " ignorée : doublon de " + other + (best.isSameIsbn() ? " (même ISBN)" : ""));
+            return true;
+        }
+        error(String.format("Ligne %d : ressemble à %s (%.0f %%)", line, other, best.getSimilarity() * 100));
+        return false;
+    }
+
+    private void submit(List<Book> batch, Semaphore window, ExecutorService workers, Consumer<Progress> onProgress) {
+        if (bulkSupported == null) {
+            // Premier lot envoyé directement : il détermine si l'endpoint bulk existe
+            bulkSupported = sendBulk(batch, onProgress);
+            if (bulkSupported) {
+                return;
+            }
+        }
+        if (bulkSupported) {
+            window.acquireUninterruptibly();
+            workers.submit(() -> {
+                try {
+                    sendBulk(batch, onProgress);
+                } finally {
+                    window.release();
+                }
+            });
+        } else {
+            for (Book book : batch) {
+                submitOne(book, window, workers, onProgress);
+            }
+        }
+    }
+
+    // Retourne false si le backend n'a pas d'endpoint bulk (rien n'a alors été importé)
+    private boolean sendBulk(List<Book> batch, Consumer<Progress> onProgress) {
+        HttpResponse<String> resp = sendWithRetry(() -> apiService.createBooksBulkAsync(batch));
+        int status = resp == null ? -1 : resp.statusCode();
+        if (status == 404 || status == 405 || status == 501) {
+            return false;
+        }
+        if (status >= 200 && status < 300) {
+            imported.addAndGet(batch.size());
+        } else {
+            failed.addAndGet(batch.size());
+            error("Lot refusé par le serveur (" + (status < 0 ? "erreur réseau" : "HTTP " + status) + ")");
+        }
+        reportProgress(onProgress);
+        return true;
+    }
+
+    private void submitOne(Book book, Semaphore window, ExecutorService workers, Consumer<Progress> onProgress) {
+        // Attend qu'une place se libère dans la fenêtre : la lecture du fichier suit le débit du serveur
+        window.acquireUninterruptibly();
+        workers.submit(() -> {
+            try {
+                HttpResponse<String> resp = sendWithRetry(() -> apiService.createBookAsync(book));
+                if (resp != null && resp.statusCode() >= 200 && resp.statusCode() < 300) {
+                    imported.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                    error("\"" + book.getTitle() + "\" refusé (" + (resp == null ? "erreur réseau" : "HTTP " + resp.statusCode()) + ")");
+                }
+                reportProgress(onProgress);
+            } finally {
+                window.release();
+            }
+        });
+    }
+
+    /**
+     * Reprises d'un POST, qui n'est pas idempotent : seulement quand le serveur n'a pas pu créer le livre,
+     * c'est-à-dire 429/503 (refus explicite, au délai demandé par Retry-After, sinon avec un délai croissant)
+     * ou connexion jamais établie.
+     * Un 500 ou une coupure pendant l'échange peut avoir créé le livre : pas de nouvel essai (doublon).
+     */
+    private HttpResponse<String> sendWithRetry(Supplier<CompletableFuture<HttpResponse<String>>> call) {
+        HttpResponse<String> resp = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 1));
+            long jittered = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+            long delay;
+            try {
+                resp = call.get().join();
+                int status = resp.statusCode();
+                if (status == 429 || status == 503) {
+                    long retryAfter = RequestScheduler.retryAfterMillis(resp, MAX_BACKOFF_MS);
+                    delay = retryAfter >= 0 ? retryAfter : jittered;
+                } else {
+                    delay = -1;
+                }
+            } catch (CompletionException e) {
+                resp = null;
+                delay = ApiErrors.neverSent(e) ? jittered : -1;
+            }
+            if (delay < 0 || attempt == MAX_ATTEMPTS) {
+                return resp;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return resp;
+            }
+        }
+        return resp;
+    }
+
+    private void reject(String message) {
+        rejected.incrementAndGet();
+        error(message);
+    }
+
+    private void error(String message) {
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+    }
+
+    private void reportProgress(Consumer<Progress> onProgress) {
+        long now = System.nanoTime();
+        long last = lastProgressNanos;
+        if (now - last >= PROGRESS_INTERVAL_NANOS) {
+            lastProgressNanos = now;
+            onProgress.accept(progress(false));
+        }
+    }
+
+    private Progress progress(boolean done) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        List<String> copy;
+        synchronized (errors) {
+            copy = List.copyOf(errors);
+        }
+        return new Progress(read.get(), imported.get(), rejected.get(), duplicates.get(), failed.get(),
+                imported.get() / seconds, done, copy);
+    }
+}
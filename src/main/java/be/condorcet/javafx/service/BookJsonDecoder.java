@@ -0,0 +1,62 @@
+package be.condorcet.javafx.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Décodage JSON des listes de livres, en une fois depuis une String
+ * ou en flux depuis un InputStream avec remise des livres par lots.
+ */
+public class BookJsonDecoder {
+
+    private static final Type BOOK_LIST_TYPE = new TypeToken<List<Book>>(){}.getType();
+
+    private final Gson gson;
+
+    public BookJsonDecoder(Gson gson) {
+        this.gson = gson;
+    }
+
+    public List<Book> decodeList(String json) {
+        return gson.fromJson(json, BOOK_LIST_TYPE);
+    }
+
+    /**
+     * Lit un tableau JSON livre par livre. Un lot est remis dès qu'il atteint sa taille
+     * (firstBatchSize pour le premier, batchSize ensuite) ou que maxBatchDelayNanos s'est écoulé.
+     */
+    public void decodeStream(InputStream body, int firstBatchSize, int batchSize, long maxBatchDelayNanos,
+                             Consumer<List<Book>> onBatch) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        reader.beginArray();
+
+        int limit = firstBatchSize;
+        List<Book> batch = new ArrayList<>(limit);
+        long lastPublish = System.nanoTime();
+        while (reader.hasNext()) {
+            batch.add(gson.fromJson(reader, Book.class));
+            if (batch.size() >= limit || System.nanoTime() - lastPublish > maxBatchDelayNanos) {
+                onBatch.accept(batch);
+                limit = batchSize;
+                batch = new ArrayList<>(limit);
+                lastPublish = System.nanoTime();
+            }
+        }
+        reader.endArray();
+        if (!batch.isEmpty()) {
+            onBatch.accept(batch);
+        }
+    }
+}
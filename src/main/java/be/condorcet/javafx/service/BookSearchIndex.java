@@ -0,0 +1,208 @@
+package be.condorcet.javafx.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import be.condorcet.javafx.model.Book;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Index inversé pour la recherche au fil de la frappe.
+ * Chaque mot normalisé du titre, de l'auteur, du genre et de l'ISBN est indexé avec ses préfixes ;
+ * une requête est l'intersection des listes de ses mots, classée par score.
+ * L'index suit la liste observée : ajouts, modifications et suppressions sont appliqués au fil de l'eau.
+ * Les clés d'un livre ne sont pas gardées à part : elles sont recalculées depuis le livre retiré,
+ * chaque clé n'existe donc qu'une fois en mémoire, dans postings. Les livres de la liste ne sont
+ * jamais modifiés sur place (une modification remplace le livre), le livre retiré a bien le contenu indexé.
+ * Les listes sont primitives (numéro de livre en int, score en octet) : l'index pèse plus lourd que le
+ * catalogue en colonnes, c'est lui qui borne le gain mémoire de ce stockage (voir CatalogFootprint).
+ */
+public class BookSearchIndex {
+
+    private static final int MIN_PREFIX = 2;
+    private static final int MAX_PREFIX = 12;
+
+    private static final int TITLE_WEIGHT = 8;
+    private static final int AUTHOR_WEIGHT = 5;
+    private static final int GENRE_WEIGHT = 3;
+    private static final int ISBN_WEIGHT = 10;
+
+    // Requête faite uniquement de chiffres, tirets et espaces (X final d'un ISBN-10) : un ISBN saisi avec séparateurs
+    private static final Pattern ISBN_QUERY = Pattern.compile("[0-9][0-9 -]*[0-9Xx]");
+    private static final Pattern ISBN_SEPARATORS = Pattern.compile("[ -]");
+
+    // clé (mot ou préfixe) -> (numéro du livre -> score)
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final DocIds docs = new DocIds();
+
+    public void attach(ObservableList<Book> books) {
+        clear();
+        books.forEach(this::add);
+        books.addListener((ListChangeListener<Book>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated()) {
+                    continue;
+                }
+                for (Book removed : change.getRemoved()) {
+                    if (removed != null) {
+                        remove(removed);
+                    }
+                }
+                for (Book added : change.getAddedSubList()) {
+                    add(added);
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        postings.clear();
+        docs.clear();
+    }
+
+    // Un livre déjà indexé sous le même id doit d'abord être retiré avec son ancien contenu
+    public void add(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        int doc = docs.add(book.getId());
+        // La clé déjà présente dans postings est gardée, la sous-chaîne du livre est aussitôt libérable
+        keysOf(book).forEach((key, score) -> postings.computeIfAbsent(key, k -> new PostingList()).put(doc, score));
+    }
+
+    // Retire le livre tel qu'il a été indexé
+    public void remove(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        int doc = docs.get(book.getId());
+        if (doc == DocIds.ABSENT) {
+            return;
+        }
+        for (String key : keysOf(book).keySet()) {
+            PostingList list = postings.get(key);
+            if (list != null) {
+                list.remove(doc);
+                if (list.size() == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+        docs.remove(book.getId());
+    }
+
+    /**
+     * Retourne les ids correspondant à tous les mots de la requête, du plus pertinent au moins pertinent,
+     * ou null si la requête ne contient aucun mot exploitable (pas de filtre).
+     */
+    public List<Long> search(String query) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String token : queryTokens(query)) {
+            if (token.length() < MIN_PREFIX) {
+                continue;
+            }
+            String key = token.length() > MAX_PREFIX ? token.substring(0, MAX_PREFIX) : token;
+            PostingList list = postings.get(key);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+
+        // On parcourt la liste la plus courte, chaque livre doit figurer dans toutes les autres
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList shortest = lists.get(0);
+        int[] found = new int[shortest.size()];
+        int[] scores = new int[shortest.size()];
+        int count = 0;
+        for (int slot = 0; slot < shortest.capacity(); slot++) {
+            int doc = shortest.docAt(slot);
+            if (doc == PostingList.FREE) {
+                continue;
+            }
+            int score = shortest.scoreAt(slot);
+            for (int i = 1; i < lists.size() && score >= 0; i++) {
+                int other = lists.get(i).get(doc);
+                score = other == PostingList.ABSENT ? -1 : score + other;
+            }
+            if (score >= 0) {
+                found[count] = doc;
+                scores[count] = score;
+                count++;
+            }
+        }
+        return ranked(found, scores, count);
+    }
+
+    /**
+     * Ids du meilleur score au plus faible. Les scores sont de petits entiers (au plus 2 × ISBN_WEIGHT par mot) :
+     * tri par dénombrement en deux passages, sans comparaison.
+     */
+    private List<Long> ranked(int[] found, int[] scores, int count) {
+        int max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, scores[i]);
+        }
+        int[] next = new int[max + 1];
+        for (int i = 0; i < count; i++) {
+            next[scores[i]]++;
+        }
+        // Position de départ de chaque score, le plus élevé en tête
+        int position = 0;
+        for (int score = max; score >= 0; score--) {
+            int n = next[score];
+            next[score] = position;
+            position += n;
+        }
+        Long[] ranked = new Long[count];
+        for (int i = 0; i < count; i++) {
+            ranked[next[scores[i]]++] = docs.idOf(found[i]);
+        }
+        return Arrays.asList(ranked);
+    }
+
+    // "978-2-07-036002-4" est cherché comme le seul mot "9782070360024", tel que l'ISBN a été indexé
+    private static List<String> queryTokens(String query) {
+        String trimmed = query == null ? "" : query.trim();
+        if (ISBN_QUERY.matcher(trimmed).matches()) {
+            return List.of(ISBN_SEPARATORS.matcher(trimmed).replaceAll("").toLowerCase());
+        }
+        return TextNormalizer.tokens(query);
+    }
+
+    private static Map<String, Integer> keysOf(Book book) {
+        Map<String, Integer> scores = new HashMap<>();
+        indexField(scores, book.getTitle(), TITLE_WEIGHT);
+        indexField(scores, book.getAuthor(), AUTHOR_WEIGHT);
+        indexField(scores, book.getGenre(), GENRE_WEIGHT);
+        if (book.getIsbn() != null) {
+            // L'ISBN est indexé sans tirets ni espaces
+            indexToken(scores, book.getIsbn().replaceAll("[^0-9Xx]", "").toLowerCase(), ISBN_WEIGHT);
+        }
+        return scores;
+    }
+
+    private static void indexField(Map<String, Integer> scores, String value, int weight) {
+        for (String token : TextNormalizer.tokens(value)) {
+            indexToken(scores, token, weight);
+        }
+    }
+
+    private static void indexToken(Map<String, Integer> scores, String token, int weight) {
+        int max = Math.min(token.length(), MAX_PREFIX);
+        for (int len = MIN_PREFIX; len <= max; len++) {
+            // Un mot complet compte double par rapport à un simple préfixe
+            int score = len == token.length() ? weight * 2 : weight;
+            scores.merge(token.substring(0, len), score, Math::max);
+        }
+    }
+}
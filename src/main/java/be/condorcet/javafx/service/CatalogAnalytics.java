@@ -0,0 +1,166 @@
+package be.condorcet.javafx.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Indicateurs d'inventaire du catalogue : livres et stock par genre, ruptures de stock,
+ * auteurs les plus présents, couvertures et synopsis manquants.
+ * Le calcul complet est un collect sur un flux parallèle (fork/join) : chaque tâche remplit son propre
+ * accumulateur, fusionné ensuite avec ceux des autres. Tous les indicateurs sont des sommes :
+ * add et remove les tiennent à jour livre par livre, sans reparcourir le catalogue.
+ */
+public class CatalogAnalytics {
+
+    public static final String NO_GENRE = "Sans genre";
+    private static final String COMPUTE_METRIC = "calcul inventaire";
+
+    public static final class GenreStats {
+        private final String name;
+        private int books;
+        private long stock;
+        private int outOfStock;
+
+        GenreStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public int getBooks() { return books; }
+        public long getStock() { return stock; }
+        public int getOutOfStock() { return outOfStock; }
+
+        // Un accumulateur de changements peut avoir books à zéro et un écart de stock à reporter
+        boolean isEmpty() {
+            return books == 0 && stock == 0 && outOfStock == 0;
+        }
+    }
+
+    private int books;
+    private long totalStock;
+    private int outOfStock;
+    private int missingCover;
+    private int missingSynopsis;
+    private final Map<String, GenreStats> genres = new HashMap<>();
+    private final Map<String, Integer> authors = new HashMap<>();
+
+    // Parcours complet, en parallèle ; les lignes vides (null) sont ignorées
+    public static CatalogAnalytics compute(List<Book> books) {
+        long start = System.nanoTime();
+        CatalogAnalytics analytics = books.parallelStream()
+                .filter(Objects::nonNull)
+                .collect(CatalogAnalytics::new, CatalogAnalytics::add, CatalogAnalytics::addAll);
+        PerfMetrics.histogram(COMPUTE_METRIC).recordNanos(System.nanoTime() - start);
+        return analytics;
+    }
+
+    public void add(Book book) {
+        apply(book, 1);
+    }
+
+    public void remove(Book book) {
+        apply(book, -1);
+    }
+
+    /**
+     * Ajoute les indicateurs d'un autre accumulateur. Ses compteurs peuvent être négatifs
+     * (livres retirés pendant un calcul complet) : un genre ou un auteur qui retombe à zéro disparaît.
+     */
+    public void addAll(CatalogAnalytics other) {
+        books += other.books;
+        totalStock += other.totalStock;
+        outOfStock += other.outOfStock;
+        missingCover += other.missingCover;
+        missingSynopsis += other.missingSynopsis;
+        other.genres.forEach((name, stats) -> {
+            GenreStats target = genres.computeIfAbsent(name, GenreStats::new);
+            target.books += stats.books;
+            target.stock += stats.stock;
+            target.outOfStock += stats.outOfStock;
+            if (target.isEmpty()) {
+                genres.remove(name);
+            }
+        });
+        other.authors.forEach((name, count) -> authors.merge(name, count, CatalogAnalytics::sum));
+    }
+
+    private void apply(Book book, int sign) {
+        if (book == null) {
+            return;
+        }
+        int stock = book.getStock();
+        boolean empty = stock <= 0;
+        books += sign;
+        totalStock += (long) sign * stock;
+        if (empty) {
+            outOfStock += sign;
+        }
+        if (!book.hasCover()) {
+            missingCover += sign;
+        }
+        if (!book.hasSynopsis()) {
+            missingSynopsis += sign;
+        }
+
+        String genre = book.getGenre() == null || book.getGenre().isBlank() ? NO_GENRE : book.getGenre().trim();
+        GenreStats stats = genres.computeIfAbsent(genre, GenreStats::new);
+        stats.books += sign;
+        stats.stock += (long) sign * stock;
+        if (empty) {
+            stats.outOfStock += sign;
+        }
+        if (stats.isEmpty()) {
+            genres.remove(genre);
+        }
+
+        if (book.getAuthor() != null && !book.getAuthor().isBlank()) {
+            authors.merge(book.getAuthor().trim(), sign, CatalogAnalytics::sum);
+        }
+    }
+
+    // Somme nulle : l'entrée est retirée de la map (merge avec null)
+    private static Integer sum(Integer a, Integer b) {
+        int sum = a + b;
+        return sum == 0 ? null : sum;
+    }
+
+    public int getBooks() { return books; }
+    public long getTotalStock() { return totalStock; }
+    public int getOutOfStock() { return outOfStock; }
+    public int getMissingCover() { return missingCover; }
+    public int getMissingSynopsis() { return missingSynopsis; }
+
+    // Genres du plus fourni au moins fourni
+    public List<GenreStats> getGenres() {
+        List<GenreStats> list = new ArrayList<>(genres.values());
+        list.sort(Comparator.comparingInt(GenreStats::getBooks).reversed().thenComparing(GenreStats::getName));
+        return list;
+    }
+
+    // Les n auteurs qui ont le plus de livres : tas de taille n, sans trier tous les auteurs
+    public List<Map.Entry<String, Integer>> getTopAuthors(int n) {
+        Comparator<Map.Entry<String, Integer>> order = Map.Entry.<String, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(n + 1, order);
+        for (Map.Entry<String, Integer> entry : authors.entrySet()) {
+            top.add(entry);
+            if (top.size() > n) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<String, Integer>> list = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Map.Entry<String, Integer> entry = top.poll();
+            list.add(0, Map.entry(entry.getKey(), entry.getValue()));
+        }
+        return list;
+    }
+}
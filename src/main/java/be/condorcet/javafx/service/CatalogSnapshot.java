@@ -0,0 +1,138 @@
+package be.condorcet.javafx.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Copie locale du catalogue dans un fichier binaire compact, lue par mapping mémoire.
+ *
+ * Format : en-tête (magic, version, nombre de livres), puis un enregistrement par livre
+ * préfixé par sa longueur. Le fichier est toujours relu en entier.
+ * Les chaînes sont stockées en UTF-8 précédées de leur longueur (-1 pour null).
+ */
+public class CatalogSnapshot {
+
+    private static final int MAGIC = 0x4B425331; // "KBS1"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+
+    private final Path file;
+
+    public CatalogSnapshot(Path file) {
+        this.file = file;
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(file);
+    }
+
+    public synchronized void write(List<Book> books) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "catalog", ".tmp");
+        int count = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(0); // nombre de livres, connu seulement à la fin
+
+            for (Book book : books) {
+                if (book == null || book.getId() == null) {
+                    continue;
+                }
+                byte[][] fields = {
+                    utf8(book.getTitle()), utf8(book.getAuthor()), utf8(book.getIsbn()),
+                    utf8(book.getGenre()), utf8(book.getImageUrl()), utf8(book.getSynopsis())
+                };
+                int length = 8 + 4;
+                for (byte[] field : fields) {
+                    length += 4 + (field == null ? 0 : field.length);
+                }
+                count++;
+                out.writeInt(length);
+                out.writeLong(book.getId());
+                out.writeInt(book.getStock());
+                for (byte[] field : fields) {
+                    if (field == null) {
+                        out.writeInt(-1);
+                    } else {
+                        out.writeInt(field.length);
+                        out.write(field);
+                    }
+                }
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, count), 8);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public synchronized List<Book> readAll() throws IOException {
+        if (!exists()) {
+            return List.of();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = readHeader(buffer);
+            List<Book> books = new ArrayList<>(count);
+            buffer.position(HEADER_SIZE);
+            for (int i = 0; i < count; i++) {
+                books.add(readRecord(buffer));
+            }
+            return books;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Snapshot corrompu : " + file, e);
+        }
+    }
+
+    private static int readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Format de snapshot inconnu");
+        }
+        return buffer.getInt(8);
+    }
+
+    private static Book readRecord(ByteBuffer buffer) {
+        buffer.getInt(); // longueur de l'enregistrement
+        Book book = new Book();
+        book.setId(buffer.getLong());
+        book.setStock(buffer.getInt());
+        book.setTitle(readString(buffer));
+        book.setAuthor(readString(buffer));
+        book.setIsbn(readString(buffer));
+        book.setGenre(readString(buffer));
+        book.setImageUrl(readString(buffer));
+        book.setSynopsis(readString(buffer));
+        return book;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,312 @@
+package be.condorcet.javafx.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.CatalogDelta;
+
+/**
+ * Synchronisation incrémentale du catalogue : seuls les livres créés, modifiés ou supprimés depuis la dernière
+ * version connue sont téléchargés, le coût suit le rythme des changements et non la taille du catalogue.
+ * Du plus économe au plus compatible :
+ * STREAM : flux SSE GET /api/books/changes/stream?since=v, chaque événement contient un CatalogDelta en JSON ;
+ * POLL : GET /api/books/changes?since=v à intervalle régulier si le flux n'existe pas ;
+ * FULL : backend sans route de changements, GET conditionnel du catalogue (304 s'il n'a pas changé) et applyDiff.
+ * Les changements reçus sont fusionnés par id et remis au thread FX par lots, au plus un lot toutes les FLUSH_DELAY_MILLIS.
+ */
+public class CatalogSync {
+
+    public enum Mode { STREAM, POLL, FULL }
+
+    static final String VERSION_HEADER = "X-Catalog-Version";
+
+    // -Dkrousty.sync.interval=30 (secondes) : sondage des changements ou revalidation du catalogue
+    private static final long POLL_INTERVAL_MILLIS = Long.getLong("krousty.sync.interval", 30) * 1000;
+    private static final long FLUSH_DELAY_MILLIS = 100;
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private static final System.Logger LOG = System.getLogger(CatalogSync.class.getName());
+
+    private final BookApiService api;
+    private final String booksPath;
+    private final Consumer<CatalogDelta> onDelta;
+    private final Consumer<List<Book>> onCatalog;
+    private final Gson gson = new Gson();
+
+    private volatile String version;
+    private volatile Mode mode;
+    private volatile boolean running;
+    private volatile Thread worker;
+    private volatile InputStream openStream;
+
+    // Changements pas encore remis au thread FX, fusionnés par id : seul le dernier état compte
+    private final Map<Long, Book> pendingUpserts = new LinkedHashMap<>();
+    private final Set<Long> pendingDeletes = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    /**
+     * onDelta reçoit les lots de changements, onCatalog un catalogue complet (mode FULL ou version trop ancienne),
+     * tous deux sur le thread FX.
+     */
+    CatalogSync(BookApiService api, String booksPath, Consumer<CatalogDelta> onDelta, Consumer<List<Book>> onCatalog) {
+        this.api = api;
+        this.booksPath = booksPath;
+        this.onDelta = onDelta;
+        this.onCatalog = onCatalog;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // À appeler après un chargement complet : la synchronisation part de sa version
+    public void start() {
+        if (running) {
+            return;
+        }
+        version = api.getCatalogVersion();
+        mode = version != null ? Mode.STREAM : Mode.FULL;
+        running = true;
+        worker = Thread.ofVirtual().name("catalog-sync").start(this::run);
+    }
+
+    public void stop() {
+        running = false;
+        closeStream();
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                switch (mode) {
+                    case STREAM:
+                        // Retourne quand le serveur ferme le flux : reconnexion depuis la dernière version reçue
+                        stream();
+                        Thread.sleep(MIN_BACKOFF_MILLIS);
+                        break;
+                    case POLL:
+                        poll();
+                        Thread.sleep(POLL_INTERVAL_MILLIS);
+                        break;
+                    default:
+                        revalidate();
+                        Thread.sleep(POLL_INTERVAL_MILLIS);
+                        break;
+                }
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                LOG.log(System.Logger.Level.WARNING, "Synchronisation du catalogue interrompue, nouvel essai dans "
+                        + backoff + " ms", e);
+                PerfMetrics.counter("synchro : erreurs").increment();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void stream() throws IOException, InterruptedException, ExecutionException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(api.endpoint(booksPath + "/changes/stream?since=" + encodedVersion()))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        // Hors ordonnanceur : une connexion ouverte en permanence n'occupe pas une des places de requêtes en vol
+        HttpResponse<InputStream> resp = api.getClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (resp.statusCode() != 200) {
+            resp.body().close();
+            if (!handleStatus(resp.statusCode(), Mode.POLL)) {
+                throw new IOException("HTTP " + resp.statusCode());
+            }
+            return;
+        }
+        InputStream body = HttpCompression.decode(HttpCompression.encodingOf(resp.headers()), resp.body());
+        openStream = body;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            StringBuilder data = new StringBuilder();
+            String line;
+            while (running && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (data.length() > 0) {
+                        accept(data.toString());
+                        data.setLength(0);
+                    }
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(line, line.startsWith("data: ") ? 6 : 5, line.length());
+                }
+                // Commentaires (maintien de la connexion), event:, id: et retry: sont ignorés : la version est dans les données
+            }
+        } finally {
+            openStream = null;
+        }
+    }
+
+    private void poll() throws InterruptedException, ExecutionException {
+        HttpRequest request = api.publicRequest(booksPath + "/changes?since=" + encodedVersion(), null);
+        HttpResponse<String> resp = api.getScheduler()
+                .submit(request, HttpCompression.ofString(request), RequestScheduler.Priority.BACKGROUND)
+                .get();
+        if (resp.statusCode() == 200) {
+            accept(resp.body());
+        } else if (resp.statusCode() != 204 && resp.statusCode() != 304 && !handleStatus(resp.statusCode(), Mode.FULL)) {
+            throw new IllegalStateException("HTTP " + resp.statusCode());
+        }
+    }
+
+    private void revalidate() throws InterruptedException, ExecutionException {
+        List<Book> fresh = api.fetchCatalogIfModified().get();
+        if (fresh != null) {
+            publishCatalog(fresh);
+        }
+    }
+
+    /**
+     * 404/405/501 : ce mode n'existe pas sur le serveur, on passe au suivant. De même pour 400/406/415 :
+     * sans route /changes, Spring prend "changes" pour l'id de GET /api/books/{id} et échoue à le convertir ;
+     * 410 : version trop ancienne pour le serveur, on repart d'un catalogue complet.
+     * Retourne false pour un autre statut (erreur, nouvel essai plus tard).
+     */
+    private boolean handleStatus(int status, Mode fallback) throws InterruptedException, ExecutionException {
+        if (status == 400 || status == 404 || status == 405 || status == 406 || status == 415 || status == 501) {
+            LOG.log(System.Logger.Level.INFO, "Synchronisation : " + mode + " indisponible (HTTP " + status
+                    + "), passage en " + fallback);
+            mode = fallback;
+            return true;
+        }
+        if (status == 410) {
+            resync();
+            return true;
+        }
+        return false;
+    }
+
+    private void resync() throws InterruptedException, ExecutionException {
+        // Sans le cache, la réponse est complète (pas de 304) et porte une nouvelle version
+        api.getCache().invalidate(booksPath);
+        List<Book> fresh = api.fetchCatalogIfModified().get();
+        version = api.getCatalogVersion();
+        if (version == null) {
+            mode = Mode.FULL;
+        }
+        if (fresh != null) {
+            publishCatalog(fresh);
+        }
+    }
+
+    private void publishCatalog(List<Book> fresh) {
+        // Le catalogue complet remplace les changements en attente
+        synchronized (pendingUpserts) {
+            pendingUpserts.clear();
+            pendingDeletes.clear();
+        }
+        PerfMetrics.runLater(() -> {
+            if (running) {
+                onCatalog.accept(fresh);
+            }
+        });
+    }
+
+    private void accept(String json) {
+        CatalogDelta delta;
+        try {
+            delta = gson.fromJson(json, CatalogDelta.class);
+        } catch (JsonParseException e) {
+            LOG.log(System.Logger.Level.WARNING, "Changements illisibles ignorés", e);
+            return;
+        }
+        if (delta == null) {
+            return;
+        }
+        if (delta.getVersion() != null) {
+            version = delta.getVersion();
+        }
+        if (delta.isEmpty()) {
+            return;
+        }
+        PerfMetrics.counter("synchro : changements reçus").add(delta.getUpserted().size() + delta.getDeleted().size());
+        synchronized (pendingUpserts) {
+            for (Book book : delta.getUpserted()) {
+                pendingDeletes.remove(book.getId());
+                pendingUpserts.put(book.getId(), book);
+            }
+            for (Long id : delta.getDeleted()) {
+                pendingUpserts.remove(id);
+                pendingDeletes.add(id);
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                CompletableFuture.delayedExecutor(FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS).execute(this::flush);
+            }
+        }
+    }
+
+    private void flush() {
+        CatalogDelta batch;
+        synchronized (pendingUpserts) {
+            flushScheduled = false;
+            batch = new CatalogDelta(version, new ArrayList<>(pendingUpserts.values()), new ArrayList<>(pendingDeletes));
+            pendingUpserts.clear();
+            pendingDeletes.clear();
+        }
+        if (!batch.isEmpty()) {
+            PerfMetrics.runLater(() -> {
+                if (running) {
+                    onDelta.accept(batch);
+                }
+            });
+        }
+    }
+
+    private String encodedVersion() {
+        return URLEncoder.encode(version, StandardCharsets.UTF_8);
+    }
+
+    private void closeStream() {
+        InputStream stream = openStream;
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.DEBUG, "Fermeture du flux de changements", e);
+            }
+        }
+    }
+}
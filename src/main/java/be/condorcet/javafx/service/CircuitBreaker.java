@@ -0,0 +1,107 @@
+package be.condorcet.javafx.service;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+
+/**
+ * Disjoncteur d'un serveur (un par hôte dans RequestScheduler).
+ *
+ * CLOSED : les requêtes passent ; après FAILURE_THRESHOLD échecs consécutifs (erreur réseau, délai dépassé, 5xx)
+ * il s'ouvre. OPEN : les requêtes échouent tout de suite avec CircuitOpenException, sans toucher le serveur.
+ * Passé le délai d'ouverture, HALF_OPEN laisse passer une seule requête d'essai : réussie, le disjoncteur se
+ * referme ; ratée, il se rouvre pour un délai doublé (au plus MAX_OPEN_MILLIS).
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long MIN_OPEN_MILLIS = 5_000;
+    private static final long MAX_OPEN_MILLIS = 60_000;
+
+    private final String name;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openMillis = MIN_OPEN_MILLIS;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    CircuitBreaker(String name) {
+        this.name = name;
+    }
+
+    // false : la requête doit échouer sans être envoyée
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (remainingMillis() > 0) {
+                    PerfMetrics.counter("disjoncteur : requêtes refusées").increment();
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    PerfMetrics.counter("disjoncteur : requêtes refusées").increment();
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            openMillis = MIN_OPEN_MILLIS;
+            transition(State.CLOSED);
+        }
+    }
+
+    synchronized void onFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN) {
+            openMillis = Math.min(openMillis * 2, MAX_OPEN_MILLIS);
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= FAILURE_THRESHOLD) {
+            open();
+        }
+    }
+
+    // Requête annulée avant sa réponse : ni succès ni échec, la place de la requête d'essai se libère
+    synchronized void onCancelled() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // Temps avant la prochaine requête d'essai, 0 si le disjoncteur n'est pas ouvert
+    public synchronized long remainingMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openMillis - (System.nanoTime() - openedAtNanos) / 1_000_000);
+    }
+
+    private void open() {
+        openedAtNanos = System.nanoTime();
+        transition(State.OPEN);
+    }
+
+    private void transition(State next) {
+        PerfMetrics.recordCircuitState(name, state.name(), next.name());
+        state = next;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return state == State.OPEN
+                ? "disjoncteur : OPEN (essai dans " + (remainingMillis() + 999) / 1000 + " s)"
+                : "disjoncteur : " + state;
+    }
+}
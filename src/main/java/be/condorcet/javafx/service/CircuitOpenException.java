@@ -0,0 +1,20 @@
+package be.condorcet.javafx.service;
+
+import java.io.IOException;
+
+/** Requête refusée sans être envoyée : le disjoncteur du serveur est ouvert. */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryInMillis;
+
+    public CircuitOpenException(String server, long retryInMillis) {
+        super("Disjoncteur ouvert pour " + server + ", nouvel essai dans " + retryInMillis + " ms");
+        this.retryInMillis = retryInMillis;
+    }
+
+    public long getRetryInMillis() {
+        return retryInMillis;
+    }
+}
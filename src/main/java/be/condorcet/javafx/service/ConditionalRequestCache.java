@@ -0,0 +1,100 @@
+package be.condorcet.javafx.service;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache HTTP des lectures : garde les validateurs (ETag / Last-Modified) et la valeur déjà décodée
+ * de chaque ressource. Une réponse 304 est servie depuis le cache sans aucun parsing.
+ */
+public class ConditionalRequestCache {
+
+    public static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final Object value;
+        private final long bodyBytes;
+
+        private Entry(String etag, String lastModified, Object value, long bodyBytes) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+            this.bodyBytes = bodyBytes;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T value() {
+            return (T) value;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    public Entry get(String key) {
+        return entries.get(key);
+    }
+
+    // Ajoute If-None-Match / If-Modified-Since si une version est en cache
+    public HttpRequest.Builder addValidators(HttpRequest.Builder builder, Entry entry) {
+        if (entry != null) {
+            revalidations.increment();
+            if (entry.etag != null) {
+                builder.header("If-None-Match", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                builder.header("If-Modified-Since", entry.lastModified);
+            }
+        }
+        return builder;
+    }
+
+    public <T> T hit(Entry entry) {
+        hits.increment();
+        bytesSaved.add(entry.bodyBytes);
+        return entry.value();
+    }
+
+    // Enregistre une réponse 200 ; sans validateur, il n'y a rien à réutiliser
+    public void store(String key, HttpHeaders headers, Object value, long bodyBytes) {
+        misses.increment();
+        bytesReceived.add(bodyBytes);
+        Optional<String> etag = headers.firstValue("ETag");
+        Optional<String> lastModified = headers.firstValue("Last-Modified");
+        if (etag.isPresent() || lastModified.isPresent()) {
+            entries.put(key, new Entry(etag.orElse(null), lastModified.orElse(null), value, bodyBytes));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    // Invalide une ressource ainsi que toutes ses variantes paginées (?page=..)
+    public void invalidate(String key) {
+        entries.keySet().removeIf(k -> k.equals(key) || k.startsWith(key + "?") || k.startsWith(key + "/"));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getRevalidations() { return revalidations.sum(); }
+    public long getBytesSaved() { return bytesSaved.sum(); }
+    public long getBytesReceived() { return bytesReceived.sum(); }
+
+    @Override
+    public String toString() {
+        return "cache HTTP : " + getHits() + " hits (304), " + getMisses() + " misses, "
+                + getRevalidations() + " revalidations, " + (getBytesSaved() / 1024) + " Ko économisés";
+    }
+}
@@ -0,0 +1,54 @@
+package be.condorcet.javafx.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Compte les octets lus et le temps passé à les attendre, pour mesurer les corps lus en streaming
+class CountingInputStream extends FilterInputStream {
+
+    private long count;
+    private long readNanos;
+
+    CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    // Temps passé dans les lectures du flux sous-jacent (réseau, décompression)
+    long getReadNanos() {
+        return readNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        int b = super.read();
+        readNanos += System.nanoTime() - start;
+        if (b >= 0) {
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        int n = super.read(b, off, len);
+        readNanos += System.nanoTime() - start;
+        if (n > 0) {
+            count += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+}
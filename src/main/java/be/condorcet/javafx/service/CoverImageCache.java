@@ -0,0 +1,305 @@
+package be.condorcet.javafx.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import javafx.scene.image.Image;
+
+/**
+ * Cache des couvertures affichées dans la liste.
+ * Les octets téléchargés sont gardés sur disque, les images décodées directement
+ * à la taille d'affichage sont gardées en mémoire dans un LRU borné en octets.
+ * Le disque est lui aussi borné : les fichiers les moins récemment utilisés
+ * (date de modification, rafraîchie à chaque lecture) sont supprimés.
+ * La partie mémoire n'est utilisée que depuis le thread FX.
+ */
+public class CoverImageCache {
+
+    private static final Path DEFAULT_DIR = Path.of(System.getProperty("user.home"), ".krousty-books", "covers");
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    private static final long DEFAULT_DISK_MAX_BYTES = 128L * 1024 * 1024;
+    // Échec passager (réseau, délai, 5xx, 408, 429) : pas de nouvel essai avant ce délai
+    private static final long RETRY_FAILED_MILLIS = 30_000;
+    private static final Pattern CLIENT_ERROR = Pattern.compile("HTTP 4(?!08|29)\\d\\d");
+
+    private final RequestScheduler scheduler;
+    private final Path diskDir;
+    private final double width;
+    private final double height;
+    private final long maxBytes;
+    private final long diskMaxBytes;
+    private final long bytesPerImage;
+
+    private final LinkedHashMap<String, Image> memory = new LinkedHashMap<>(64, 0.75f, true);
+    // Couvertures en échec et heure (ms) du prochain essai permis, Long.MAX_VALUE pour un 4xx ou une image illisible
+    private final Map<String, Long> failed = new HashMap<>();
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private long currentBytes;
+
+    // Fichiers du disque en ordre d'accès, avec leur taille ; lu sur disque à la première écriture
+    private final LinkedHashMap<Path, Long> diskFiles = new LinkedHashMap<>(64, 0.75f, true);
+    private boolean diskScanned;
+    private long diskBytes;
+
+    public CoverImageCache(RequestScheduler scheduler, double width, double height) {
+        this(scheduler, DEFAULT_DIR, width, height, DEFAULT_MAX_BYTES, DEFAULT_DISK_MAX_BYTES);
+    }
+
+    public CoverImageCache(RequestScheduler scheduler, Path diskDir, double width, double height,
+                           long maxBytes, long diskMaxBytes) {
+        this.scheduler = scheduler;
+        this.diskDir = diskDir;
+        this.width = width;
+        this.height = height;
+        this.maxBytes = maxBytes;
+        this.diskMaxBytes = diskMaxBytes;
+        // Borne haute : l'image décodée ne dépasse jamais la taille d'affichage (ARGB, 4 octets par pixel)
+        this.bytesPerImage = (long) Math.ceil(width) * (long) Math.ceil(height) * 4;
+    }
+
+    public Image getCached(String url) {
+        return memory.get(url);
+    }
+
+    /**
+     * Charge une couverture. Le callback est appelé sur le thread FX, immédiatement
+     * si l'image est déjà en mémoire ; c'est à l'appelant d'ignorer le résultat
+     * si la cellule affiche entre-temps un autre livre.
+     */
+    public void load(String url, Consumer<Image> onLoaded) {
+        Image cached = memory.get(url);
+        if (cached != null) {
+            onLoaded.accept(cached);
+            return;
+        }
+        Long retryAt = failed.get(url);
+        if (retryAt != null) {
+            if (System.currentTimeMillis() < retryAt) {
+                return;
+            }
+            failed.remove(url);
+        }
+        if (!isRemote(url)) {
+            onLoaded.accept(decode(url, url, null));
+            return;
+        }
+        fetchToDisk(url).whenComplete((file, ex) -> PerfMetrics.runLater(() -> {
+            if (ex != null) {
+                failed.put(url, isPermanent(ex) ? Long.MAX_VALUE : System.currentTimeMillis() + RETRY_FAILED_MILLIS);
+                return;
+            }
+            Image image = memory.get(url);
+            if (image == null) {
+                image = decode(url, file.toUri().toString(), file);
+            }
+            onLoaded.accept(image);
+        }));
+    }
+
+    public void prefetch(String url) {
+        if (url != null && !memory.containsKey(url) && !inFlight.containsKey(url)) {
+            load(url, image -> { });
+        }
+    }
+
+    private Image decode(String key, String source, Path file) {
+        // Réduction à la taille de l'ImageView dès le décodage, en tâche de fond
+        Image image = new Image(source, width, height, true, true, true);
+        image.errorProperty().addListener((obs, wasError, isError) -> {
+            if (!isError) {
+                return;
+            }
+            if (memory.get(key) == image) {
+                memory.remove(key);
+                currentBytes -= bytesPerImage;
+            }
+            failed.put(key, Long.MAX_VALUE);
+            // Fichier illisible (tronqué, page d'erreur...) : sinon il serait resservi à chaque session
+            if (file != null) {
+                scheduler.executor().execute(() -> deleteDiskFile(file));
+            }
+        });
+        memory.put(key, image);
+        currentBytes += bytesPerImage;
+        evictIfNeeded();
+        return image;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Image> it = memory.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            it.next();
+            it.remove();
+            currentBytes -= bytesPerImage;
+        }
+    }
+
+    // Tout le travail disque (empreinte de l'URL, présence du fichier, date d'accès) se fait hors du thread FX
+    private CompletableFuture<Path> fetchToDisk(String url) {
+        return inFlight.computeIfAbsent(url, u -> {
+            CompletableFuture<Path> future = CompletableFuture
+                    .supplyAsync(() -> diskDir.resolve(fileNameFor(u)), scheduler.executor())
+                    .thenCompose(file -> {
+                        if (Files.exists(file)) {
+                            touchDiskFile(file);
+                            return CompletableFuture.completedFuture(file);
+                        }
+                        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(u)).GET().build();
+                        return scheduler.submit(request, HttpResponse.BodyHandlers.ofByteArray(),
+                                        RequestScheduler.Priority.BACKGROUND)
+                                .thenApply(resp -> {
+                                    if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+                                        throw new UncheckedIOException(new IOException("HTTP " + resp.statusCode() + " pour " + u));
+                                    }
+                                    return writeAtomically(file, resp.body());
+                                });
+                    });
+            future.whenCompleteAsync((p, ex) -> inFlight.remove(u));
+            return future;
+        });
+    }
+
+    private Path writeAtomically(Path file, byte[] bytes) {
+        try {
+            Files.createDirectories(diskDir);
+            Path tmp = Files.createTempFile(diskDir, "cover", ".tmp");
+            Files.write(tmp, bytes);
+            Path written = Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            addDiskFile(written, bytes.length);
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void touchDiskFile(Path file) {
+        try {
+            // La date survit au redémarrage, c'est elle qui ordonne le premier parcours du dossier
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Sans conséquence : le fichier sera seulement évincé un peu plus tôt
+        }
+        synchronized (diskFiles) {
+            diskFiles.get(file);
+        }
+    }
+
+    private void addDiskFile(Path file, long size) {
+        synchronized (diskFiles) {
+            scanDiskIfNeeded();
+            Long previous = diskFiles.put(file, size);
+            diskBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<Path, Long>> it = diskFiles.entrySet().iterator();
+            while (diskBytes > diskMaxBytes && it.hasNext()) {
+                Map.Entry<Path, Long> eldest = it.next();
+                if (eldest.getKey().equals(file)) {
+                    continue;
+                }
+                it.remove();
+                diskBytes -= eldest.getValue();
+                deleteQuietly(eldest.getKey());
+            }
+        }
+    }
+
+    private void deleteDiskFile(Path file) {
+        synchronized (diskFiles) {
+            Long size = diskFiles.remove(file);
+            if (size != null) {
+                diskBytes -= size;
+            }
+        }
+        deleteQuietly(file);
+    }
+
+    // Appelé sous le verrou de diskFiles
+    private void scanDiskIfNeeded() {
+        if (diskScanned) {
+            return;
+        }
+        diskScanned = true;
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(diskDir)) {
+            listing.forEach(files::add);
+        } catch (IOException e) {
+            return;
+        }
+        long staleTmp = System.currentTimeMillis() - 60_000;
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        for (Path path : files) {
+            try {
+                FileTime modified = Files.getLastModifiedTime(path);
+                if (path.getFileName().toString().endsWith(".tmp")) {
+                    // Reste d'une écriture interrompue ; un .tmp récent peut être en cours d'écriture
+                    if (modified.toMillis() < staleTmp) {
+                        deleteQuietly(path);
+                    }
+                    continue;
+                }
+                lastUsed.put(path, modified);
+                sizes.put(path, Files.size(path));
+            } catch (IOException e) {
+                // Supprimé entre-temps
+            }
+        }
+        List<Path> oldestFirst = new ArrayList<>(lastUsed.keySet());
+        oldestFirst.sort(Comparator.comparing(lastUsed::get));
+        for (Path path : oldestFirst) {
+            long size = sizes.get(path);
+            diskFiles.put(path, size);
+            diskBytes += size;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Laissé sur place : il ne compte simplement plus dans la borne
+        }
+    }
+
+    // Couverture absente ou refusée (4xx hors 408/429) : inutile de la redemander pendant la session
+    private static boolean isPermanent(Throwable ex) {
+        Throwable t = ApiErrors.unwrap(ex);
+        return t instanceof IllegalArgumentException || CLIENT_ERROR.matcher(String.valueOf(t.getMessage())).find();
+    }
+
+    private static boolean isRemote(String url) {
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    private static String fileNameFor(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package be.condorcet.javafx.service;
+
+import java.util.Arrays;
+
+/**
+ * Numéros denses des livres de l'index de recherche (id -> numéro), pour des listes en int plutôt qu'en long.
+ * Le numéro d'un livre retiré est réutilisé par le prochain livre ajouté.
+ */
+final class DocIds {
+
+    static final int ABSENT = -1;
+    private static final long FREE = Long.MIN_VALUE;
+
+    // Table id -> numéro à adressage ouvert, suppression par décalage comme PostingList
+    private long[] keys;
+    private int[] values;
+    private int count;
+
+    private long[] idOfDoc = new long[16];
+    private int nextDoc;
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+
+    DocIds() {
+        allocate(16);
+    }
+
+    void clear() {
+        allocate(16);
+        count = 0;
+        idOfDoc = new long[16];
+        nextDoc = 0;
+        freeDocs = new int[16];
+        freeCount = 0;
+    }
+
+    int get(long id) {
+        int slot = slotOf(id);
+        return keys[slot] == FREE ? ABSENT : values[slot];
+    }
+
+    long idOf(int doc) {
+        return idOfDoc[doc];
+    }
+
+    // Numéro du livre, attribué s'il n'est pas encore indexé
+    int add(long id) {
+        int slot = slotOf(id);
+        if (keys[slot] != FREE) {
+            return values[slot];
+        }
+        int doc;
+        if (freeCount > 0) {
+            doc = freeDocs[--freeCount];
+        } else {
+            doc = nextDoc++;
+            if (doc == idOfDoc.length) {
+                idOfDoc = Arrays.copyOf(idOfDoc, doc * 2);
+            }
+        }
+        idOfDoc[doc] = id;
+        keys[slot] = id;
+        values[slot] = doc;
+        if (++count * 2 > keys.length) {
+            grow();
+        }
+        return doc;
+    }
+
+    void remove(long id) {
+        int hole = slotOf(id);
+        if (keys[hole] == FREE) {
+            return;
+        }
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+        }
+        freeDocs[freeCount++] = values[hole];
+        count--;
+        int mask = keys.length - 1;
+        for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = FREE;
+    }
+
+    private int slotOf(long id) {
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != FREE && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    private static int hash(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
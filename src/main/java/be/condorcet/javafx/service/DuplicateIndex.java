@@ -0,0 +1,378 @@
+package be.condorcet.javafx.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import be.condorcet.javafx.model.Book;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Détection des doublons probables : même ISBN (ISBN-10 converti en ISBN-13), ou titre et auteur proches
+ * une fois accents et casse retirés (similarité de Jaccard sur les trigrammes).
+ * Les candidats viennent d'une signature MinHash découpée en BANDS bandes de ROWS valeurs (LSH) : deux livres
+ * partageant une bande sont comparés exactement. Un doublon exact partage toutes les bandes. Probabilité de
+ * retrouver un livre de similarité J : 1 - (1 - J^3)^20, soit 0,99 au seuil (0,6), 0,93 à 0,5 et 0,42 à 0,3
+ * (ces candidats-là sont écartés par la comparaison exacte).
+ * La recherche ne lit que quelques petites listes, quelle que soit la taille du catalogue.
+ * Les méthodes sont synchronisées : l'index est interrogé depuis le thread FX et depuis l'import.
+ */
+public class DuplicateIndex {
+
+    // Similarité minimale pour qu'un livre soit signalé
+    public static final double THRESHOLD = 0.6;
+    // Marque les trigrammes de l'auteur, pour qu'ils ne se confondent pas avec ceux du titre
+    private static final long AUTHOR_TAG = 1L << 48;
+    private static final int BANDS = 20;
+    private static final int ROWS = 3;
+
+    /** Livre du catalogue qui ressemble au livre recherché. */
+    public static final class Match {
+        private final long id;
+        private final String title;
+        private final String author;
+        private final double similarity;
+        private final boolean sameIsbn;
+        private final boolean exact;
+
+        Match(long id, String title, String author, double similarity, boolean sameIsbn, boolean exact) {
+            this.id = id;
+            this.title = title;
+            this.author = author;
+            this.similarity = similarity;
+            this.sameIsbn = sameIsbn;
+            this.exact = exact;
+        }
+
+        public long getId() { return id; }
+        public String getTitle() { return title; }
+        public String getAuthor() { return author; }
+        public double getSimilarity() { return similarity; }
+        public boolean isSameIsbn() { return sameIsbn; }
+
+        // Même ISBN, ou titre et auteur identiques aux accents et à la casse près sans ISBN contradictoire
+        // (deux ISBN différents : deux éditions)
+        public boolean isExact() {
+            return exact;
+        }
+    }
+
+    private static final class Entry {
+        final String title;
+        final String author;
+        final long isbn;
+        final long[] grams;
+
+        Entry(String title, String author, long isbn, long[] grams) {
+            this.title = title;
+            this.author = author;
+            this.isbn = isbn;
+            this.grams = grams;
+        }
+    }
+
+    // Liste d'ids extensible, sans un objet Long par livre
+    private static final class Posting {
+        long[] ids = new long[2];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Posting> byBand = new HashMap<>();
+    private final Map<Long, Posting> byIsbn = new HashMap<>();
+    private ExecutorService indexer;
+
+    /**
+     * Suit la liste observée. L'indexation se fait sur un thread de fond, dans l'ordre des changements :
+     * un gros chargement ne bloque pas le thread FX, l'index est seulement incomplet le temps de le rattraper.
+     */
+    public void attach(ObservableList<Book> books) {
+        indexer = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("duplicate-index").factory());
+        List<Book> initial = new ArrayList<>(books);
+        indexer.execute(() -> initial.forEach(this::add));
+        books.addListener((ListChangeListener<Book>) change -> {
+            List<Long> removed = new ArrayList<>();
+            List<Book> added = new ArrayList<>();
+            while (change.next()) {
+                if (change.wasPermutated()) {
+                    continue;
+                }
+                for (Book book : change.getRemoved()) {
+                    if (book != null && book.getId() != null) {
+                        removed.add(book.getId());
+                    }
+                }
+                added.addAll(change.getAddedSubList());
+            }
+            indexer.execute(() -> {
+                removed.forEach(this::remove);
+                added.forEach(this::add);
+            });
+        });
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        byBand.clear();
+        byIsbn.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public void add(Book book) {
+        if (book != null) {
+            add(book.getId(), book);
+        }
+    }
+
+    // Indexe le livre sous un autre id que le sien (lignes d'un fichier importé, encore sans id)
+    public void add(Long id, Book book) {
+        if (id == null) {
+            return;
+        }
+        // Normalisation hors du verrou : les recherches n'attendent que la mise à jour des listes
+        Entry entry = new Entry(book.getTitle(), book.getAuthor(), isbnKey(book.getIsbn()), grams(book.getTitle(), book.getAuthor()));
+        long[] bands = bands(entry.grams);
+        synchronized (this) {
+            remove(id);
+            entries.put(id, entry);
+            for (long band : bands) {
+                byBand.computeIfAbsent(band, b -> new Posting()).add(id);
+            }
+            if (entry.isbn != 0) {
+                byIsbn.computeIfAbsent(entry.isbn, k -> new Posting()).add(id);
+            }
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (long band : bands(entry.grams)) {
+            removeFrom(byBand, band, id);
+        }
+        if (entry.isbn != 0) {
+            removeFrom(byIsbn, entry.isbn, id);
+        }
+    }
+
+    private static void removeFrom(Map<Long, Posting> postings, long key, long id) {
+        Posting posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(id);
+            if (posting.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Doublons probables du livre, du plus sûr au moins sûr (au plus limit), en ignorant le livre
+     * d'id excludedId (celui qu'on modifie ; null pour un ajout).
+     */
+    public List<Match> find(Book book, Long excludedId, int limit) {
+        long[] query = grams(book.getTitle(), book.getAuthor());
+        long[] bands = bands(query);
+        long isbn = isbnKey(book.getIsbn());
+        List<Match> ranked;
+        synchronized (this) {
+            ranked = find(query, bands, isbn);
+        }
+        if (excludedId != null) {
+            ranked.removeIf(match -> match.id == excludedId);
+        }
+        ranked.sort(Comparator.comparing(Match::isExact).thenComparingDouble(Match::getSimilarity).reversed());
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    private List<Match> find(long[] query, long[] bands, long isbn) {
+        Map<Long, Match> matches = new HashMap<>();
+        Posting sameIsbn = isbn == 0 ? null : byIsbn.get(isbn);
+        if (sameIsbn != null) {
+            for (int i = 0; i < sameIsbn.size; i++) {
+                long id = sameIsbn.ids[i];
+                Entry entry = entries.get(id);
+                matches.put(id, new Match(id, entry.title, entry.author, jaccard(query, entry.grams), true, true));
+            }
+        }
+
+        if (query.length > 0) {
+            for (long id : candidates(bands)) {
+                Entry entry = entries.get(id);
+                // Tailles trop différentes : la similarité ne peut pas atteindre le seuil
+                if (matches.containsKey(id) || entry.grams.length < THRESHOLD * query.length
+                        || query.length < THRESHOLD * entry.grams.length) {
+                    continue;
+                }
+                double similarity = jaccard(query, entry.grams);
+                if (similarity >= THRESHOLD) {
+                    boolean otherEdition = isbn != 0 && entry.isbn != 0;
+                    matches.put(id, new Match(id, entry.title, entry.author, similarity, false,
+                            similarity >= 1.0 && !otherEdition));
+                }
+            }
+        }
+
+        return new ArrayList<>(matches.values());
+    }
+
+    // Livres qui partagent au moins une bande avec la requête, sans doublon
+    private long[] candidates(long[] bands) {
+        int total = 0;
+        Posting[] postings = new Posting[bands.length];
+        for (int b = 0; b < bands.length; b++) {
+            postings[b] = byBand.get(bands[b]);
+            total += postings[b] == null ? 0 : postings[b].size;
+        }
+        long[] ids = new long[total];
+        int n = 0;
+        for (Posting posting : postings) {
+            if (posting != null) {
+                System.arraycopy(posting.ids, 0, ids, n, posting.size);
+                n += posting.size;
+            }
+        }
+        return sortedUnique(ids, n);
+    }
+
+    /*
+     * Signature MinHash : pour chaque fonction de hachage, le plus petit hash des trigrammes.
+     * Deux ensembles ont la même valeur avec une probabilité égale à leur similarité de Jaccard ;
+     * une bande (ROWS valeurs) est commune avec la probabilité J^ROWS.
+     */
+    private static long[] bands(long[] grams) {
+        if (grams.length == 0) {
+            return new long[0];
+        }
+        long[] bands = new long[BANDS];
+        for (int b = 0; b < BANDS; b++) {
+            long band = b;
+            for (int r = 0; r < ROWS; r++) {
+                long seed = mix(b * ROWS + r + 1);
+                long min = Long.MAX_VALUE;
+                for (long gram : grams) {
+                    min = Math.min(min, mix(gram ^ seed));
+                }
+                band = mix(band * 31 + min);
+            }
+            bands[b] = band;
+        }
+        return bands;
+    }
+
+    // Finaliseur de SplitMix64 : mélange les 64 bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Jaccard de deux ensembles triés : |A ∩ B| / |A ∪ B|
+    private static double jaccard(long[] a, long[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    // Trigrammes du titre et de l'auteur normalisés, triés et sans doublon ; trois caractères par long
+    private static long[] grams(String title, String author) {
+        String paddedTitle = padded(title);
+        String paddedAuthor = padded(author);
+        long[] grams = new long[Math.max(0, paddedTitle.length() - 2) + Math.max(0, paddedAuthor.length() - 2)];
+        int n = addGrams(grams, 0, paddedTitle, 0);
+        n = addGrams(grams, n, paddedAuthor, AUTHOR_TAG);
+        return sortedUnique(grams, n);
+    }
+
+    // Espaces aux extrémités : le début et la fin de chaque mot comptent aussi ; "" sans aucun mot
+    private static String padded(String text) {
+        List<String> tokens = TextNormalizer.tokens(text);
+        return tokens.isEmpty() ? "" : " " + String.join(" ", tokens) + " ";
+    }
+
+    private static int addGrams(long[] grams, int n, String padded, long tag) {
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams[n++] = tag | (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        return n;
+    }
+
+    private static long[] sortedUnique(long[] values, int n) {
+        Arrays.sort(values, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, unique);
+    }
+
+    /**
+     * ISBN ramené à sa forme ISBN-13 (chiffres seuls) : un ISBN-10 reçoit le préfixe 978 et une nouvelle clé.
+     * Retourne null si la valeur n'a pas la forme d'un ISBN.
+     */
+    public static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        String digits = isbn.replaceAll("[^0-9Xx]", "").toUpperCase();
+        if (digits.length() == 13 && digits.chars().allMatch(Character::isDigit)) {
+            return digits;
+        }
+        if (digits.length() != 10 || !digits.substring(0, 9).chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        String body = "978" + digits.substring(0, 9);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    // 0 si pas d'ISBN : 13 chiffres tiennent dans un long
+    private static long isbnKey(String isbn) {
+        String normalized = normalizeIsbn(isbn);
+        return normalized == null ? 0 : Long.parseLong(normalized);
+    }
+}
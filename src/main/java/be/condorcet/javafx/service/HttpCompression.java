@@ -0,0 +1,142 @@
+package be.condorcet.javafx.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+
+/**
+ * Compression des corps HTTP : Accept-Encoding gzip/deflate sur les requêtes, décompression des réponses
+ * (en flux pour le décodeur JSON) et, en option, corps de requête gzip.
+ * Chaque réponse lue enregistre ses octets reçus et décodés (PerfMetrics.recordTransfer).
+ */
+final class HttpCompression {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+    static final String IDENTITY = "identity";
+
+    // Le backend Spring Boot ne décompresse pas les requêtes par défaut : désactivé sauf -Dkrousty.http.gzipRequests=true
+    private static final boolean GZIP_REQUESTS = Boolean.getBoolean("krousty.http.gzipRequests");
+    // En dessous, l'en-tête gzip et le coût CPU ne sont pas rentables
+    private static final int MIN_COMPRESSED_REQUEST = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private HttpCompression() {
+    }
+
+    static HttpRequest.Builder acceptCompressed(HttpRequest.Builder builder) {
+        return builder.header("Accept-Encoding", ACCEPT_ENCODING);
+    }
+
+    /**
+     * Corps JSON d'une requête d'écriture, compressé en gzip si l'option est active et le corps assez gros.
+     */
+    static HttpRequest.Builder jsonBody(HttpRequest.Builder builder, String method, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        if (!GZIP_REQUESTS || bytes.length < MIN_COMPRESSED_REQUEST) {
+            return builder.method(method, HttpRequest.BodyPublishers.ofByteArray(bytes));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.header("Content-Encoding", "gzip")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(out.toByteArray()));
+    }
+
+    static String encodingOf(HttpHeaders headers) {
+        return headers.firstValue("Content-Encoding")
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .filter(value -> !value.isEmpty())
+                .orElse(IDENTITY);
+    }
+
+    static String protocolOf(HttpClient.Version version) {
+        return version == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+    }
+
+    /**
+     * Flux décompressé selon Content-Encoding : le décodeur JSON lit directement les octets inflatés,
+     * sans passer par une String intermédiaire.
+     */
+    static InputStream decode(String encoding, InputStream wire) throws IOException {
+        switch (encoding) {
+            case IDENTITY:
+                return wire;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(wire, BUFFER_SIZE);
+            case "deflate":
+                return inflate(wire);
+            default:
+                throw new IOException("Content-Encoding non supporté : " + encoding);
+        }
+    }
+
+    // "deflate" devrait être du zlib (RFC 9110), mais certains serveurs envoient du deflate brut
+    private static InputStream inflate(InputStream wire) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(wire, BUFFER_SIZE);
+        in.mark(2);
+        int cmf = in.read();
+        int flg = in.read();
+        in.reset();
+        boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        return new InflaterInputStream(in, new Inflater(!zlib), BUFFER_SIZE);
+    }
+
+    /**
+     * Équivalent de BodyHandlers.ofString() qui décompresse le corps et enregistre les octets du transfert.
+     */
+    static HttpResponse.BodyHandler<String> ofString(HttpRequest request) {
+        return info -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), wire -> {
+            String encoding = encodingOf(info.headers());
+            byte[] decoded = decodeAll(encoding, wire);
+            PerfMetrics.recordTransfer(request.method(), request.uri(), protocolOf(info.version()), encoding,
+                    wire.length, decoded.length);
+            return new String(decoded, charsetOf(info.headers()));
+        });
+    }
+
+    private static byte[] decodeAll(String encoding, byte[] wire) {
+        // Un corps vide (204, 304) n'a pas d'en-tête gzip à lire
+        if (wire.length == 0 || IDENTITY.equals(encoding)) {
+            return wire;
+        }
+        try (InputStream in = decode(encoding, new ByteArrayInputStream(wire))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Charset charsetOf(HttpHeaders headers) {
+        String contentType = headers.firstValue("Content-Type").orElse("");
+        int at = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (at < 0) {
+            return StandardCharsets.UTF_8;
+        }
+        String name = contentType.substring(at + "charset=".length()).split(";")[0].trim().replace("\"", "");
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package be.condorcet.javafx.service;
+
+import be.condorcet.javafx.model.Book;
+
+/**
+ * Écriture appliquée localement mais pas encore confirmée par le serveur, telle qu'elle est journalisée.
+ * key est l'id du livre, négatif (temporaire) pour une création ; before est l'état avant la première
+ * écriture fusionnée, celui qui est restauré si le serveur la refuse (null pour une création).
+ */
+public final class PendingWrite {
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    private final long seq;
+    private final Type type;
+    private final Long key;
+    private final Book book;
+    private final Book before;
+
+    PendingWrite(long seq, Type type, Long key, Book book, Book before) {
+        this.seq = seq;
+        this.type = type;
+        this.key = key;
+        this.book = book;
+        this.before = before;
+    }
+
+    public long getSeq() { return seq; }
+    public Type getType() { return type; }
+    public Long getKey() { return key; }
+    public Book getBook() { return book; }
+    public Book getBefore() { return before; }
+
+    /**
+     * Fusion avec l'écriture suivante sur le même livre : une seule requête part pour plusieurs modifications.
+     * Retourne null quand les deux s'annulent (création puis suppression avant envoi).
+     */
+    PendingWrite mergedWith(PendingWrite next) {
+        switch (type) {
+            case CREATE:
+                return next.type == Type.DELETE ? null : new PendingWrite(next.seq, Type.CREATE, key, next.book, null);
+            case UPDATE:
+                return new PendingWrite(next.seq, next.type, key, next.book, before);
+            default:
+                return next;
+        }
+    }
+
+    // Même écriture pour l'id attribué par le serveur à un livre créé hors ligne
+    PendingWrite withKey(Long id) {
+        return new PendingWrite(seq, type, id, withId(book, id), withId(before, id));
+    }
+
+    private static Book withId(Book book, Long id) {
+        if (book == null) {
+            return null;
+        }
+        Book copy = book.copy();
+        copy.setId(id);
+        return copy;
+    }
+}
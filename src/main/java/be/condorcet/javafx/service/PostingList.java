@@ -0,0 +1,109 @@
+package be.condorcet.javafx.service;
+
+import java.util.Arrays;
+
+/**
+ * Liste d'une clé de l'index de recherche : numéro de livre (DocIds) -> score, table à adressage ouvert
+ * sur tableaux primitifs. Une HashMap<Long, Integer> coûte une cinquantaine d'octets par entrée, celle-ci moins de dix.
+ * La suppression décale les entrées suivantes au lieu de laisser des marques : les recherches restent courtes
+ * après de nombreux remplacements.
+ */
+final class PostingList {
+
+    static final int ABSENT = -1;
+    static final int FREE = -1;
+
+    private int[] docs;
+    private byte[] scores;
+    private int count;
+
+    PostingList() {
+        allocate(2);
+    }
+
+    int size() {
+        return count;
+    }
+
+    // Parcours par case : docAt vaut FREE pour une case vide
+    int capacity() {
+        return docs.length;
+    }
+
+    int docAt(int slot) {
+        return docs[slot];
+    }
+
+    int scoreAt(int slot) {
+        return scores[slot];
+    }
+
+    // Score d'au plus 127 : 2 × ISBN_WEIGHT dans l'index
+    void put(int doc, int score) {
+        if ((count + 1) * 3 > docs.length * 2) {
+            grow();
+        }
+        int slot = slotOf(doc);
+        if (docs[slot] == FREE) {
+            docs[slot] = doc;
+            count++;
+        }
+        scores[slot] = (byte) score;
+    }
+
+    int get(int doc) {
+        int slot = slotOf(doc);
+        return docs[slot] == FREE ? ABSENT : scores[slot];
+    }
+
+    void remove(int doc) {
+        int hole = slotOf(doc);
+        if (docs[hole] == FREE) {
+            return;
+        }
+        count--;
+        int mask = docs.length - 1;
+        for (int next = (hole + 1) & mask; docs[next] != FREE; next = (next + 1) & mask) {
+            // L'entrée peut remonter dans le trou si celui-ci est entre sa case d'origine et sa case actuelle
+            int home = hash(docs[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                docs[hole] = docs[next];
+                scores[hole] = scores[next];
+                hole = next;
+            }
+        }
+        docs[hole] = FREE;
+    }
+
+    private int slotOf(int doc) {
+        int mask = docs.length - 1;
+        int slot = hash(doc) & mask;
+        while (docs[slot] != FREE && docs[slot] != doc) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldDocs = docs;
+        byte[] oldScores = scores;
+        allocate(docs.length * 2);
+        count = 0;
+        for (int i = 0; i < oldDocs.length; i++) {
+            if (oldDocs[i] != FREE) {
+                put(oldDocs[i], oldScores[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        docs = new int[capacity];
+        scores = new byte[capacity];
+        Arrays.fill(docs, FREE);
+    }
+
+    private static int hash(int doc) {
+        int h = doc * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
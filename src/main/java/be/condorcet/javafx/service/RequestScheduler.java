@@ -0,0 +1,391 @@
+package be.condorcet.javafx.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import be.condorcet.javafx.metrics.LatencyHistogram;
+import be.condorcet.javafx.metrics.PerfMetrics;
+
+/**
+ * Ordonnanceur central des requêtes HTTP, partagé par toutes les instances de BookApiService.
+ *
+ * Un seul HttpClient, exécuté sur des threads virtuels ; au plus MAX_IN_FLIGHT requêtes en vol,
+ * les écritures interactives passant avant les rechargements de fond. Les GET identiques en vol
+ * sont fusionnés, et chaque canal (ex. "catalog") a un numéro de génération : une nouvelle requête
+ * annule la précédente et les réponses périmées ne sont jamais transmises à l'interface.
+ * Le client préfère HTTP/2 (plusieurs requêtes multiplexées sur une connexion) et revient à HTTP/1.1
+ * en keep-alive si le serveur ne le propose pas ; les corps texte sont décompressés (HttpCompression).
+ *
+ * Résilience : délai de connexion et délai par requête (jusqu'aux en-têtes de la réponse) ; nouvel essai
+ * des seules méthodes idempotentes après une erreur réseau ou un 429 / 502 / 503 / 504, avec backoff
+ * exponentiel et gigue, dans la limite du délai de la requête ; un disjoncteur par serveur (CircuitBreaker).
+ * Avec -Dkrousty.http.hedge=true, un GET partagé encore sans réponse après le p95 de son endpoint est
+ * doublé, et la première réponse l'emporte.
+ */
+public final class RequestScheduler {
+
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    private static final int MAX_IN_FLIGHT = 6;
+
+    // Secondes : -Dkrousty.http.connectTimeout et -Dkrousty.http.timeout
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(Long.getLong("krousty.http.connectTimeout", 5));
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(Long.getLong("krousty.http.timeout", 15));
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final Set<Integer> RETRY_STATUSES = Set.of(429, 502, 503, 504);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MS = 200;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private static final boolean HEDGE_READS = Boolean.getBoolean("krousty.http.hedge");
+    // En dessous, le p95 de l'endpoint n'est pas significatif : pas de requête doublée
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    private static final long MIN_HEDGE_DELAY_MS = 20;
+
+    private static final RequestScheduler SHARED = new RequestScheduler(MAX_IN_FLIGHT);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(executor)
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+
+    private final PriorityBlockingQueue<Task<?>> queue = new PriorityBlockingQueue<>();
+    private final Semaphore permits;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, CompletableFuture<HttpResponse<String>>> sharedGets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<?>> latestByChannel = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private RequestScheduler(int maxInFlight) {
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    public static RequestScheduler shared() {
+        return SHARED;
+    }
+
+    // Ordonnanceur indépendant, avec son propre client HTTP et ses connexions
+    public static RequestScheduler create() {
+        return new RequestScheduler(MAX_IN_FLIGHT);
+    }
+
+    public HttpClient client() {
+        return client;
+    }
+
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    // Disjoncteur du serveur (schéma, hôte et port) de l'URI
+    public CircuitBreaker breaker(URI uri) {
+        return breakers.computeIfAbsent(serverOf(uri), CircuitBreaker::new);
+    }
+
+    private static String serverOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> submit(HttpRequest request, HttpResponse.BodyHandler<T> handler, Priority priority) {
+        Task<T> task = new Task<>(withTimeout(request), handler, priority, sequence.incrementAndGet());
+        queue.add(task);
+        drain();
+        return task.result;
+    }
+
+    // GET à corps texte (décompressé) : deux demandes identiques en vol partagent la même réponse
+    public CompletableFuture<HttpResponse<String>> submitShared(HttpRequest request, Priority priority) {
+        String key = request.method() + " " + request.uri() + " " + request.headers().map();
+        CompletableFuture<HttpResponse<String>> created = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<String>> existing = sharedGets.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing.thenApply(resp -> resp);
+        }
+        sendHedged(request, priority).whenComplete((resp, ex) -> {
+            sharedGets.remove(key, created);
+            if (ex != null) {
+                created.completeExceptionally(ex);
+            } else {
+                created.complete(resp);
+            }
+        });
+        return created.thenApply(resp -> resp);
+    }
+
+    private static HttpRequest withTimeout(HttpRequest request) {
+        if (request.timeout().isPresent()) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true).timeout(REQUEST_TIMEOUT).build();
+    }
+
+    /**
+     * Requête doublée si elle n'a pas répondu après le p95 de son endpoint, sauf disjoncteur non fermé
+     * ou requêtes en attente (serveur ou client déjà chargés) ; la réponse perdante est annulée.
+     */
+    private CompletableFuture<HttpResponse<String>> sendHedged(HttpRequest request, Priority priority) {
+        CompletableFuture<HttpResponse<String>> primary = submit(request, HttpCompression.ofString(request), priority);
+        long delay = HEDGE_READS ? hedgeDelayMillis(request) : -1;
+        if (delay < 0) {
+            return primary;
+        }
+        CompletableFuture<HttpResponse<String>> first = new CompletableFuture<>();
+        // Requêtes encore capables de fournir la réponse : la dernière à échouer transmet son erreur
+        AtomicInteger outstanding = new AtomicInteger(1);
+        settle(primary, first, outstanding, false);
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute(() -> {
+            if (first.isDone() || breaker(request.uri()).getState() != CircuitBreaker.State.CLOSED || !queue.isEmpty()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            PerfMetrics.counter("lectures doublées").increment();
+            CompletableFuture<HttpResponse<String>> hedge = submit(request, HttpCompression.ofString(request), priority);
+            settle(hedge, first, outstanding, true);
+            first.whenComplete((resp, ex) -> hedge.cancel(true));
+        });
+        first.whenComplete((resp, ex) -> primary.cancel(true));
+        return first;
+    }
+
+    private static void settle(CompletableFuture<HttpResponse<String>> attempt, CompletableFuture<HttpResponse<String>> first,
+                               AtomicInteger outstanding, boolean hedge) {
+        attempt.whenComplete((resp, ex) -> {
+            if (ex == null) {
+                if (first.complete(resp) && hedge) {
+                    PerfMetrics.counter("lectures doublées gagnantes").increment();
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                first.completeExceptionally(ex);
+            }
+        });
+    }
+
+    private static long hedgeDelayMillis(HttpRequest request) {
+        LatencyHistogram latencies = PerfMetrics.histogram("http " + request.method() + " " + PerfMetrics.endpointOf(request.uri()));
+        if (latencies.getCount() < HEDGE_MIN_SAMPLES) {
+            return -1;
+        }
+        return Math.max(MIN_HEDGE_DELAY_MS, latencies.percentile(95) / 1000);
+    }
+
+    public long nextGeneration(String channel) {
+        return generations.computeIfAbsent(channel, c -> new AtomicLong()).incrementAndGet();
+    }
+
+    public boolean isCurrent(String channel, long generation) {
+        AtomicLong current = generations.get(channel);
+        return current != null && current.get() == generation;
+    }
+
+    /**
+     * Requête la plus récente d'un canal : la précédente est annulée (ou ignorée si elle est déjà terminée),
+     * et le résultat échoue avec CancellationException s'il est devenu périmé entre-temps.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> submitLatest(String channel, long generation, HttpRequest request,
+                                                               HttpResponse.BodyHandler<T> handler, Priority priority) {
+        CompletableFuture<HttpResponse<T>> future = submit(request, handler, priority);
+        CompletableFuture<?> previous = latestByChannel.put(channel, future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        return future.thenApply(resp -> {
+            if (!isCurrent(channel, generation)) {
+                throw new CancellationException("Réponse périmée (" + channel + ")");
+            }
+            return resp;
+        });
+    }
+
+    public static boolean isCancellation(Throwable ex) {
+        Throwable t = ex;
+        while (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t instanceof CancellationException;
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            Task<?> task = queue.poll();
+            if (task == null) {
+                permits.release();
+                continue;
+            }
+            task.start();
+        }
+    }
+
+    private final class Task<T> implements Comparable<Task<?>> {
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<T> handler;
+        private final Priority priority;
+        private final long seq;
+        private final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        // Mise en file, remise à zéro à chaque nouvel essai : l'attente mesurée inclut le backoff
+        private long queuedAtNanos = System.nanoTime();
+        private long firstStartNanos;
+        private int attempt;
+
+        private Task(HttpRequest request, HttpResponse.BodyHandler<T> handler, Priority priority, long seq) {
+            this.request = request;
+            this.handler = handler;
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        private void start() {
+            if (result.isDone()) {
+                // Annulée pendant l'attente dans la file
+                release();
+                return;
+            }
+            CircuitBreaker breaker = breaker(request.uri());
+            if (!breaker.tryAcquire()) {
+                release();
+                result.completeExceptionally(new CircuitOpenException(serverOf(request.uri()), breaker.remainingMillis()));
+                return;
+            }
+            long startNanos = System.nanoTime();
+            if (attempt++ == 0) {
+                firstStartNanos = startNanos;
+            }
+            CompletableFuture<HttpResponse<T>> inner = client.sendAsync(request, handler);
+            result.whenComplete((resp, ex) -> {
+                if (result.isCancelled()) {
+                    inner.cancel(true);
+                }
+            });
+            inner.whenComplete((resp, ex) -> {
+                release();
+                if (ex != null && isCancellation(ex)) {
+                    breaker.onCancelled();
+                } else if (isServerFailure(resp, ex)) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onSuccess();
+                }
+                if (ex != null && !isCancellation(ex)) {
+                    PerfMetrics.recordError(request.method(), request.uri(), ex);
+                } else if (resp != null) {
+                    // Octets reçus et décodés : enregistrés à la lecture du corps (HttpCompression)
+                    PerfMetrics.recordHttp(request.method(), request.uri(), resp.statusCode(),
+                            startNanos - queuedAtNanos, System.nanoTime() - startNanos);
+                }
+                long delay = result.isDone() || (ex != null && isCancellation(ex)) ? -1 : retryDelayMillis(resp, ex);
+                if (delay >= 0) {
+                    discard(resp);
+                    PerfMetrics.recordRetry(request.method(), request.uri());
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute(() -> {
+                        queuedAtNanos = System.nanoTime();
+                        queue.add(this);
+                        drain();
+                    });
+                } else if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(resp);
+                }
+            });
+        }
+
+        // -1 : pas de nouvel essai (méthode non idempotente, erreur définitive, essais ou délai épuisés)
+        private long retryDelayMillis(HttpResponse<T> resp, Throwable ex) {
+            if (attempt >= MAX_ATTEMPTS || !IDEMPOTENT_METHODS.contains(request.method())) {
+                return -1;
+            }
+            boolean retryable = ex != null
+                    ? ApiErrors.unwrap(ex) instanceof IOException
+                    : RETRY_STATUSES.contains(resp.statusCode());
+            if (!retryable) {
+                return -1;
+            }
+            long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 1));
+            long delay = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+            long retryAfter = resp == null ? -1 : retryAfterMillis(resp, MAX_BACKOFF_MS);
+            if (retryAfter >= 0) {
+                delay = retryAfter;
+            }
+            long elapsed = (System.nanoTime() - firstStartNanos) / 1_000_000;
+            return elapsed + delay < REQUEST_TIMEOUT.toMillis() ? delay : -1;
+        }
+
+        private void release() {
+            permits.release();
+            drain();
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+
+    // Erreur réseau, délai dépassé ou 5xx : comptés par le disjoncteur (un 501 dit seulement que l'endpoint n'existe pas)
+    private static boolean isServerFailure(HttpResponse<?> resp, Throwable ex) {
+        if (ex != null) {
+            return ApiErrors.unwrap(ex) instanceof IOException;
+        }
+        return resp.statusCode() >= 500 && resp.statusCode() != 501;
+    }
+
+    // Délai demandé par l'en-tête Retry-After (secondes ou date HTTP), plafonné à max ; -1 sans en-tête lisible
+    static long retryAfterMillis(HttpResponse<?> resp, long max) {
+        String value = resp.headers().firstValue("Retry-After").map(String::trim).orElse(null);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.min(max, Math.max(0, Long.parseLong(value)) * 1000);
+        } catch (NumberFormatException e) {
+            // Forme date : "Wed, 21 Oct 2015 07:28:00 GMT"
+        }
+        try {
+            long at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.min(max, Math.max(0, at - System.currentTimeMillis()));
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    // Réponse abandonnée avant un nouvel essai : un corps en flux doit être fermé pour libérer la connexion
+    private static void discard(HttpResponse<?> resp) {
+        if (resp != null && resp.body() instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) resp.body()).close();
+            } catch (Exception ignored) {
+                // Connexion déjà perdue
+            }
+        }
+    }
+}
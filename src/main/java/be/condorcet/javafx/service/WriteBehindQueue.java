@@ -0,0 +1,499 @@
+package be.condorcet.javafx.service;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.BookCatalog;
+
+/**
+ * Écritures optimistes : l'ajout, la modification ou la suppression est journalisé sur disque (WriteJournal)
+ * puis appliqué tout de suite au catalogue local ; un envoi en arrière-plan les transmet au serveur par lots.
+ * Les écritures successives sur un même livre sont fusionnées tant qu'elles n'ont pas été envoyées
+ * (création + modifications = une création, création + suppression = rien), et un livre n'a jamais
+ * plus d'une requête en vol, ce qui garde l'ordre de ses écritures.
+ * Serveur injoignable (erreur réseau, 408, 429, 5xx) : l'écriture reste dans le journal et repart plus tard,
+ * y compris après un redémarrage. Une création (POST, non idempotente) n'est renvoyée telle quelle que si la
+ * requête n'est pas partie ou a été refusée d'emblée (429, 503) ; après un délai de réponse ou une autre erreur,
+ * le serveur a pu l'enregistrer : son catalogue est relu et le livre retrouvé vaut confirmation.
+ * Identifiants refusés (401, 403) : rien n'est abandonné, les envois sont
+ * suspendus jusqu'à une nouvelle connexion. Refus du serveur (autre 4xx) : l'écriture est abandonnée et le
+ * listener restaure l'état précédent.
+ * Le journal est propre à l'utilisateur et au serveur (BookApiService.getUserDirectory).
+ */
+public class WriteBehindQueue {
+
+    public interface Listener {
+        // Livre créé : l'id temporaire est remplacé par le livre enregistré (null si le serveur ne l'a pas renvoyé)
+        void onCreated(Long tempId, Book saved);
+
+        // Écriture refusée : l'état local doit revenir à write.getBefore() (retirer le livre pour une création)
+        void onRejected(PendingWrite write, int status);
+
+        // Écritures pas encore confirmées ; offline = le dernier envoi a échoué, nouvel essai programmé
+        void onBacklog(int pending, boolean offline);
+
+        // 401/403 : envois suspendus, les écritures restent dans le journal jusqu'à une nouvelle connexion
+        void onUnauthorized(int status);
+    }
+
+    private static final String JOURNAL_FILE = "writes.jsonl";
+    // -Dkrousty.writes.delay=300 (ms) : les modifications rapprochées d'un même livre partent en une requête
+    private static final long COALESCE_DELAY_MILLIS = Long.getLong("krousty.writes.delay", 300);
+    private static final int MAX_BATCH = 50;
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private static final System.Logger LOG = System.getLogger(WriteBehindQueue.class.getName());
+
+    private final BookApiService api;
+    private final WriteJournal journal;
+    private final Listener listener;
+
+    // Écritures pas encore envoyées, au plus une par livre (fusionnées)
+    private final Map<Long, PendingWrite> queued = new LinkedHashMap<>();
+    private final Map<Long, PendingWrite> inFlight = new HashMap<>();
+    private long nextSeq = 1;
+    private long nextTempId = -1;
+    private boolean started;
+    private boolean flushScheduled;
+    private boolean offline;
+    private boolean paused;
+    private long backoff = MIN_BACKOFF_MILLIS;
+
+    public WriteBehindQueue(BookApiService api, Listener listener) {
+        this(api, api.getUserDirectory().resolve(JOURNAL_FILE), listener);
+    }
+
+    // Relit le journal : les écritures d'une session précédente repartent au prochain start()
+    public WriteBehindQueue(BookApiService api, Path journalFile, Listener listener) {
+        this.api = api;
+        this.journal = new WriteJournal(journalFile);
+        this.listener = listener;
+        try {
+            List<PendingWrite> writes = journal.load();
+            boolean merged = false;
+            for (PendingWrite write : writes) {
+                // Une écriture en vol lors de l'arrêt et celle qui la suivait : de nouveau fusionnables
+                PendingWrite previous = queued.remove(write.getKey());
+                PendingWrite current = previous == null ? write : previous.mergedWith(write);
+                merged |= previous != null;
+                if (current != null) {
+                    queued.put(current.getKey(), current);
+                }
+                nextSeq = Math.max(nextSeq, write.getSeq() + 1);
+                nextTempId = Math.min(nextTempId, write.getKey() - 1);
+            }
+            if (merged) {
+                journal.rewrite(queued.values());
+            }
+            if (!queued.isEmpty()) {
+                LOG.log(System.Logger.Level.INFO, queued.size() + " écriture(s) en attente reprise(s) du journal");
+            }
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Lecture du journal des écritures impossible", e);
+        }
+    }
+
+    // Id négatif d'un livre créé localement, remplacé par celui du serveur à la confirmation
+    public synchronized Long nextTempId() {
+        return nextTempId--;
+    }
+
+    /**
+     * Journalise l'écriture, à appeler avant de l'appliquer au catalogue local.
+     * IOException : le journal n'a pas pu être écrit, l'écriture ne doit pas être appliquée.
+     */
+    public void create(Book book) throws IOException {
+        enqueue(PendingWrite.Type.CREATE, book.getId(), book.copy(), null);
+    }
+
+    public void update(Book before, Book after) throws IOException {
+        enqueue(PendingWrite.Type.UPDATE, after.getId(), after.copy(), before.copy());
+    }
+
+    public void delete(Book before) throws IOException {
+        enqueue(PendingWrite.Type.DELETE, before.getId(), before.copy(), before.copy());
+    }
+
+    public synchronized int getPendingCount() {
+        return queued.size() + inFlight.size();
+    }
+
+    public synchronized boolean isOffline() {
+        return offline;
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Réapplique les écritures non confirmées au catalogue, après un chargement ou des changements venus
+     * du serveur qui les ont écrasées. Retourne le nombre d'écritures appliquées.
+     */
+    public int applyTo(BookCatalog catalog) {
+        List<PendingWrite> writes;
+        synchronized (this) {
+            writes = new ArrayList<>(inFlight.values());
+            writes.addAll(queued.values());
+        }
+        writes.sort(Comparator.comparingLong(PendingWrite::getSeq));
+        int applied = 0;
+        for (PendingWrite write : writes) {
+            boolean changed;
+            switch (write.getType()) {
+                case CREATE:
+                    Book current = catalog.get(write.getKey());
+                    changed = current == null ? catalog.applyCreated(write.getBook().copy())
+                            : !current.hasSameContent(write.getBook()) && catalog.applyUpdated(write.getBook().copy());
+                    break;
+                case UPDATE:
+                    Book existing = catalog.get(write.getKey());
+                    changed = existing != null && !existing.hasSameContent(write.getBook())
+                            && catalog.applyUpdated(write.getBook().copy());
+                    break;
+                default:
+                    changed = catalog.applyDeleted(write.getKey());
+                    break;
+            }
+            if (changed) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    // Démarre les envois, après le premier chargement du catalogue
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        notifyBacklog();
+        scheduleFlush(0);
+    }
+
+    // Les écritures restantes restent dans le journal pour la prochaine session
+    public synchronized void stop() {
+        started = false;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.DEBUG, "Fermeture du journal des écritures", e);
+        }
+    }
+
+    private synchronized void enqueue(PendingWrite.Type type, Long key, Book book, Book before) throws IOException {
+        PendingWrite write = new PendingWrite(nextSeq++, type, key, book, before);
+        PendingWrite previous = queued.get(key);
+        PendingWrite merged = previous == null ? write : previous.mergedWith(write);
+        // Nouvelle écriture d'abord : un arrêt entre les deux lignes laisse deux écritures que load() refusionne
+        if (merged != null) {
+            journal.append(merged);
+        }
+        if (previous != null) {
+            journal.remove(previous.getSeq());
+        }
+        if (merged != null) {
+            queued.put(key, merged);
+        } else {
+            queued.remove(key);
+        }
+        PerfMetrics.counter("écritures : locales").increment();
+        if (previous != null) {
+            PerfMetrics.counter("écritures : fusionnées").increment();
+        }
+        notifyBacklog();
+        scheduleFlush(COALESCE_DELAY_MILLIS);
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (!started || paused || flushScheduled || queued.isEmpty()) {
+            return;
+        }
+        flushScheduled = true;
+        CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(this::flush);
+    }
+
+    private void flush() {
+        List<PendingWrite> batch = new ArrayList<>();
+        synchronized (this) {
+            flushScheduled = false;
+            if (!started) {
+                return;
+            }
+            Iterator<PendingWrite> it = queued.values().iterator();
+            while (it.hasNext() && batch.size() < MAX_BATCH) {
+                PendingWrite write = it.next();
+                // Une seule requête en vol par livre : la suivante attend la réponse (et l'id d'une création)
+                if (!inFlight.containsKey(write.getKey())) {
+                    it.remove();
+                    inFlight.put(write.getKey(), write);
+                    batch.add(write);
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[batch.size()];
+        for (int i = 0; i < sends.length; i++) {
+            sends[i] = send(batch.get(i));
+        }
+        CompletableFuture.allOf(sends).whenComplete((v, ex) -> afterBatch());
+    }
+
+    private synchronized void afterBatch() {
+        if (offline) {
+            long delay = backoff;
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            scheduleFlush(delay);
+        } else {
+            scheduleFlush(0);
+        }
+    }
+
+    private CompletableFuture<Void> send(PendingWrite write) {
+        CompletableFuture<HttpResponse<String>> request;
+        Book sent = write.getBook().copy();
+        switch (write.getType()) {
+            case CREATE:
+                // L'id temporaire ne part pas au serveur
+                sent.setId(null);
+                request = api.createBookAsync(sent);
+                break;
+            case UPDATE:
+                // Seuls les champs changés depuis l'état d'avant partent (PATCH) ; modification annulée : rien à envoyer
+                Book changes = write.getBook().changesSince(write.getBefore());
+                if (!changes.isDirty()) {
+                    succeeded(write, null);
+                    return CompletableFuture.completedFuture(null);
+                }
+                request = api.patchBookAsync(changes);
+                break;
+            default:
+                request = api.deleteBookAsync(write.getKey());
+                break;
+        }
+        return request.handle((resp, ex) -> {
+            handleResponse(write, sent, resp, ex);
+            return null;
+        });
+    }
+
+    private void handleResponse(PendingWrite write, Book sent, HttpResponse<String> resp, Throwable ex) {
+        int status = resp == null ? 0 : resp.statusCode();
+        if (ex != null || isTransient(status)) {
+            String reason = ex != null ? String.valueOf(ex.getMessage()) : "HTTP " + status;
+            boolean refused = ex != null ? ApiErrors.neverSent(ex) : status == 429 || status == 503;
+            if (write.getType() == PendingWrite.Type.CREATE && !refused) {
+                verifyCreate(write, sent, reason);
+            } else {
+                retry(write, reason);
+            }
+        } else if (status == 401 || status == 403) {
+            unauthorized(write, status);
+        } else if (status >= 200 && status < 300 || write.getType() == PendingWrite.Type.DELETE && status == 404) {
+            // Supprimer un livre déjà absent : l'état voulu est atteint
+            succeeded(write, write.getType() == PendingWrite.Type.CREATE ? api.resolveSavedBook(resp, sent) : null);
+        } else {
+            rejected(write, status);
+        }
+    }
+
+    /**
+     * Création peut-être enregistrée sans que la réponse arrive : elle reste en vol (les écritures suivantes
+     * du livre attendent), le catalogue du serveur est relu après le délai courant, puis le livre retrouvé
+     * confirme la création ; absent, il est envoyé de nouveau.
+     */
+    private void verifyCreate(PendingWrite write, Book sent, String reason) {
+        long delay;
+        synchronized (this) {
+            if (!offline) {
+                LOG.log(System.Logger.Level.WARNING, "Création sans réponse (" + reason + ") : vérification"
+                        + " sur le serveur avant tout nouvel envoi");
+            }
+            offline = true;
+            delay = backoff;
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            notifyBacklog();
+        }
+        PerfMetrics.counter("écritures : créations à vérifier").increment();
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            // Arrêtée entre-temps : l'écriture reste dans le journal
+            if (!isStarted()) {
+                return;
+            }
+            api.findCreatedAsync(sent).whenComplete((stored, ex) -> {
+                if (ex != null) {
+                    verifyCreate(write, sent, String.valueOf(ex.getMessage()));
+                } else if (stored != null) {
+                    PerfMetrics.counter("écritures : créations retrouvées").increment();
+                    succeeded(write, stored);
+                } else {
+                    api.createBookAsync(sent).whenComplete((resp, sendEx) -> handleResponse(write, sent, resp, sendEx));
+                }
+            });
+        });
+    }
+
+    private static boolean isTransient(int status) {
+        return status == 408 || status == 425 || status == 429 || status >= 500;
+    }
+
+    private void succeeded(PendingWrite write, Book saved) {
+        Book displayed = saved;
+        synchronized (this) {
+            inFlight.remove(write.getKey());
+            offline = false;
+            backoff = MIN_BACKOFF_MILLIS;
+            if (saved != null && saved.getId() != null) {
+                // Les écritures faites pendant la création visent l'id temporaire : elles passent à l'id serveur
+                PendingWrite follow = queued.remove(write.getKey());
+                if (follow != null) {
+                    PendingWrite rekeyed = follow.withKey(saved.getId());
+                    journalAppend(rekeyed);
+                    queued.put(rekeyed.getKey(), rekeyed);
+                    if (rekeyed.getType() != PendingWrite.Type.DELETE) {
+                        displayed = rekeyed.getBook().copy();
+                    }
+                }
+            }
+            journalRemove(write.getSeq());
+            compactJournal();
+            notifyBacklog();
+        }
+        PerfMetrics.counter("écritures : confirmées").increment();
+        if (write.getType() == PendingWrite.Type.CREATE) {
+            Book created = displayed;
+            PerfMetrics.runLater(() -> {
+                if (isStarted()) {
+                    listener.onCreated(write.getKey(), created);
+                }
+            });
+        }
+    }
+
+    private void retry(PendingWrite write, String reason) {
+        synchronized (this) {
+            requeue(write);
+            if (!offline) {
+                LOG.log(System.Logger.Level.WARNING, "Serveur injoignable (" + reason + ") : "
+                        + getPendingCount() + " écriture(s) gardée(s) dans le journal");
+            }
+            offline = true;
+            notifyBacklog();
+        }
+        PerfMetrics.counter("écritures : nouveaux essais").increment();
+    }
+
+    // Identifiants refusés : l'écriture n'est pas abandonnée (mot de passe changé, session expirée)
+    private void unauthorized(PendingWrite write, int status) {
+        boolean first;
+        synchronized (this) {
+            requeue(write);
+            first = !paused;
+            paused = true;
+            notifyBacklog();
+        }
+        if (first) {
+            LOG.log(System.Logger.Level.WARNING, "Identifiants refusés (HTTP " + status + ") : envois suspendus, "
+                    + getPendingCount() + " écriture(s) gardée(s) dans le journal");
+            PerfMetrics.runLater(() -> {
+                if (isStarted()) {
+                    listener.onUnauthorized(status);
+                }
+            });
+        }
+    }
+
+    // Remet l'écriture en file, fusionnée avec celle qui l'a suivie sur le même livre pendant l'envoi
+    private void requeue(PendingWrite write) {
+        inFlight.remove(write.getKey());
+        PendingWrite follow = queued.remove(write.getKey());
+        PendingWrite merged = follow == null ? write : write.mergedWith(follow);
+        if (follow != null) {
+            if (merged != null) {
+                journalAppend(merged);
+            } else {
+                journalRemove(follow.getSeq());
+            }
+            journalRemove(write.getSeq());
+        }
+        if (merged != null) {
+            queued.put(merged.getKey(), merged);
+        }
+    }
+
+    // Les écritures qui suivaient sur le même livre dépendaient de celle-ci : elles sont abandonnées aussi
+    private void rejected(PendingWrite write, int status) {
+        synchronized (this) {
+            inFlight.remove(write.getKey());
+            PendingWrite follow = queued.remove(write.getKey());
+            if (follow != null) {
+                journalRemove(follow.getSeq());
+            }
+            journalRemove(write.getSeq());
+            compactJournal();
+            notifyBacklog();
+        }
+        LOG.log(System.Logger.Level.WARNING, "Écriture " + write.getType() + " du livre " + write.getKey()
+                + " refusée : HTTP " + status);
+        PerfMetrics.counter("écritures : refusées").increment();
+        PerfMetrics.runLater(() -> {
+            if (isStarted()) {
+                listener.onRejected(write, status);
+            }
+        });
+    }
+
+    private synchronized boolean isStarted() {
+        return started;
+    }
+
+    // Après l'envoi, un journal non mis à jour n'est pas grave : au pire une écriture confirmée repartira
+    private void journalAppend(PendingWrite write) {
+        try {
+            journal.append(write);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Écriture du journal impossible", e);
+        }
+    }
+
+    private void journalRemove(long seq) {
+        try {
+            journal.remove(seq);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Écriture du journal impossible", e);
+        }
+    }
+
+    private void compactJournal() {
+        List<PendingWrite> live = new ArrayList<>(inFlight.values());
+        live.addAll(queued.values());
+        live.sort(Comparator.comparingLong(PendingWrite::getSeq));
+        try {
+            journal.compact(live);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Compactage du journal impossible", e);
+        }
+    }
+
+    private void notifyBacklog() {
+        int pending = getPendingCount();
+        boolean down = offline;
+        PerfMetrics.runLater(() -> listener.onBacklog(pending, down));
+    }
+}
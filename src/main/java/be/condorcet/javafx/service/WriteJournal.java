@@ -0,0 +1,144 @@
+package be.condorcet.javafx.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Journal sur disque des écritures en attente (JSON lines), écrit avant tout envoi au serveur.
+ * Chaque ligne ajoute une écriture ({"write": ...}) ou en retire une ({"done": seq}) ; la relecture
+ * rejoue les lignes dans l'ordre. Chaque ajout est forcé sur disque : une écriture acceptée survit
+ * à un arrêt brutal de l'application.
+ */
+final class WriteJournal {
+
+    // Au-delà, le journal est réécrit avec les seules écritures encore en attente
+    private static final int COMPACT_LINES = 1000;
+
+    private static final System.Logger LOG = System.getLogger(WriteJournal.class.getName());
+
+    private final Path file;
+    private final Gson gson = new Gson();
+    private FileChannel channel;
+    private int lines;
+
+    private static final class Line {
+        PendingWrite write;
+        Long done;
+    }
+
+    WriteJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Écritures encore en attente, dans l'ordre où elles ont été faites.
+     * Une dernière ligne tronquée (arrêt pendant l'écriture) est ignorée.
+     */
+    synchronized List<PendingWrite> load() throws IOException {
+        Map<Long, PendingWrite> live = new LinkedHashMap<>();
+        lines = 0;
+        if (Files.isRegularFile(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String text;
+                while ((text = reader.readLine()) != null) {
+                    if (text.isBlank()) {
+                        continue;
+                    }
+                    lines++;
+                    Line line;
+                    try {
+                        line = gson.fromJson(text, Line.class);
+                    } catch (JsonParseException e) {
+                        LOG.log(System.Logger.Level.WARNING, "Ligne illisible ignorée dans " + file, e);
+                        continue;
+                    }
+                    if (line == null) {
+                        continue;
+                    }
+                    if (line.write != null) {
+                        live.put(line.write.getSeq(), line.write);
+                    } else if (line.done != null) {
+                        live.remove(line.done);
+                    }
+                }
+            }
+        }
+        List<PendingWrite> writes = new ArrayList<>(live.values());
+        writes.sort(Comparator.comparingLong(PendingWrite::getSeq));
+        return writes;
+    }
+
+    synchronized void append(PendingWrite write) throws IOException {
+        Line line = new Line();
+        line.write = write;
+        appendLine(line);
+    }
+
+    synchronized void remove(long seq) throws IOException {
+        Line line = new Line();
+        line.done = seq;
+        appendLine(line);
+    }
+
+    // Repart d'un journal vide quand plus rien n'est en attente, ou quand il devient trop long
+    synchronized void compact(Collection<PendingWrite> live) throws IOException {
+        if (lines >= COMPACT_LINES || live.isEmpty() && lines > 0) {
+            rewrite(live);
+        }
+    }
+
+    // Réécrit le journal avec les seules écritures données, en remplaçant le fichier d'un coup
+    synchronized void rewrite(Collection<PendingWrite> live) throws IOException {
+        close();
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "writes", ".tmp");
+        StringBuilder text = new StringBuilder();
+        for (PendingWrite write : live) {
+            Line line = new Line();
+            line.write = write;
+            text.append(gson.toJson(line)).append('\n');
+        }
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            out.write(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8)));
+            out.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lines = live.size();
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void appendLine(Line line) throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap((gson.toJson(line) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+        lines++;
+    }
+}
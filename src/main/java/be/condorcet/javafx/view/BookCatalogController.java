@@ -1,30 +1,45 @@
 package be.condorcet.javafx.view;
 
-import java.net.URI;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
-import com.google.gson.Gson;
-
-import be.condorcet.javafx.App;
+import be.condorcet.javafx.metrics.PerfMetrics;
 import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.BookCatalog;
+import be.condorcet.javafx.model.ColumnarBookCatalog;
 import be.condorcet.javafx.service.BookApiService;
-import javafx.application.Platform;
+import be.condorcet.javafx.service.BookImporter;
+import be.condorcet.javafx.service.BookSearchIndex;
+import be.condorcet.javafx.service.CatalogSync;
+import be.condorcet.javafx.service.CoverImageCache;
+import be.condorcet.javafx.service.DuplicateIndex;
+import be.condorcet.javafx.service.PendingWrite;
+import be.condorcet.javafx.service.WriteBehindQueue;
+import javafx.animation.PauseTransition;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.geometry.Insets;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.HBox;
-import javafx.scene.layout.VBox;
-import javafx.stage.Modality;
-import javafx.stage.Stage;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Region;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 
 public class BookCatalogController {
 
     @FXML private Label titleLabel;
-    @FXML private ListView<Book> bookListView;
+    // Livres, en-têtes de genre (GenreHeader) et emplacements vides du mode paginé
+    @FXML private ListView<Object> bookListView;
+    @FXML private TextField searchField;
+    @FXML private ComboBox<String> sortBox;
+    @FXML private CheckBox groupByGenreBox;
     @FXML private TextField titleField;
     @FXML private TextField authorField;
     @FXML private TextField isbnField;
@@ -32,141 +47,462 @@ public class BookCatalogController {
     @FXML private TextField imageUrlField;
     @FXML private TextArea synopsisArea;
     @FXML private Button addButton;
+    @FXML private Button importButton;
     @FXML private Label messageLabel;
+    @FXML private Label duplicateLabel;
+    @FXML private Label statsLabel;
+    @FXML private TitledPane inventoryPane;
+    @FXML private Label inventoryLabel;
 
     private BookApiService apiService;
-    private final Gson gson = new Gson();
+    private final BookCatalog catalog = COLUMNAR_STORE ? new ColumnarBookCatalog() : new BookCatalog();
+    private CoverImageCache coverCache;
+    // Recherche : index inversé, résultats classés par pertinence affichés dans bookListView
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(150));
+    // Doublons probables signalés pendant la saisie (formulaires d'ajout et de modification) et à l'import
+    private final DuplicateIndex duplicateIndex = new DuplicateIndex();
+    private final PauseTransition duplicateDebounce = new PauseTransition(Duration.millis(150));
+    private final ObservableList<Book> searchResults = FXCollections.observableArrayList();
+    private boolean searchActive;
+    // Tri par titre / auteur et groupement par genre, hors recherche
+    private SortedCatalogView sortedView;
+    // Indicateurs d'inventaire, suivis seulement quand le panneau est ouvert
+    private InventoryPanel inventoryPanel;
+    // Sens du défilement, déduit des index rendus successivement, pour précharger les couvertures
+    private int lastRenderedIndex = -1;
+    // Serveur injoignable : copie locale affichée, import désactivé (les autres écritures sont journalisées)
+    private final BooleanProperty readOnly = new SimpleBooleanProperty(false);
+    // Identifiants acceptés par le serveur dans cette session : sans cela rien n'est journalisé ni envoyé,
+    // sinon des modifications faites hors ligne sous un nom quelconque partiraient avec le compte suivant
+    private final BooleanProperty verified = new SimpleBooleanProperty(false);
+    private final CatalogLoader loader = new CatalogLoader(catalog, new CatalogLoader.Listener() {
+        @Override
+        public void onProgress(String message) {
+            messageLabel.setText(message);
+        }
 
-    private static final String PLACEHOLDER_IMAGE = "https://via.placeholder.com/300x450?text=No+Image";
+        @Override
+        public void onLoaded(String message) {
+            // Session ouverte hors ligne : le catalogue se met à jour mais reste en lecture seule
+            readOnly.set(!verified.get());
+            showLoaded(message);
+            startWrites();
+            saveSnapshot();
+            startSync();
+        }
+
+        @Override
+        public void onFailed(String error) {
+            if (catalog.size() > 0) {
+                readOnly.set(true);
+                // Identifiants déjà vérifiés : les modifications sont journalisées et partiront au retour du serveur
+                startWrites();
+                showError(error + " : copie locale (" + catalog.size() + " livres), "
+                        + (verified.get() ? "modifications envoyées plus tard" : "lecture seule"));
+            } else {
+                showError(error);
+            }
+        }
+    });
+
+    private static final String PLACEHOLDER_IMAGE = BookListCell.PLACEHOLDER_IMAGE;
+    private static final String SORT_SOURCE = "Ordre du serveur";
+    private static final String SORT_TITLE = "Titre";
+    private static final String SORT_AUTHOR = "Auteur";
+    private static final int PREFETCH_ROWS = 6;
+    private static final int MAX_DUPLICATE_HINTS = 3;
+    // Mode paginé (défilement infini) : -Dkrousty.paged=true [-Dkrousty.pageSize=100]
+    private static final boolean PAGED_MODE = Boolean.getBoolean("krousty.paged");
+    private static final int PAGE_SIZE = Integer.getInteger("krousty.pageSize", 100);
+    // Stockage en colonnes pour les très gros catalogues : -Dkrousty.store=columnar
+    private static final boolean COLUMNAR_STORE = "columnar".equals(System.getProperty("krousty.store"));
+
+    // Synchronisation incrémentale après le premier chargement complet, sauf -Dkrousty.sync=false
+    private static final boolean SYNC_ENABLED = !"false".equals(System.getProperty("krousty.sync"));
+
+    private PagedBookSource pagedSource;
+    private CatalogSync catalogSync;
+    // Écritures optimistes : appliquées tout de suite, envoyées en arrière-plan
+    private WriteBehindQueue writes;
+    private boolean writesOffline;
+    private BookEditDialog editDialog;
+    private StatsOverlay statsOverlay;
+    // Fourni par App : la déconnexion réaffiche le formulaire de connexion sans recharger la vue
+    private Runnable onLogout = () -> { };
 
     public void setApiService(BookApiService apiService) {
         this.apiService = apiService;
+        verified.set(false);
+        if (coverCache == null) {
+            this.coverCache = new CoverImageCache(apiService.getScheduler(), BookListCell.COVER_WIDTH, BookListCell.COVER_HEIGHT);
+        }
+        if (writes != null) {
+            writes.stop();
+        }
+        writes = newWriteQueue(apiService);
+        if (PAGED_MODE) {
+            this.pagedSource = new PagedBookSource(catalog, apiService, PAGE_SIZE,
+                    () -> {
+                        startWrites();
+                        showLoaded("Livres chargés ! (" + catalog.size() + (pagedSource.isComplete() ? "" : "+") + " livres)");
+                    },
+                    this::showError);
+        }
     }
 
-    public void loadBooksAfterLogin() {
-        messageLabel.setText("Chargement des livres...");
-        apiService.loadBooksAsync(
-            books -> {
-                bookListView.setItems(books);
-                showSuccess("Livres chargés ! (" + books.size() + " livres)");
-            },
-            () -> showError("Erreur de connexion à l'API")
-        );
-    }
+    private WriteBehindQueue newWriteQueue(BookApiService apiService) {
+        return new WriteBehindQueue(apiService, new WriteBehindQueue.Listener() {
+            @Override
+            public void onCreated(Long tempId, Book saved) {
+                if (saved == null) {
+                    // Ni corps ni Location dans la réponse : le catalogue du serveur fait foi
+                    loadBooksAfterLogin();
+                    return;
+                }
+                // La synchronisation a pu apporter le livre créé avant la confirmation
+                if (catalog.get(saved.getId()) != null) {
+                    catalog.applyDeleted(tempId);
+                    catalog.applyUpdated(saved);
+                } else {
+                    catalog.applyReplaced(tempId, saved);
+                }
+                saveSnapshot();
+            }
 
-    @FXML
-    public void initialize() {
-        messageLabel.setText("Chargement des livres...");
+            @Override
+            public void onRejected(PendingWrite write, int status) {
+                rollback(write, status);
+            }
 
-        bookListView.setCellFactory(lv -> new ListCell<Book>() {
-            private final ImageView imageView = new ImageView();
-            private final Label titleLabel = new Label();
-            private final Label authorLabel = new Label();
-            private final Label genreLabel = new Label();
-            private final Label synopsisLabel = new Label();
-            private final Button editBtn = new Button("Modifier");
-            private final Button deleteBtn = new Button("Supprimer");
-
-            {
-                imageView.setFitHeight(120);
-                imageView.setFitWidth(80);
-                imageView.setPreserveRatio(true);
-
-                titleLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 16;");
-                authorLabel.setStyle("-fx-font-style: italic; -fx-font-size: 13;");
-                genreLabel.setStyle("-fx-font-size: 12;");
-                synopsisLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #555;");
-                synopsisLabel.setWrapText(true);
-                synopsisLabel.setPrefHeight(60);
-
-                editBtn.getStyleClass().add("button-edit");
-                deleteBtn.getStyleClass().add("button-delete");
+            @Override
+            public void onBacklog(int pending, boolean offline) {
+                if (offline && !writesOffline) {
+                    showError("Serveur injoignable : " + pending + " modification(s) en attente, nouvel essai automatique");
+                } else if (!offline && writesOffline && pending == 0) {
+                    showSuccess("Modifications en attente envoyées au serveur");
+                }
+                writesOffline = offline && pending > 0;
             }
 
             @Override
-            protected void updateItem(Book book, boolean empty) {
-                super.updateItem(book, empty);
+            public void onUnauthorized(int status) {
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle("Reconnexion nécessaire");
+                alert.setHeaderText("Le serveur refuse vos identifiants (HTTP " + status + ")");
+                alert.setContentText(writes.getPendingCount() + " modification(s) en attente sont gardées et seront"
+                        + " envoyées après une nouvelle connexion avec ce compte.");
+                alert.showAndWait();
+                logout();
+            }
+        });
+    }
+
+    // Écritures non confirmées, y compris celles d'une session précédente : réappliquées au catalogue puis envoyées
+    private void startWrites() {
+        if (!verified.get()) {
+            return;
+        }
+        if (pagedSource == null) {
+            writes.applyTo(catalog);
+        }
+        writes.start();
+    }
 
-                if (empty || book == null) {
-                    setText(null);
-                    setGraphic(null);
+    private void prefetchCovers(int index) {
+        int direction = index >= lastRenderedIndex ? 1 : -1;
+        lastRenderedIndex = index;
+        // Toutes les lignes qui vont apparaître dans le sens du défilement, pas seulement la dernière
+        int size = bookListView.getItems().size();
+        for (int offset = 1; offset <= PREFETCH_ROWS; offset++) {
+            int target = index + direction * offset;
+            if (target < 0 || target >= size) {
+                break;
+            }
+            Object ahead = bookListView.getItems().get(target);
+            if (ahead instanceof Book) {
+                coverCache.prefetch(BookListCell.coverUrlOf((Book) ahead));
+            }
+        }
+    }
+
+    public void setOnLogout(Runnable onLogout) {
+        this.onLogout = onLogout;
+    }
+
+    /**
+     * Connexion : une requête authentifiée minimale valide les identifiants, puis le catalogue s'affiche depuis
+     * la copie locale et se complète par le chargement en streaming.
+     * Serveur injoignable (panne réseau seulement) mais copie locale présente : ouverture en lecture seule,
+     * jusqu'à une nouvelle connexion acceptée par le serveur.
+     */
+    public void login(BookApiService apiService, Runnable onOpened, Runnable onUnauthorized, Consumer<String> onUnreachable) {
+        setApiService(apiService);
+        apiService.loginAsync(
+            () -> {
+                verified.set(true);
+                loadBooksAfterLogin();
+                onOpened.run();
+            },
+            onUnauthorized,
+            error -> {
+                if (!PAGED_MODE && apiService.hasSnapshot()) {
+                    readOnly.set(true);
+                    loadBooksAfterLogin();
+                    onOpened.run();
                 } else {
-                    String imgUrl = book.getImageUrl() != null && !book.getImageUrl().isBlank()
-                            ? book.getImageUrl()
-                            : PLACEHOLDER_IMAGE;
-                    Image image = new Image(imgUrl, true);
-                    imageView.setImage(image);
+                    onUnreachable.accept(error);
+                }
+            },
+            onUnreachable);
+    }
 
-                    titleLabel.setText(book.getTitle());
-                    authorLabel.setText("par " + book.getAuthor());
-                    genreLabel.setText("Genre : " + book.getGenre());
-                    synopsisLabel.setText(book.getSynopsis() != null && !book.getSynopsis().isBlank()
-                            ? book.getSynopsis()
-                            : "Aucun synopsis disponible");
+    // Les changements des autres postes arrivent par lots, sans retélécharger le catalogue
+    private void startSync() {
+        if (!SYNC_ENABLED || catalogSync != null || pagedSource != null) {
+            return;
+        }
+        catalogSync = apiService.newCatalogSync(
+            // Les écritures pas encore confirmées restent visibles par-dessus l'état du serveur
+            delta -> {
+                if (catalog.applyDelta(delta.getUpserted(), delta.getDeleted()) > 0) {
+                    writes.applyTo(catalog);
+                    saveSnapshot();
+                }
+            },
+            fresh -> {
+                if (catalog.applyDiff(fresh) > 0) {
+                    writes.applyTo(catalog);
+                    saveSnapshot();
+                }
+            });
+        catalogSync.start();
+    }
 
-                    editBtn.setOnAction(e -> openEditDialog(book));
-                    deleteBtn.setOnAction(e -> confirmAndDelete(book));
+    private void stopSync() {
+        if (catalogSync != null) {
+            catalogSync.stop();
+            catalogSync = null;
+        }
+    }
 
-                    VBox infoBox = new VBox(5, titleLabel, authorLabel, genreLabel, synopsisLabel);
-                    infoBox.setPrefWidth(400);
+    public void loadBooksAfterLogin() {
+        messageLabel.setText("Chargement des livres...");
+        if (pagedSource != null) {
+            pagedSource.start();
+            return;
+        }
+        loader.load(apiService);
+    }
 
-                    HBox buttonsBox = new HBox(10, editBtn, deleteBtn);
+    private void saveSnapshot() {
+        // En mode paginé le catalogue local est incomplet : pas de copie locale
+        if (pagedSource == null) {
+            apiService.saveSnapshotAsync(catalog.getItems());
+        }
+    }
 
-                    VBox rightBox = new VBox(15, infoBox, buttonsBox);
+    @FXML
+    public void initialize() {
+        messageLabel.setText("Chargement des livres...");
+        // Gardé en stockage en colonnes : listes primitives, mais plus lourd que le catalogue lui-même (CatalogFootprint)
+        searchIndex.attach(catalog.getItems());
+        // L'index des doublons garde titre et auteur de chaque livre : pas en stockage en colonnes
+        if (!COLUMNAR_STORE) {
+            duplicateIndex.attach(catalog.getItems());
+        }
+        bookListView.setItems(rows(catalog.getItems()));
+
+        sortedView = new SortedCatalogView(catalog.getItems());
+        sortBox.getItems().setAll(SORT_SOURCE, SORT_TITLE, SORT_AUTHOR);
+        sortBox.getSelectionModel().select(SORT_SOURCE);
+        sortBox.valueProperty().addListener((obs, oldValue, value) -> applyOrder());
+        groupByGenreBox.selectedProperty().addListener((obs, oldValue, selected) -> applyOrder());
+        // En mode paginé le catalogue local est incomplet : ni tri, ni groupement, ni inventaire.
+        // En stockage en colonnes, ils retiendraient un Book par ligne (get construit une copie à chaque appel)
+        boolean rowViews = !PAGED_MODE && !COLUMNAR_STORE;
+        sortBox.setDisable(!rowViews);
+        groupByGenreBox.setDisable(!rowViews);
+        inventoryPanel = new InventoryPanel(inventoryPane, inventoryLabel, catalog.getItems());
+        inventoryPane.setDisable(!rowViews);
+
+        searchDebounce.setOnFinished(e -> applySearch(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDebounce.playFromStart());
+        // Un livre ajouté ou modifié pendant une recherche doit y apparaître
+        catalog.getItems().addListener((ListChangeListener<Book>) change -> {
+            if (searchActive) {
+                searchDebounce.playFromStart();
+            }
+        });
+        // Mode paginé : les pages sont repérées par leur position, un ajout ou une suppression locale
+        // décalerait toutes les suivantes. Seules les modifications, faites sur place, restent possibles
+        if (PAGED_MODE) {
+            importButton.setDisable(true);
+            addButton.setDisable(true);
+        } else {
+            importButton.disableProperty().bind(readOnly.or(verified.not()));
+            addButton.disableProperty().bind(verified.not());
+        }
 
-                    HBox mainBox = new HBox(20, imageView, rightBox);
-                    mainBox.setPadding(new Insets(10));
-                    mainBox.setStyle("-fx-background-color: #f9f9f9; -fx-border-color: #ddd; -fx-border-radius: 5;");
+        duplicateDebounce.setOnFinished(e -> {
+            Book probe = new Book();
+            probe.setTitle(titleField.getText());
+            probe.setAuthor(authorField.getText());
+            probe.setIsbn(isbnField.getText());
+            duplicateLabel.setText(duplicateHint(probe, null));
+        });
+        for (TextField field : List.of(titleField, authorField, isbnField)) {
+            field.textProperty().addListener((obs, oldText, newText) -> duplicateDebounce.playFromStart());
+        }
 
-                    setGraphic(mainBox);
-                }
+        statsOverlay = new StatsOverlay(statsLabel, () -> apiService == null ? ""
+                : apiService.getCache() + "\nrequêtes en attente : " + apiService.getScheduler().getQueuedCount()
+                        + "\n" + apiService.getCircuitBreaker()
+                        + (catalogSync != null ? "\nsynchro : " + catalogSync.getMode() : "")
+                        + (writes != null ? "\nécritures en attente : " + writes.getPendingCount() : ""));
+        bookListView.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene != null) {
+                scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+                    if (e.getCode() == KeyCode.F3) {
+                        statsOverlay.toggle();
+                        e.consume();
+                    }
+                });
             }
         });
+
+        bookListView.setFixedCellSize(BookListCell.HEIGHT);
+        bookListView.setCellFactory(lv -> new BookListCell(coverCache, this::openEditDialog, this::confirmAndDelete,
+                index -> {
+                    if (pagedSource != null && !searchActive) {
+                        pagedSource.onCellShown(index);
+                    }
+                    prefetchCovers(index);
+                },
+                header -> sortedView.toggle(header)));
+    }
+
+    // RECHERCHE
+    private void applySearch(String query) {
+        List<Long> ranked = searchIndex.search(query);
+        if (ranked == null) {
+            searchActive = false;
+            searchResults.clear();
+            showCatalogRows();
+            return;
+        }
+        // Résultats lus par id, déjà dans l'ordre de pertinence : rien ne parcourt le catalogue entier
+        // (en colonnes, chaque lecture construit un Book) ; un changement du catalogue relance la recherche
+        List<Book> found = new ArrayList<>(ranked.size());
+        for (Long id : ranked) {
+            Book book = catalog.get(id);
+            if (book != null) {
+                found.add(book);
+            }
+        }
+        searchActive = true;
+        searchResults.setAll(found);
+        bookListView.setItems(rows(searchResults));
+        messageLabel.setText(found.size() + " résultat(s)");
+    }
+
+    // TRI ET GROUPEMENT
+    private void applyOrder() {
+        String sort = sortBox.getValue();
+        SortedCatalogView.SortKey key = SORT_TITLE.equals(sort) ? SortedCatalogView.SortKey.TITLE
+                : SORT_AUTHOR.equals(sort) ? SortedCatalogView.SortKey.AUTHOR
+                : SortedCatalogView.SortKey.SOURCE;
+        sortedView.setOrder(key, groupByGenreBox.isSelected());
+        if (!searchActive) {
+            showCatalogRows();
+        }
+    }
+
+    private void showCatalogRows() {
+        // Les en-têtes de genre sont plus bas que les livres : hauteur calculée par ligne en vue groupée
+        bookListView.setFixedCellSize(sortedView.isGrouped() ? Region.USE_COMPUTED_SIZE : BookListCell.HEIGHT);
+        bookListView.setItems(sortedView.isActive() ? sortedView.getRows() : rows(catalog.getItems()));
+    }
+
+    // La ListView ne fait que lire ses lignes : une liste de livres lui est donnée telle quelle, sans copie
+    @SuppressWarnings("unchecked")
+    private static ObservableList<Object> rows(ObservableList<? extends Book> books) {
+        return (ObservableList<Object>) (ObservableList<?>) books;
     }
 
     // AJOUT
     @FXML
     private void addBook() {
-        String title = titleField.getText().trim();
-        String author = authorField.getText().trim();
-        String genre = genreField.getText().trim();
-
-        if (title.isEmpty() || author.isEmpty() || genre.isEmpty()) {
-            showError("Titre, auteur et genre sont obligatoires");
+        if (!checkWritable()) {
             return;
         }
-
         Book newBook = new Book();
-        newBook.setTitle(title);
-        newBook.setAuthor(author);
+        newBook.setTitle(titleField.getText().trim());
+        newBook.setAuthor(authorField.getText().trim());
         newBook.setIsbn(isbnField.getText().trim());
-        newBook.setGenre(genre);
+        newBook.setGenre(genreField.getText().trim());
         newBook.setSynopsis(synopsisArea.getText().trim());
         String imageUrl = imageUrlField.getText().trim();
         newBook.setImageUrl(imageUrl.isEmpty() ? PLACEHOLDER_IMAGE : imageUrl);
 
-        String json = gson.toJson(newBook);
+        if (!newBook.hasRequiredFields()) {
+            showError("Titre, auteur et genre sont obligatoires");
+            return;
+        }
 
-        var request = apiService.authenticatedRequest("/api/books")
-                .POST(HttpRequest.BodyPublishers.ofString(json))
-                .build();
+        // Id temporaire jusqu'à la confirmation du serveur
+        newBook.setId(writes.nextTempId());
+        try {
+            writes.create(newBook);
+        } catch (IOException e) {
+            showError("Ajout impossible, journal local inaccessible : " + e.getMessage());
+            return;
+        }
+        catalog.applyCreated(newBook);
+        saveSnapshot();
+        clearAddFields();
+        showSuccess("Livre ajouté !");
+    }
 
-        apiService.getClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(resp -> Platform.runLater(() -> {
-                    if (resp.statusCode() == 401) {
-                        showUnauthorizedError();
-                    } else if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                        showSuccess("Livre ajouté !");
-                        clearAddFields();
-                        loadBooksAfterLogin();
-                    } else {
-                        showError("Erreur ajout : " + resp.statusCode());
+    // IMPORT EN MASSE
+    @FXML
+    private void importBooks() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Importer des livres");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("CSV, JSON lines, JSON", "*.csv", "*.jsonl", "*.ndjson", "*.json"));
+        File file = chooser.showOpenDialog(bookListView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        importButton.disableProperty().unbind();
+        importButton.setDisable(true);
+        messageLabel.setText("Import de " + file.getName() + "...");
+        new BookImporter(apiService, duplicateIndex)
+                .importFileAsync(file.toPath(), progress -> PerfMetrics.runLater(() -> {
+                    if (!progress.isDone()) {
+                        messageLabel.setText(String.format("Import : %d lus, %d importés (%.0f livres/s)",
+                                progress.getRead(), progress.getImported(), progress.getBooksPerSecond()));
                     }
                 }))
-                .exceptionally(ex -> {
-                    Platform.runLater(() -> showError("Erreur réseau : " + ex.getMessage()));
-                    return null;
-                });
+                .whenComplete((progress, ex) -> PerfMetrics.runLater(() -> {
+                    importButton.disableProperty().bind(readOnly.or(verified.not()));
+                    // Un seul rafraîchissement à la fin de l'import
+                    loadBooksAfterLogin();
+                    Alert report = new Alert(ex == null ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
+                    report.setTitle("Import");
+                    if (ex != null) {
+                        report.setHeaderText("Import interrompu");
+                        report.setContentText(ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+                    } else {
+                        report.setHeaderText(String.format("%d importés, %d doublons ignorés, %d rejetés, %d en échec (%.0f livres/s)",
+                                progress.getImported(), progress.getDuplicates(), progress.getRejected(), progress.getFailed(),
+                                progress.getBooksPerSecond()));
+                        report.setContentText(progress.getErrors().isEmpty() ? "Aucune erreur" : String.join("\n", progress.getErrors()));
+                    }
+                    report.show();
+                }));
     }
 
     private void clearAddFields() {
@@ -178,109 +514,112 @@ public class BookCatalogController {
         imageUrlField.clear();
     }
 
-    private void showUnauthorizedError() {
-        showError("Vous n'êtes pas autorisé à effectuer cette action (identifiants incorrects ou insuffisants).");
+    // Session ouverte hors ligne sur la copie locale : identifiants pas encore vérifiés
+    private boolean checkWritable() {
+        if (!verified.get()) {
+            showError("Lecture seule : reconnectez-vous quand le serveur sera joignable pour modifier le catalogue");
+        }
+        return verified.get();
     }
 
     // MODIFICATION
     private void openEditDialog(Book book) {
-        Stage dialog = new Stage();
-        dialog.initModality(Modality.WINDOW_MODAL);
-        dialog.initOwner(bookListView.getScene().getWindow());
-        dialog.setTitle("Modifier le livre");
-
-        TextField titleField = new TextField(book.getTitle());
-        TextField authorField = new TextField(book.getAuthor());
-        TextField isbnField = new TextField(book.getIsbn() != null ? book.getIsbn() : "");
-        TextField genreField = new TextField(book.getGenre() != null ? book.getGenre() : "");
-        TextArea synopsisArea = new TextArea(book.getSynopsis() != null ? book.getSynopsis() : "");
-        synopsisArea.setWrapText(true);
-        synopsisArea.setPrefRowCount(5);
-        TextField imageUrlField = new TextField(book.getImageUrl() != null ? book.getImageUrl() : "");
-
-        Button saveBtn = new Button("Sauvegarder");
-        saveBtn.getStyleClass().add("button-primary");
-        saveBtn.setOnAction(e -> {
-            book.setTitle(titleField.getText().trim());
-            book.setAuthor(authorField.getText().trim());
-            book.setIsbn(isbnField.getText().trim());
-            book.setGenre(genreField.getText().trim());
-            book.setSynopsis(synopsisArea.getText().trim());
-            String imageUrl = imageUrlField.getText().trim();
-            book.setImageUrl(imageUrl.isEmpty() ? PLACEHOLDER_IMAGE : imageUrl);
-
-            updateBook(book, dialog);
-        });
+        if (!checkWritable()) {
+            return;
+        }
+        // Construit au premier usage puis réutilisé
+        if (editDialog == null) {
+            editDialog = new BookEditDialog(bookListView.getScene().getWindow(), this::updateBook,
+                    edited -> duplicateHint(edited, edited.getId()));
+        }
+        editDialog.show(book);
+    }
 
-        VBox vbox = new VBox(10,
-            new Label("Titre :"), titleField,
-            new Label("Auteur :"), authorField,
-            new Label("ISBN :"), isbnField,
-            new Label("Genre :"), genreField,
-            new Label("Synopsis :"), synopsisArea,
-            new Label("URL Image :"), imageUrlField,
-            saveBtn
-        );
-        vbox.setPadding(new Insets(20));
-        dialog.setScene(new Scene(vbox, 550, 500));
-        dialog.show();
+    // Avertissement listant les doublons probables du livre, vide s'il n'y en a pas
+    private String duplicateHint(Book book, Long excludedId) {
+        List<DuplicateIndex.Match> matches = duplicateIndex.find(book, excludedId, MAX_DUPLICATE_HINTS);
+        if (matches.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("Doublon possible :");
+        for (DuplicateIndex.Match match : matches) {
+            sb.append("\n« ").append(match.getTitle()).append(" » de ").append(match.getAuthor())
+                    .append(match.isSameIsbn() ? " (même ISBN)" : String.format(" (%.0f %%)", match.getSimilarity() * 100));
+        }
+        return sb.toString();
     }
 
-    private void updateBook(Book book, Stage dialog) {
-        String json = gson.toJson(book);
-
-        var request = apiService.authenticatedRequest("/api/books/" + book.getId())
-                .PUT(HttpRequest.BodyPublishers.ofString(json))
-                .build();
-
-        apiService.getClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(resp -> Platform.runLater(() -> {
-                    if (resp.statusCode() == 401) {
-                        showUnauthorizedError();
-                    } else if (resp.statusCode() == 200) {
-                        showSuccess("Livre modifié !");
-                        loadBooksAfterLogin();
-                        dialog.close();
-                    } else {
-                        showError("Erreur modification : " + resp.statusCode());
-                    }
-                }))
-                .exceptionally(ex -> {
-                    Platform.runLater(() -> showError("Erreur réseau : " + ex.getMessage()));
-                    return null;
-                });
+    private boolean updateBook(Book before, Book edited) {
+        // Aucun champ changé : rien à journaliser ni à envoyer
+        if (!edited.isDirty()) {
+            return true;
+        }
+        try {
+            writes.update(before, edited);
+        } catch (IOException e) {
+            showError("Modification impossible, journal local inaccessible : " + e.getMessage());
+            return false;
+        }
+        catalog.applyUpdated(edited);
+        saveSnapshot();
+        showSuccess("Livre modifié !");
+        return true;
     }
 
     // SUPPRESSION
     private void confirmAndDelete(Book book) {
+        if (!checkWritable()) {
+            return;
+        }
+        if (PAGED_MODE) {
+            showError("Suppression indisponible en mode paginé");
+            return;
+        }
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Supprimer");
         alert.setContentText("Supprimer " + book.getTitle() + " ?");
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            deleteBook(book.getId());
+            deleteBook(book);
         }
     }
 
-    private void deleteBook(Long id) {
-        var request = apiService.authenticatedRequest("/api/books/" + id)
-                .DELETE()
-                .build();
-
-        apiService.getClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenAccept(resp -> Platform.runLater(() -> {
-                    if (resp.statusCode() == 401) {
-                        showUnauthorizedError();
-                    } else if (resp.statusCode() == 204 || resp.statusCode() == 200) {
-                        showSuccess("Livre supprimé !");
-                        loadBooksAfterLogin();
-                    } else {
-                        showError("Erreur suppression : " + resp.statusCode());
-                    }
-                }))
-                .exceptionally(ex -> {
-                    Platform.runLater(() -> showError("Erreur réseau : " + ex.getMessage()));
-                    return null;
-                });
+    private void deleteBook(Book book) {
+        try {
+            writes.delete(book);
+        } catch (IOException e) {
+            showError("Suppression impossible, journal local inaccessible : " + e.getMessage());
+            return;
+        }
+        catalog.applyDeleted(book.getId());
+        saveSnapshot();
+        showSuccess("Livre supprimé !");
+    }
+
+    // Écriture refusée par le serveur : l'affichage revient à l'état d'avant
+    private void rollback(PendingWrite write, int status) {
+        Book before = write.getBefore();
+        if (write.getType() == PendingWrite.Type.CREATE || status == 404) {
+            // Création refusée, ou livre supprimé entre-temps sur le serveur ; en mode paginé la ligne reste
+            // jusqu'au prochain chargement de sa page, pour ne pas décaler les suivantes
+            if (pagedSource == null) {
+                catalog.applyDeleted(write.getKey());
+            }
+        } else if (!catalog.applyUpdated(before.copy()) && pagedSource == null) {
+            catalog.applyCreated(before.copy());
+        }
+        saveSnapshot();
+        String title = write.getBook().getTitle();
+        switch (write.getType()) {
+            case CREATE:
+                showError("Ajout de « " + title + " » refusé par le serveur (" + status + "), livre retiré");
+                break;
+            case UPDATE:
+                showError("Modification de « " + title + " » refusée par le serveur (" + status + "), livre restauré");
+                break;
+            default:
+                showError("Suppression de « " + title + " » refusée par le serveur (" + status + "), livre restauré");
+                break;
+        }
     }
 
     private void showSuccess(String text) {
@@ -289,6 +628,17 @@ public class BookCatalogController {
         messageLabel.setText(text);
     }
 
+    // Disjoncteur ouvert : le catalogue affiché vient du cache et non du serveur
+    private void showLoaded(String text) {
+        long retryIn = apiService.getCircuitBreaker().remainingMillis();
+        if (apiService.isCircuitOpen()) {
+            showError("Serveur indisponible, catalogue en cache affiché"
+                    + (retryIn > 0 ? " (nouvel essai dans " + (retryIn + 999) / 1000 + " s)" : ""));
+        } else {
+            showSuccess(text);
+        }
+    }
+
     private void showError(String text) {
         messageLabel.getStyleClass().removeAll("message-success");
         messageLabel.getStyleClass().add("message-error");
@@ -297,15 +647,24 @@ public class BookCatalogController {
 
     @FXML
     private void logout() {
-    // Ferme la fenêtre principale
-    Stage stage = (Stage) bookListView.getScene().getWindow();
-    stage.close();
-
-    // Relance le login (via la classe principale)
-    try {
-        new App().start(new Stage());
-    } catch (Exception ex) {
-        ex.printStackTrace();
+        stopSync();
+        if (writes != null) {
+            writes.stop();
+        }
+        verified.set(false);
+        readOnly.set(false);
+        // Le compte suivant part de sa propre copie locale, sans rien voir du précédent
+        if (pagedSource != null) {
+            pagedSource.stop();
+            pagedSource = null;
+        }
+        loader.reset();
+        searchActive = false;
+        searchResults.clear();
+        showCatalogRows();
+        searchField.clear();
+        clearAddFields();
+        messageLabel.setText("");
+        onLogout.run();
     }
 }
-}
\ No newline at end of file
@@ -0,0 +1,179 @@
+package be.condorcet.javafx.view;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+import javafx.animation.PauseTransition;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * Formulaire de modification d'un livre. Stage, scène et contrôles sont créés une seule fois :
+ * chaque ouverture ne fait que remplir les champs avec le livre choisi.
+ * La sauvegarde travaille sur une copie, où seuls les champs réellement changés sont marqués modifiés.
+ * Les doublons probables du titre, de l'auteur et de l'ISBN saisis sont signalés pendant la frappe.
+ */
+class BookEditDialog {
+
+    private static final String OPEN_METRIC = "ouverture formulaire";
+
+    private final Stage stage = new Stage();
+    private final TextField titleField = new TextField();
+    private final TextField authorField = new TextField();
+    private final TextField isbnField = new TextField();
+    private final TextField genreField = new TextField();
+    private final TextField stockField = new TextField();
+    private final TextArea synopsisArea = new TextArea();
+    private final TextField imageUrlField = new TextField();
+    private final Label errorLabel = new Label();
+    private final Label duplicateLabel = new Label();
+    private final PauseTransition duplicateDebounce = new PauseTransition(Duration.millis(150));
+    // onSave(livre affiché, copie modifiée) : true ferme le formulaire
+    private final BiPredicate<Book, Book> onSave;
+    // Avertissement pour les doublons probables de la saisie (vide s'il n'y en a pas)
+    private final Function<Book, String> duplicateHint;
+    private Book book;
+
+    BookEditDialog(Window owner, BiPredicate<Book, Book> onSave, Function<Book, String> duplicateHint) {
+        this.onSave = onSave;
+        this.duplicateHint = duplicateHint;
+        stage.initModality(Modality.WINDOW_MODAL);
+        stage.initOwner(owner);
+        stage.setTitle("Modifier le livre");
+
+        synopsisArea.setWrapText(true);
+        synopsisArea.setPrefRowCount(5);
+        errorLabel.getStyleClass().add("message-error");
+        duplicateLabel.getStyleClass().add("message-warning");
+        duplicateLabel.setWrapText(true);
+        duplicateDebounce.setOnFinished(e -> checkDuplicates());
+        for (TextField field : List.of(titleField, authorField, isbnField)) {
+            field.textProperty().addListener((obs, oldText, newText) -> duplicateDebounce.playFromStart());
+        }
+
+        Button saveBtn = new Button("Sauvegarder");
+        saveBtn.getStyleClass().add("button-primary");
+        saveBtn.setDefaultButton(true);
+        saveBtn.setOnAction(e -> save());
+        Button cancelBtn = new Button("Annuler");
+        cancelBtn.setCancelButton(true);
+        cancelBtn.setOnAction(e -> stage.hide());
+        // Le formulaire caché ne retient pas le dernier livre ouvert
+        stage.setOnHidden(e -> book = null);
+
+        VBox vbox = new VBox(10,
+            new Label("Titre :"), titleField,
+            new Label("Auteur :"), authorField,
+            new Label("ISBN :"), isbnField,
+            new Label("Genre :"), genreField,
+            new Label("Stock :"), stockField,
+            new Label("Synopsis :"), synopsisArea,
+            new Label("URL Image :"), imageUrlField,
+            duplicateLabel,
+            errorLabel,
+            new HBox(10, saveBtn, cancelBtn)
+        );
+        vbox.setPadding(new Insets(20));
+        stage.setScene(new Scene(vbox, 550, 640));
+    }
+
+    void show(Book book) {
+        long start = System.nanoTime();
+        this.book = book;
+        titleField.setText(orEmpty(book.getTitle()));
+        authorField.setText(orEmpty(book.getAuthor()));
+        isbnField.setText(orEmpty(book.getIsbn()));
+        genreField.setText(orEmpty(book.getGenre()));
+        stockField.setText(String.valueOf(book.getStock()));
+        synopsisArea.setText(orEmpty(book.getSynopsis()));
+        imageUrlField.setText(orEmpty(book.getImageUrl()));
+        errorLabel.setText("");
+        duplicateLabel.setText("");
+        duplicateDebounce.playFromStart();
+        if (stage.isShowing()) {
+            stage.toFront();
+        } else {
+            stage.show();
+        }
+        // Le cas le plus fréquent : corriger le stock puis Entrée
+        stockField.requestFocus();
+        stockField.selectAll();
+        PerfMetrics.histogram(OPEN_METRIC).recordNanos(System.nanoTime() - start);
+    }
+
+    private void checkDuplicates() {
+        if (book == null) {
+            return;
+        }
+        Book probe = new Book();
+        probe.setId(book.getId());
+        probe.setTitle(titleField.getText());
+        probe.setAuthor(authorField.getText());
+        probe.setIsbn(isbnField.getText());
+        duplicateLabel.setText(duplicateHint.apply(probe));
+    }
+
+    private void save() {
+        if (book == null) {
+            return;
+        }
+        int stock;
+        try {
+            stock = Integer.parseInt(stockField.getText().trim());
+        } catch (NumberFormatException e) {
+            stock = -1;
+        }
+        if (stock < 0) {
+            errorLabel.setText("Le stock doit être un nombre entier positif");
+            return;
+        }
+        Book edited = book.copy();
+        edited.setTitle(textOf(titleField, book.getTitle()));
+        edited.setAuthor(textOf(authorField, book.getAuthor()));
+        edited.setIsbn(textOf(isbnField, book.getIsbn()));
+        edited.setGenre(textOf(genreField, book.getGenre()));
+        edited.setStock(stock);
+        edited.setSynopsis(textOf(synopsisArea.getText(), book.getSynopsis()));
+        String imageUrl = imageUrlField.getText().trim();
+        if (!imageUrl.isEmpty()) {
+            edited.setImageUrl(imageUrl);
+        } else if (book.hasCover()) {
+            // Couverture effacée : image par défaut. Un champ vide dès l'ouverture (URL absente) n'est pas une modification
+            edited.setImageUrl(BookListCell.PLACEHOLDER_IMAGE);
+        }
+        if (!edited.hasRequiredFields()) {
+            errorLabel.setText("Titre, auteur et genre sont obligatoires");
+            return;
+        }
+        if (onSave.test(book, edited)) {
+            stage.hide();
+        }
+    }
+
+    private static String textOf(TextField field, String original) {
+        return textOf(field.getText(), original);
+    }
+
+    // Champ laissé vide alors que la valeur était absente : pas une modification
+    private static String textOf(String text, String original) {
+        String trimmed = text.trim();
+        return trimmed.isEmpty() && original == null ? null : trimmed;
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,169 @@
+package be.condorcet.javafx.view;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.metrics.StartupTimer;
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.service.CoverImageCache;
+import javafx.css.PseudoClass;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+/**
+ * Cellule du catalogue. Les nœuds, les styles (classes de app.css) et les handlers sont créés une seule fois :
+ * updateItem ne fait que changer des textes et une image, sans allocation une fois les couvertures en cache.
+ * Une ligne est un Book, un GenreHeader (vue groupée) ou null (page vidée en mode paginé).
+ */
+class BookListCell extends ListCell<Object> {
+
+    // Hauteur fixe de chaque ligne : la ListView n'a plus à mesurer les cellules pour défiler
+    static final double HEIGHT = 210;
+    static final double COVER_WIDTH = 80;
+    static final double COVER_HEIGHT = 120;
+
+    static final String PLACEHOLDER_IMAGE = Book.PLACEHOLDER_IMAGE;
+    private static final String NO_SYNOPSIS = "Aucun synopsis disponible";
+    private static final String LOADING = "Chargement...";
+    private static final PseudoClass GENRE_HEADER = PseudoClass.getPseudoClass("genre-header");
+
+    private final CoverImageCache coverCache;
+    private final IntConsumer onShown;
+
+    private final ImageView imageView = new ImageView();
+    private final Label titleLabel = new Label();
+    private final Label authorLabel = new Label();
+    private final Label genreLabel = new Label();
+    private final Label synopsisLabel = new Label();
+    private final HBox root;
+    private String coverUrl;
+
+    /**
+     * onShown reçoit l'index de chaque ligne affichée (chargement des pages, préchargement des couvertures).
+     */
+    BookListCell(CoverImageCache coverCache, Consumer<Book> onEdit, Consumer<Book> onDelete, IntConsumer onShown,
+                 Consumer<GenreHeader> onHeaderClicked) {
+        this.coverCache = coverCache;
+        this.onShown = onShown;
+        // Un clic sur l'en-tête d'un genre replie ou déplie son groupe
+        setOnMouseClicked(e -> {
+            if (getItem() instanceof GenreHeader) {
+                onHeaderClicked.accept((GenreHeader) getItem());
+            }
+        });
+
+        imageView.setFitHeight(COVER_HEIGHT);
+        imageView.setFitWidth(COVER_WIDTH);
+        imageView.setPreserveRatio(true);
+
+        titleLabel.getStyleClass().add("book-title");
+        Label byLabel = new Label("par ");
+        byLabel.getStyleClass().add("book-author");
+        authorLabel.getStyleClass().add("book-author");
+        Label genreCaption = new Label("Genre : ");
+        genreCaption.getStyleClass().add("book-genre");
+        genreLabel.getStyleClass().add("book-genre");
+        synopsisLabel.getStyleClass().add("book-synopsis");
+        synopsisLabel.setWrapText(true);
+        synopsisLabel.setPrefHeight(60);
+        synopsisLabel.setMaxHeight(60);
+
+        Button editBtn = new Button("Modifier");
+        Button deleteBtn = new Button("Supprimer");
+        editBtn.getStyleClass().add("button-edit");
+        deleteBtn.getStyleClass().add("button-delete");
+        // Le livre est lu au clic : la cellule est réutilisée pour d'autres livres
+        editBtn.setOnAction(e -> {
+            if (getItem() instanceof Book) {
+                onEdit.accept((Book) getItem());
+            }
+        });
+        deleteBtn.setOnAction(e -> {
+            if (getItem() instanceof Book) {
+                onDelete.accept((Book) getItem());
+            }
+        });
+
+        VBox infoBox = new VBox(5, titleLabel, new HBox(byLabel, authorLabel), new HBox(genreCaption, genreLabel), synopsisLabel);
+        infoBox.setPrefWidth(400);
+        VBox rightBox = new VBox(15, infoBox, new HBox(10, editBtn, deleteBtn));
+        root = new HBox(20, imageView, rightBox);
+        root.getStyleClass().add("book-cell-box");
+
+        getStyleClass().add("book-cell");
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    @Override
+    protected void updateItem(Object item, boolean empty) {
+        long start = System.nanoTime();
+        super.updateItem(item, empty);
+        pseudoClassStateChanged(GENRE_HEADER, item instanceof GenreHeader);
+
+        if (empty) {
+            clear();
+        } else if (item instanceof GenreHeader) {
+            clear();
+            setContentDisplay(ContentDisplay.TEXT_ONLY);
+            setText(item.toString());
+        } else if (item == null) {
+            // Emplacement d'une page vidée : elle sera rechargée
+            clear();
+            setContentDisplay(ContentDisplay.TEXT_ONLY);
+            setText(LOADING);
+            onShown.accept(getIndex());
+        } else {
+            Book book = (Book) item;
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+            setText(null);
+            titleLabel.setText(book.getTitle());
+            authorLabel.setText(book.getAuthor());
+            genreLabel.setText(book.getGenre());
+            synopsisLabel.setText(book.getSynopsis() != null && !book.getSynopsis().isBlank()
+                    ? book.getSynopsis()
+                    : NO_SYNOPSIS);
+            showCover(coverUrlOf(book));
+            setGraphic(root);
+            StartupTimer.firstBookRendered();
+            onShown.accept(getIndex());
+        }
+        PerfMetrics.recordCellUpdate(System.nanoTime() - start);
+    }
+
+    static String coverUrlOf(Book book) {
+        return book.getImageUrl() != null && !book.getImageUrl().isBlank()
+                ? book.getImageUrl()
+                : PLACEHOLDER_IMAGE;
+    }
+
+    private void clear() {
+        coverUrl = null;
+        imageView.setImage(null);
+        setText(null);
+        setGraphic(null);
+    }
+
+    private void showCover(String url) {
+        if (url.equals(coverUrl)) {
+            return;
+        }
+        coverUrl = url;
+        Image cached = coverCache.getCached(url);
+        imageView.setImage(cached);
+        if (cached == null) {
+            // Une couverture arrivée après réutilisation de la cellule est ignorée
+            coverCache.load(url, image -> {
+                if (url.equals(coverUrl)) {
+                    imageView.setImage(image);
+                }
+            });
+        }
+    }
+}
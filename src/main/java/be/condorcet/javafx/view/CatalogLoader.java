@@ -0,0 +1,94 @@
+package be.condorcet.javafx.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.BookCatalog;
+import be.condorcet.javafx.service.BookApiService;
+
+/**
+ * Chargement complet du catalogue d'une session : copie locale de l'utilisateur si rien n'est encore affiché,
+ * puis streaming depuis le serveur, appliqué comme une revalidation quand des livres sont déjà là.
+ * Utilisé depuis le thread FX ; reset() abandonne le chargement en cours et vide le catalogue.
+ */
+class CatalogLoader {
+
+    interface Listener {
+        // Étape intermédiaire (copie locale affichée, nombre de livres reçus)
+        void onProgress(String message);
+
+        void onLoaded(String message);
+
+        void onFailed(String error);
+    }
+
+    private final BookCatalog catalog;
+    private final Listener listener;
+    // Ignore les lots d'un chargement précédent si un rechargement a été relancé
+    private int generation;
+
+    CatalogLoader(BookCatalog catalog, Listener listener) {
+        this.catalog = catalog;
+        this.listener = listener;
+    }
+
+    void load(BookApiService apiService) {
+        // Affichage depuis la copie locale dès qu'elle est lue, puis revalidation en arrière-plan
+        if (catalog.size() == 0 && apiService.hasSnapshot()) {
+            int current = ++generation;
+            apiService.readSnapshotAsync(books -> {
+                if (current != generation) {
+                    return;
+                }
+                catalog.setAll(books);
+                if (catalog.size() > 0) {
+                    listener.onProgress("Catalogue local (" + catalog.size() + " livres), synchronisation...");
+                }
+                stream(apiService);
+            });
+        } else {
+            stream(apiService);
+        }
+    }
+
+    // Déconnexion : rien du compte précédent ne doit rester affiché ni arriver après coup
+    void reset() {
+        generation++;
+        catalog.clear();
+    }
+
+    private void stream(BookApiService apiService) {
+        boolean revalidate = catalog.size() > 0;
+        List<Book> fresh = new ArrayList<>();
+        int current = ++generation;
+        apiService.streamBooksAsync(
+            batch -> {
+                if (current != generation) {
+                    return;
+                }
+                if (revalidate) {
+                    fresh.addAll(batch);
+                } else {
+                    catalog.addAll(batch);
+                    listener.onProgress("Chargement des livres... (" + catalog.size() + ")");
+                }
+            },
+            () -> {
+                if (current != generation) {
+                    return;
+                }
+                if (revalidate) {
+                    int changes = catalog.applyDiff(fresh);
+                    listener.onLoaded("Livres chargés ! (" + catalog.size() + " livres, " + changes + " mis à jour)");
+                } else {
+                    listener.onLoaded("Livres chargés ! (" + catalog.size() + " livres)");
+                }
+            },
+            error -> {
+                if (current == generation) {
+                    listener.onFailed(error);
+                }
+            });
+    }
+}
@@ -0,0 +1,28 @@
+package be.condorcet.javafx.view;
+
+/**
+ * Ligne d'en-tête d'un genre dans une vue groupée (SortedCatalogView) : nom du genre, nombre de livres
+ * et état replié. Ce n'est pas un Book : les lignes de la liste du catalogue sont des livres ou des en-têtes.
+ * Immuable : un changement remplace la ligne, ce qui redessine la cellule.
+ */
+final class GenreHeader {
+
+    private final String name;
+    private final int count;
+    private final boolean collapsed;
+
+    GenreHeader(String name, int count, boolean collapsed) {
+        this.name = name;
+        this.count = count;
+        this.collapsed = collapsed;
+    }
+
+    String getName() { return name; }
+    int getCount() { return count; }
+    boolean isCollapsed() { return collapsed; }
+
+    @Override
+    public String toString() {
+        return (collapsed ? "▸ " : "▾ ") + name + " (" + count + ")";
+    }
+}
@@ -0,0 +1,136 @@
+package be.condorcet.javafx.view;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.service.CatalogAnalytics;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Label;
+import javafx.scene.control.TitledPane;
+
+/**
+ * Tableau de bord de l'inventaire (panneau repliable) : totaux, ruptures, stock par genre, auteurs principaux.
+ * À l'ouverture, les indicateurs sont calculés en parallèle hors du thread FX sur une copie du catalogue ;
+ * ensuite chaque ajout, modification ou suppression les met à jour directement. Rien n'est calculé ni suivi
+ * tant que le panneau est replié.
+ */
+class InventoryPanel {
+
+    private static final int TOP_AUTHORS = 5;
+    private static final int MAX_GENRES = 12;
+    // Au-delà, un changement (chargement, synchronisation massive) coûte moins cher en calcul complet parallèle
+    private static final int RECOMPUTE_THRESHOLD = 2_000;
+
+    private static final System.Logger LOG = System.getLogger(InventoryPanel.class.getName());
+
+    private final ObservableList<Book> source;
+    private final Label label;
+    private final ListChangeListener<Book> listener = this::onSourceChanged;
+    // Null pendant un calcul complet
+    private CatalogAnalytics analytics;
+    // Pendant un calcul complet : changements arrivés depuis la copie, ajoutés au résultat à l'installation
+    private CatalogAnalytics changedDuringCompute;
+    private int generation;
+    private boolean renderScheduled;
+
+    InventoryPanel(TitledPane pane, Label label, ObservableList<Book> source) {
+        this.source = source;
+        this.label = label;
+        pane.expandedProperty().addListener((obs, was, expanded) -> {
+            if (expanded) {
+                source.addListener(listener);
+                recompute();
+            } else {
+                source.removeListener(listener);
+                generation++;
+                analytics = null;
+                changedDuringCompute = null;
+            }
+        });
+    }
+
+    private void recompute() {
+        int computeGeneration = ++generation;
+        analytics = null;
+        changedDuringCompute = new CatalogAnalytics();
+        List<Book> books = new ArrayList<>(source);
+        label.setText("Calcul en cours...");
+        CompletableFuture.supplyAsync(() -> CatalogAnalytics.compute(books))
+                .thenAccept(result -> PerfMetrics.runLater(() -> {
+                    if (computeGeneration == generation) {
+                        result.addAll(changedDuringCompute);
+                        changedDuringCompute = null;
+                        analytics = result;
+                        render();
+                    }
+                }))
+                .exceptionally(ex -> {
+                    LOG.log(System.Logger.Level.WARNING, "Calcul de l'inventaire impossible", ex);
+                    return null;
+                });
+    }
+
+    private void onSourceChanged(ListChangeListener.Change<? extends Book> change) {
+        int touched = 0;
+        while (change.next()) {
+            touched += change.getRemovedSize() + change.getAddedSize();
+        }
+        change.reset();
+        if (touched > RECOMPUTE_THRESHOLD) {
+            recompute();
+            return;
+        }
+        CatalogAnalytics target = analytics != null ? analytics : changedDuringCompute;
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                continue;
+            }
+            change.getRemoved().forEach(target::remove);
+            change.getAddedSubList().forEach(target::add);
+        }
+        scheduleRender();
+    }
+
+    // Un seul rendu par passage sur le thread FX, quel que soit le nombre de changements
+    private void scheduleRender() {
+        if (analytics == null || renderScheduled) {
+            return;
+        }
+        renderScheduled = true;
+        PerfMetrics.runLater(() -> {
+            renderScheduled = false;
+            if (analytics != null) {
+                render();
+            }
+        });
+    }
+
+    private void render() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Livres : %d    Stock total : %d%n", analytics.getBooks(), analytics.getTotalStock()));
+        sb.append(String.format("En rupture : %d%n", analytics.getOutOfStock()));
+        sb.append(String.format("Sans couverture : %d    Sans synopsis : %d%n%n",
+                analytics.getMissingCover(), analytics.getMissingSynopsis()));
+
+        List<CatalogAnalytics.GenreStats> genres = analytics.getGenres();
+        sb.append(String.format("%-18s %7s %8s %8s%n", "Genre", "Livres", "Stock", "Rupture"));
+        for (CatalogAnalytics.GenreStats genre : genres.subList(0, Math.min(MAX_GENRES, genres.size()))) {
+            sb.append(String.format("%-18.18s %7d %8d %8d%n",
+                    genre.getName(), genre.getBooks(), genre.getStock(), genre.getOutOfStock()));
+        }
+        if (genres.size() > MAX_GENRES) {
+            sb.append(String.format("... et %d autres genres%n", genres.size() - MAX_GENRES));
+        }
+
+        sb.append(String.format("%nAuteurs les plus présents%n"));
+        for (Map.Entry<String, Integer> author : analytics.getTopAuthors(TOP_AUTHORS)) {
+            sb.append(String.format("%-27.27s %7d%n", author.getKey(), author.getValue()));
+        }
+        label.setText(sb.toString().stripTrailing());
+    }
+}
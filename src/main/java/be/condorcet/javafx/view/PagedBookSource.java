@@ -0,0 +1,168 @@
+package be.condorcet.javafx.view;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.BookCatalog;
+import be.condorcet.javafx.model.BookPage;
+import be.condorcet.javafx.service.BookApiService;
+import javafx.application.Platform;
+
+/**
+ * Source paginée de bookListView : la page suivante est chargée quand l'utilisateur
+ * approche de la fin de la liste, et les pages trop éloignées de la zone visible
+ * sont vidées (puis rechargées si on y revient).
+ */
+class PagedBookSource {
+
+    // Nombre de pages gardées en mémoire de chaque côté de la page visible
+    private static final int KEEP_PAGES = 3;
+
+    private final BookCatalog catalog;
+    private final BookApiService apiService;
+    private final int pageSize;
+    private final Runnable onPageLoaded;
+    private final Consumer<String> onError;
+
+    private final Set<Integer> loadedPages = new HashSet<>();
+    private final Set<Integer> loadingPages = new HashSet<>();
+    // Curseur à envoyer pour charger la page p (pagination par curseur uniquement)
+    private final Map<Integer, String> cursors = new HashMap<>();
+    private int nextPage;
+    private boolean complete;
+    private boolean unpaged;
+    private boolean usesCursor;
+    private Long firstId;
+    private int generation;
+
+    private int visibleIndex;
+    private boolean updateScheduled;
+
+    PagedBookSource(BookCatalog catalog, BookApiService apiService, int pageSize,
+                    Runnable onPageLoaded, Consumer<String> onError) {
+        this.catalog = catalog;
+        this.apiService = apiService;
+        this.pageSize = pageSize;
+        this.onPageLoaded = onPageLoaded;
+        this.onError = onError;
+    }
+
+    void start() {
+        generation++;
+        loadedPages.clear();
+        loadingPages.clear();
+        cursors.clear();
+        nextPage = 0;
+        complete = false;
+        unpaged = false;
+        usesCursor = false;
+        firstId = null;
+        catalog.clear();
+        requestPage(0);
+    }
+
+    // Les pages encore en vol sont ignorées à leur arrivée
+    void stop() {
+        generation++;
+        loadingPages.clear();
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    // Appelé par les cellules ; le travail est reporté pour ne pas modifier la liste pendant son rendu
+    void onCellShown(int index) {
+        visibleIndex = index;
+        if (!updateScheduled && !unpaged) {
+            updateScheduled = true;
+            Platform.runLater(this::update);
+        }
+    }
+
+    private void update() {
+        updateScheduled = false;
+        int page = visibleIndex / pageSize;
+        if (page < nextPage && !loadedPages.contains(page)) {
+            requestPage(page);
+        }
+        if (!complete && visibleIndex >= catalog.size() - pageSize / 2) {
+            requestPage(nextPage);
+        }
+        evictFarFrom(page);
+    }
+
+    private void requestPage(int page) {
+        if (loadingPages.contains(page)) {
+            return;
+        }
+        String cursor = cursors.get(page);
+        if (page > 0 && usesCursor && cursor == null) {
+            return;
+        }
+        loadingPages.add(page);
+        int gen = generation;
+        apiService.loadBooksPageAsync(page, pageSize, cursor,
+                bookPage -> {
+                    if (gen == generation) {
+                        loadingPages.remove(page);
+                        onPage(page, bookPage);
+                    }
+                },
+                error -> {
+                    if (gen == generation) {
+                        loadingPages.remove(page);
+                        onError.accept(error);
+                    }
+                });
+    }
+
+    private void onPage(int page, BookPage bookPage) {
+        List<Book> content = bookPage.getContent();
+        if (bookPage.isUnpaged()) {
+            // Le backend ignore la pagination : tout le catalogue est arrivé d'un coup
+            unpaged = true;
+            complete = true;
+            catalog.setAll(content);
+            onPageLoaded.run();
+            return;
+        }
+        if (page == 0 && !content.isEmpty()) {
+            firstId = content.get(0).getId();
+        } else if (page > 0 && !content.isEmpty() && firstId != null && firstId.equals(content.get(0).getId())) {
+            // Même contenu que la première page : paramètres ignorés, on s'arrête là
+            complete = true;
+            return;
+        }
+        if (bookPage.getNextCursor() != null) {
+            usesCursor = true;
+            cursors.put(page + 1, bookPage.getNextCursor());
+        }
+        if (page == nextPage) {
+            catalog.addAll(content);
+            nextPage++;
+            complete = bookPage.isLast() || content.isEmpty();
+        } else {
+            catalog.fill(page * pageSize, content);
+        }
+        loadedPages.add(page);
+        onPageLoaded.run();
+    }
+
+    private void evictFarFrom(int page) {
+        Iterator<Integer> it = loadedPages.iterator();
+        while (it.hasNext()) {
+            int p = it.next();
+            if (Math.abs(p - page) > KEEP_PAGES) {
+                catalog.evict(p * pageSize, (p + 1) * pageSize);
+                it.remove();
+            }
+        }
+    }
+}
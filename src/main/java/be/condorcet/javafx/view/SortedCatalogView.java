@@ -0,0 +1,398 @@
+package be.condorcet.javafx.view;
+
+import java.nio.ByteBuffer;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Vue du catalogue triée par titre ou par auteur dans l'ordre alphabétique français, éventuellement
+ * groupée par genre (une ligne GenreHeader par groupe, repliable).
+ * La clé de collation de chaque livre est calculée une seule fois, en octets (CollationKey.toByteArray) :
+ * une comparaison n'est plus qu'un Arrays.compareUnsigned. Le tri complet se fait hors du thread FX,
+ * en parallèle au-delà de PARALLEL_THRESHOLD livres ; ensuite chaque ajout, modification ou suppression
+ * est placé par recherche dichotomique, sans retrier.
+ */
+class SortedCatalogView {
+
+    enum SortKey { SOURCE, TITLE, AUTHOR }
+
+    private static final String SORT_METRIC = "tri du catalogue";
+    private static final String NO_GENRE = "Sans genre";
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    // Au-delà, un changement (chargement, synchronisation massive) coûte moins cher en tri complet
+    private static final int REBUILD_THRESHOLD = 2_000;
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final System.Logger LOG = System.getLogger(SortedCatalogView.class.getName());
+
+    private static final Collator COLLATOR = frenchCollator();
+    // getCollationKey est synchronisé dans RuleBasedCollator : une copie par thread pour le calcul parallèle
+    private static final ThreadLocal<Collator> COLLATORS = ThreadLocal.withInitial(() -> (Collator) COLLATOR.clone());
+
+    // Genre, clé principale, clé secondaire puis id : un ordre total, chaque livre a une place unique
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int c = Arrays.compareUnsigned(a.genre, b.genre);
+        if (c == 0) {
+            c = Arrays.compareUnsigned(a.primary, b.primary);
+        }
+        if (c == 0) {
+            c = Arrays.compareUnsigned(a.secondary, b.secondary);
+        }
+        return c != 0 ? c : Long.compare(a.id, b.id);
+    };
+
+    private static final class Entry {
+        final Book book;
+        final long id;
+        final byte[] genre;
+        final byte[] primary;
+        final byte[] secondary;
+
+        Entry(Book book, byte[] genre, byte[] primary, byte[] secondary) {
+            this.book = book;
+            this.id = book.getId();
+            this.genre = genre;
+            this.primary = primary;
+            this.secondary = secondary;
+        }
+    }
+
+    // Sans groupement, un seul groupe sans en-tête contient tous les livres
+    private static final class Group {
+        final byte[] key;
+        final String name;
+        final ArrayList<Entry> entries = new ArrayList<>();
+        boolean collapsed;
+        GenreHeader header;
+
+        Group(byte[] key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+    }
+
+    private final ObservableList<Book> source;
+    // Livres et en-têtes de genre (GenreHeader)
+    private final ObservableList<Object> rows = FXCollections.observableArrayList();
+    private final List<Group> groups = new ArrayList<>();
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+    // Genres repliés, gardés d'un tri à l'autre
+    private final Set<ByteBuffer> collapsedGenres = new HashSet<>();
+    private SortKey sortKey = SortKey.SOURCE;
+    private boolean grouped;
+    private int generation;
+    // Pendant un tri complet : dernier état de chaque livre changé (null = supprimé), rejoué à l'installation
+    private Map<Long, Book> changedDuringSort;
+
+    SortedCatalogView(ObservableList<Book> source) {
+        this.source = source;
+        source.addListener((ListChangeListener<Book>) this::onSourceChanged);
+    }
+
+    ObservableList<Object> getRows() {
+        return rows;
+    }
+
+    // Ordre de la source sans groupement : la liste affiche directement le catalogue
+    boolean isActive() {
+        return sortKey != SortKey.SOURCE || grouped;
+    }
+
+    boolean isGrouped() {
+        return grouped;
+    }
+
+    void setOrder(SortKey sortKey, boolean grouped) {
+        if (this.sortKey == sortKey && this.grouped == grouped) {
+            return;
+        }
+        this.sortKey = sortKey;
+        this.grouped = grouped;
+        rebuild();
+    }
+
+    // Replie ou déplie le groupe : ses lignes sont retirées ou réinsérées d'un bloc
+    void toggle(GenreHeader header) {
+        for (int gi = 0; gi < groups.size(); gi++) {
+            Group group = groups.get(gi);
+            if (group.header != header) {
+                continue;
+            }
+            group.collapsed = !group.collapsed;
+            if (group.collapsed) {
+                collapsedGenres.add(ByteBuffer.wrap(group.key));
+            } else {
+                collapsedGenres.remove(ByteBuffer.wrap(group.key));
+            }
+            int row = rowOf(gi);
+            if (group.collapsed) {
+                rows.remove(row + 1, row + 1 + group.entries.size());
+            } else {
+                rows.addAll(row + 1, booksOf(group));
+            }
+            refreshHeader(group, row);
+            return;
+        }
+    }
+
+    private void onSourceChanged(ListChangeListener.Change<? extends Book> change) {
+        if (!isActive()) {
+            return;
+        }
+        int touched = 0;
+        while (change.next()) {
+            touched += change.getRemovedSize() + change.getAddedSize();
+        }
+        change.reset();
+        if (touched > REBUILD_THRESHOLD) {
+            rebuild();
+            return;
+        }
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                continue;
+            }
+            for (Book removed : change.getRemoved()) {
+                if (removed != null && removed.getId() != null) {
+                    if (changedDuringSort != null) {
+                        changedDuringSort.put(removed.getId(), null);
+                    } else {
+                        remove(removed.getId());
+                    }
+                }
+            }
+            for (Book added : change.getAddedSubList()) {
+                if (added != null && added.getId() != null) {
+                    if (changedDuringSort != null) {
+                        changedDuringSort.put(added.getId(), added);
+                    } else {
+                        insert(added);
+                    }
+                }
+            }
+        }
+    }
+
+    private void rebuild() {
+        int sortGeneration = ++generation;
+        groups.clear();
+        entriesById.clear();
+        if (!isActive()) {
+            changedDuringSort = null;
+            rows.clear();
+            return;
+        }
+        changedDuringSort = new HashMap<>();
+        List<Book> books = new ArrayList<>(source.size());
+        for (Book book : source) {
+            if (book != null && book.getId() != null) {
+                books.add(book);
+            }
+        }
+        SortKey key = sortKey;
+        boolean byGenre = grouped;
+        CompletableFuture.supplyAsync(() -> sort(books, key, byGenre))
+                .thenAccept(entries -> PerfMetrics.runLater(() -> {
+                    if (sortGeneration == generation) {
+                        install(entries);
+                    }
+                }))
+                .exceptionally(ex -> {
+                    LOG.log(System.Logger.Level.WARNING, "Tri du catalogue impossible", ex);
+                    return null;
+                });
+    }
+
+    private static Entry[] sort(List<Book> books, SortKey key, boolean grouped) {
+        long start = System.nanoTime();
+        Entry[] entries = new Entry[books.size()];
+        boolean parallel = entries.length >= PARALLEL_THRESHOLD;
+        IntStream indexes = IntStream.range(0, entries.length);
+        (parallel ? indexes.parallel() : indexes).forEach(i -> entries[i] = entryOf(books.get(i), key, grouped));
+        if (parallel) {
+            Arrays.parallelSort(entries, ORDER);
+        } else {
+            Arrays.sort(entries, ORDER);
+        }
+        PerfMetrics.histogram(SORT_METRIC).recordNanos(System.nanoTime() - start);
+        return entries;
+    }
+
+    private void install(Entry[] entries) {
+        Map<Long, Book> replay = changedDuringSort;
+        changedDuringSort = null;
+        Group group = null;
+        for (Entry entry : entries) {
+            if (group == null || Arrays.compareUnsigned(group.key, entry.genre) != 0) {
+                group = newGroup(entry);
+                groups.add(group);
+            }
+            group.entries.add(entry);
+            entriesById.put(entry.id, entry);
+        }
+        List<Object> flat = new ArrayList<>(entries.length + groups.size());
+        for (Group g : groups) {
+            if (grouped) {
+                g.header = new GenreHeader(g.name, g.entries.size(), g.collapsed);
+                flat.add(g.header);
+            }
+            if (!g.collapsed) {
+                flat.addAll(booksOf(g));
+            }
+        }
+        rows.setAll(flat);
+        replay.forEach((id, book) -> {
+            remove(id);
+            if (book != null) {
+                insert(book);
+            }
+        });
+    }
+
+    private void insert(Book book) {
+        remove(book.getId());
+        Entry entry = entryOf(book, sortKey, grouped);
+        int gi = findGroup(entry.genre);
+        boolean newGroup = gi < 0;
+        Group group;
+        if (newGroup) {
+            gi = -gi - 1;
+            group = newGroup(entry);
+            groups.add(gi, group);
+        } else {
+            group = groups.get(gi);
+        }
+        int pos = -Collections.binarySearch(group.entries, entry, ORDER) - 1;
+        group.entries.add(pos, entry);
+        entriesById.put(entry.id, entry);
+        int row = rowOf(gi);
+        if (newGroup && grouped) {
+            group.header = new GenreHeader(group.name, 1, group.collapsed);
+            rows.add(row, group.header);
+        }
+        if (!group.collapsed) {
+            rows.add(row + headerRows(group) + pos, book);
+        }
+        if (!newGroup) {
+            refreshHeader(group, row);
+        }
+    }
+
+    private void remove(Long id) {
+        Entry entry = entriesById.remove(id);
+        if (entry == null) {
+            return;
+        }
+        int gi = findGroup(entry.genre);
+        Group group = groups.get(gi);
+        int pos = Collections.binarySearch(group.entries, entry, ORDER);
+        group.entries.remove(pos);
+        int row = rowOf(gi);
+        if (!group.collapsed) {
+            rows.remove(row + headerRows(group) + pos);
+        }
+        if (group.entries.isEmpty()) {
+            groups.remove(gi);
+            if (group.header != null) {
+                rows.remove(row);
+            }
+        } else {
+            refreshHeader(group, row);
+        }
+    }
+
+    private Group newGroup(Entry entry) {
+        String genre = entry.book.getGenre();
+        Group group = new Group(entry.genre, genre == null || genre.isBlank() ? NO_GENRE : genre.trim());
+        group.collapsed = grouped && collapsedGenres.contains(ByteBuffer.wrap(entry.genre));
+        return group;
+    }
+
+    // Nouvel en-tête à chaque changement du nombre de livres ou de l'état replié
+    private void refreshHeader(Group group, int row) {
+        if (group.header == null) {
+            return;
+        }
+        group.header = new GenreHeader(group.name, group.entries.size(), group.collapsed);
+        rows.set(row, group.header);
+    }
+
+    private int findGroup(byte[] key) {
+        int low = 0;
+        int high = groups.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = Arrays.compareUnsigned(groups.get(mid).key, key);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Première ligne du groupe (son en-tête) ; le nombre de groupes reste petit
+    private int rowOf(int groupIndex) {
+        int row = 0;
+        for (int i = 0; i < groupIndex; i++) {
+            Group group = groups.get(i);
+            row += headerRows(group) + (group.collapsed ? 0 : group.entries.size());
+        }
+        return row;
+    }
+
+    private static int headerRows(Group group) {
+        return group.header != null ? 1 : 0;
+    }
+
+    private static List<Book> booksOf(Group group) {
+        List<Book> books = new ArrayList<>(group.entries.size());
+        for (Entry entry : group.entries) {
+            books.add(entry.book);
+        }
+        return books;
+    }
+
+    private static Entry entryOf(Book book, SortKey key, boolean grouped) {
+        byte[] genre = grouped ? keyOf(book.getGenre()) : EMPTY;
+        // Groupement seul : les livres d'un genre sont rangés par titre
+        byte[] primary = keyOf(key == SortKey.AUTHOR ? book.getAuthor() : book.getTitle());
+        byte[] secondary = key == SortKey.AUTHOR ? keyOf(book.getTitle()) : EMPTY;
+        return new Entry(book, genre, primary, secondary);
+    }
+
+    private static byte[] keyOf(String text) {
+        if (text == null || text.isBlank()) {
+            return EMPTY;
+        }
+        return COLLATORS.get().getCollationKey(text.trim()).toByteArray();
+    }
+
+    // Accents pris en compte, pas la casse : « école » < « Élise » < « étude »
+    private static Collator frenchCollator() {
+        Collator collator = Collator.getInstance(Locale.FRENCH);
+        collator.setStrength(Collator.SECONDARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+}
@@ -0,0 +1,48 @@
+package be.condorcet.javafx.view;
+
+import java.util.function.Supplier;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.metrics.PulseMonitor;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+
+/**
+ * Overlay de statistiques (F3) : histogrammes et compteurs de PerfMetrics, rafraîchis chaque seconde.
+ * Rien n'est calculé tant qu'il est masqué.
+ */
+class StatsOverlay {
+
+    private final Label label;
+    private final Supplier<String> extra;
+    private final PulseMonitor pulseMonitor = new PulseMonitor();
+    private final Timeline refresh;
+
+    StatsOverlay(Label label, Supplier<String> extra) {
+        this.label = label;
+        this.extra = extra;
+        this.refresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> update()));
+        refresh.setCycleCount(Timeline.INDEFINITE);
+        label.managedProperty().bind(label.visibleProperty());
+        label.setVisible(false);
+    }
+
+    void toggle() {
+        boolean show = !label.isVisible();
+        label.setVisible(show);
+        if (show) {
+            pulseMonitor.start();
+            refresh.play();
+            update();
+        } else {
+            refresh.stop();
+            pulseMonitor.stop();
+        }
+    }
+
+    private void update() {
+        label.setText(PerfMetrics.report() + extra.get());
+    }
+}
@@ -0,0 +1,38 @@
+package be.condorcet.javafx.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BookCatalogTest {
+
+    private static Book book(long id, String title) {
+        return new Book(id, title, "Auteur", null, "Roman", 1, null, null);
+    }
+
+    private static List<String> titles(BookCatalog catalog) {
+        List<String> titles = new ArrayList<>();
+        for (Book book : catalog.getItems()) {
+            titles.add(book.getTitle());
+        }
+        return titles;
+    }
+
+    @Test
+    void diffReplacesChangedBooksWhereTheyAre() {
+        BookCatalog catalog = new BookCatalog();
+        catalog.setAll(List.of(book(1, "a"), book(2, "b"), book(3, "c"), book(4, "d")));
+
+        Book renamed = book(3, "c2");
+        int changes = catalog.applyDiff(List.of(book(4, "d2"), book(1, "a"), renamed, book(5, "e")));
+
+        // 2 supprimé, 3 et 4 modifiés sur place, 5 ajouté en fin de liste
+        assertEquals(4, changes);
+        assertEquals(List.of("a", "c2", "d2", "e"), titles(catalog));
+        assertSame(renamed, catalog.get(3L));
+    }
+}
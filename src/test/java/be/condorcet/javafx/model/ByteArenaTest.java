@@ -0,0 +1,76 @@
+package be.condorcet.javafx.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ByteArenaTest {
+
+    private static byte[] utf8(String value) {
+        return TextCodec.encodeUtf8(value);
+    }
+
+    private static String read(ByteArena arena, long ref, int field) {
+        return arena.read(ref, field, TextCodec.UTF8);
+    }
+
+    @Test
+    void readsEachFieldBackIncludingNullAndEmpty() {
+        ByteArena arena = new ByteArena();
+        long first = arena.append(utf8("L'Étranger"), utf8("9782070360024"), null, utf8(""));
+        long second = arena.append(null, null, utf8("https://exemple.be/c.jpg"), utf8("Résumé"));
+
+        assertEquals("L'Étranger", read(arena, first, ByteArena.TITLE));
+        assertEquals("9782070360024", read(arena, first, ByteArena.ISBN));
+        assertNull(read(arena, first, ByteArena.IMAGE_URL));
+        assertEquals("", read(arena, first, ByteArena.SYNOPSIS));
+        assertNull(read(arena, second, ByteArena.TITLE));
+        assertEquals("https://exemple.be/c.jpg", read(arena, second, ByteArena.IMAGE_URL));
+        assertEquals("Résumé", read(arena, second, ByteArena.SYNOPSIS));
+    }
+
+    @Test
+    void recordLengthCountsMultiByteVarints() {
+        ByteArena arena = new ByteArena();
+        // 300 octets : longueur + 1 codée sur deux octets de varint
+        String longText = "a".repeat(300);
+        long ref = arena.append(utf8(longText), null, null, null);
+        assertEquals(2 + 300 + 3, arena.recordLength(ref));
+        assertEquals(arena.size(), arena.recordLength(ref));
+        assertEquals(longText, read(arena, ref, ByteArena.TITLE));
+    }
+
+    @Test
+    void recordsCrossIntoNewChunks() {
+        ByteArena arena = new ByteArena();
+        byte[] synopsis = new byte[1 << 20];
+        java.util.Arrays.fill(synopsis, (byte) 'x');
+        long[] refs = new long[6];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = arena.append(utf8("titre " + i), null, null, synopsis);
+        }
+        // Au-delà de 4 Mo les enregistrements passent dans un second bloc
+        assertEquals(1, (int) (refs[refs.length - 1] >>> 32));
+        for (int i = 0; i < refs.length; i++) {
+            assertEquals("titre " + i, read(arena, refs[i], ByteArena.TITLE));
+            assertEquals(synopsis.length, read(arena, refs[i], ByteArena.SYNOPSIS).getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Test
+    void copyFromAnotherArenaKeepsTheRecordIntact() {
+        ByteArena source = new ByteArena();
+        source.append(utf8("mort"), null, null, null);
+        long live = source.append(utf8("vivant"), utf8("2070360423"), null, utf8("texte"));
+
+        ByteArena compacted = new ByteArena();
+        long copy = compacted.copyFrom(source, live);
+        assertEquals(source.recordLength(live), compacted.size());
+        assertEquals("vivant", read(compacted, copy, ByteArena.TITLE));
+        assertEquals("2070360423", read(compacted, copy, ByteArena.ISBN));
+        assertEquals("texte", read(compacted, copy, ByteArena.SYNOPSIS));
+    }
+}
@@ -0,0 +1,120 @@
+package be.condorcet.javafx.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.collections.ListChangeListener;
+
+class ColumnarBookListTest {
+
+    private static Book book(long id) {
+        return new Book(id, "Titre " + id, "Auteur " + (id % 3), "97820700000" + (id % 10), "Roman", (int) id,
+                "https://exemple.be/couvertures/" + id + ".jpg", "Synopsis du livre " + id);
+    }
+
+    private static ColumnarBookList listOf(long... ids) {
+        ColumnarBookList list = new ColumnarBookList();
+        List<Book> books = new ArrayList<>();
+        for (long id : ids) {
+            books.add(book(id));
+        }
+        list.setAll(books);
+        return list;
+    }
+
+    private static List<Long> ids(List<? extends Book> books) {
+        List<Long> ids = new ArrayList<>();
+        for (Book book : books) {
+            ids.add(book == null ? null : book.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void viewsCarryEveryField() {
+        ColumnarBookList list = listOf(7);
+        Book view = list.get(0);
+        assertTrue(view.hasSameContent(book(7)));
+        assertEquals(7L, view.getId());
+        assertEquals(0, list.indexOfId(7L));
+    }
+
+    @Test
+    void removeIdsRemovesRunsInOneChangeWithShiftedPositions() {
+        ColumnarBookList list = listOf(1, 2, 3, 4, 5, 6, 7);
+        List<int[]> removals = new ArrayList<>();
+        List<List<Long>> removedIds = new ArrayList<>();
+        int[] events = {0};
+        list.addListener((ListChangeListener<Book>) change -> {
+            events[0]++;
+            while (change.next()) {
+                removals.add(new int[] {change.getFrom(), change.getRemovedSize()});
+                removedIds.add(ids(change.getRemoved()));
+            }
+        });
+
+        int removed = list.removeIds(id -> id == 2 || id == 3 || id == 6);
+
+        assertEquals(3, removed);
+        assertEquals(1, events[0]);
+        assertEquals(List.of(1L, 4L, 5L, 7L), ids(list));
+        // Deuxième plage exprimée après la première suppression : l'ancienne ligne 5 devient 3
+        assertEquals(2, removals.size());
+        assertTrue(Arrays.equals(new int[] {1, 2}, removals.get(0)));
+        assertTrue(Arrays.equals(new int[] {3, 1}, removals.get(1)));
+        assertEquals(List.of(2L, 3L), removedIds.get(0));
+        assertEquals(List.of(6L), removedIds.get(1));
+        // L'index des ids suit les décalages
+        assertEquals(2, list.indexOfId(5L));
+        assertEquals(-1, list.indexOfId(6L));
+        assertTrue(list.get(3).hasSameContent(book(7)));
+    }
+
+    @Test
+    void removeIdsKeepsEmptyRows() {
+        ColumnarBookList list = listOf(1, 2, 3);
+        list.set(1, null);
+        assertEquals(2, list.removeIds(id -> true));
+        assertEquals(1, list.size());
+        assertTrue(list.isEmptyRow(0));
+        assertNull(list.get(0));
+    }
+
+    @Test
+    void removeIdsWithoutMatchEmitsNothing() {
+        ColumnarBookList list = listOf(1, 2);
+        int[] events = {0};
+        list.addListener((ListChangeListener<Book>) change -> events[0]++);
+        assertEquals(0, list.removeIds(id -> id > 10));
+        assertEquals(List.of(1L, 2L), ids(list));
+        assertEquals(0, events[0]);
+    }
+
+    @Test
+    void replacedRowsAreCompactedWithoutLosingLiveOnes() {
+        ColumnarBookList list = listOf(1, 2, 3);
+        // L'ISBN est stocké brut (le titre et le synopsis passent par le vocabulaire partagé)
+        String isbn = "9".repeat(64 * 1024);
+        long peak = 0;
+        // Chaque remplacement laisse l'ancien enregistrement mort dans l'arène
+        for (int i = 0; i < 64; i++) {
+            Book edited = book(2);
+            edited.setIsbn(isbn + i);
+            list.set(1, edited);
+            peak = Math.max(peak, list.getArenaBytes());
+        }
+        assertTrue(list.getArenaBytes() < peak, "l'arène aurait dû être compactée");
+        // Sans compaction les 64 versions resteraient toutes dans l'arène
+        assertTrue(list.getArenaBytes() < 64L * isbn.length() / 2);
+        assertEquals(isbn + 63, list.get(1).getIsbn());
+        assertTrue(list.get(0).hasSameContent(book(1)));
+        assertTrue(list.get(2).hasSameContent(book(3)));
+    }
+}
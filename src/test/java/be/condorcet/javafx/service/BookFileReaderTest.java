@@ -0,0 +1,45 @@
+package be.condorcet.javafx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import be.condorcet.javafx.model.Book;
+
+class BookFileReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvRowsWithoutImageGetThePlaceholder() throws Exception {
+        Path file = dir.resolve("livres.csv");
+        Files.writeString(file, "titre,auteur,genre,stock,image\n"
+                + "La Peste,Albert Camus,Roman,2,\n"
+                + "L'Étranger,Albert Camus,Roman,1,https://exemple.be/etranger.jpg\n", StandardCharsets.UTF_8);
+
+        try (BookFileReader reader = new BookFileReader(file)) {
+            assertEquals(Book.PLACEHOLDER_IMAGE, reader.next().getImageUrl());
+            assertEquals("https://exemple.be/etranger.jpg", reader.next().getImageUrl());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void jsonLinesWithoutImageGetThePlaceholder() throws Exception {
+        Path file = dir.resolve("livres.jsonl");
+        Files.writeString(file, "{\"title\":\"La Peste\",\"author\":\"Albert Camus\",\"genre\":\"Roman\",\"stock\":2}\n",
+                StandardCharsets.UTF_8);
+
+        try (BookFileReader reader = new BookFileReader(file)) {
+            assertEquals(Book.PLACEHOLDER_IMAGE, reader.next().getImageUrl());
+            assertNull(reader.next());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package be.condorcet.javafx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import be.condorcet.javafx.model.Book;
+
+class BookImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void bare429IsRetriedWithBackoff() throws Exception {
+        Path file = dir.resolve("livres.csv");
+        Files.writeString(file, "titre,auteur,genre,stock\nLa Peste,Albert Camus,Roman,2\n", StandardCharsets.UTF_8);
+
+        AtomicInteger calls = new AtomicInteger();
+        BookApiService api = new BookApiService(null, null, RequestScheduler.create()) {
+            @Override
+            public CompletableFuture<HttpResponse<String>> createBooksBulkAsync(List<Book> books) {
+                // Premier envoi refusé sans Retry-After, le suivant accepté
+                int status = calls.incrementAndGet() == 1 ? 429 : 201;
+                return CompletableFuture.completedFuture(new FakeBookApi.StringResponse(status, "[]"));
+            }
+        };
+
+        BookImporter.Progress progress = new BookImporter(api, new DuplicateIndex())
+                .importFileAsync(file, p -> { }).join();
+        assertEquals(2, calls.get());
+        assertEquals(1, progress.getImported());
+        assertEquals(0, progress.getFailed());
+    }
+}
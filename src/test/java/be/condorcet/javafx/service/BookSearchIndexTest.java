@@ -0,0 +1,71 @@
+package be.condorcet.javafx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import be.condorcet.javafx.model.Book;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+class BookSearchIndexTest {
+
+    private static BookSearchIndex index() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.add(new Book(1L, "L'Étranger", "Albert Camus", "978-2-07-036002-4", "Roman", 3, null, null));
+        index.add(new Book(2L, "La Peste", "Albert Camus", "2070360423", "Roman", 1, null, null));
+        index.add(new Book(3L, "Le Petit Prince", "Antoine de Saint-Exupéry", "978 2 07 061275 8", "Conte", 5, null, null));
+        return index;
+    }
+
+    @Test
+    void isbnWithHyphensIsFoundAsOneToken() {
+        BookSearchIndex index = index();
+        assertEquals(List.of(1L), index.search("978-2-07-036002-4"));
+        assertEquals(List.of(1L), index.search("9782070360024"));
+        // Préfixe saisi avec séparateurs, au fil de la frappe
+        assertEquals(List.of(1L), index.search("978-2-07-03"));
+    }
+
+    @Test
+    void isbnWithSpacesIsFoundAsOneToken() {
+        BookSearchIndex index = index();
+        assertEquals(List.of(3L), index.search("978 2 07 061275 8"));
+        assertEquals(List.of(2L), index.search("2-07-036042-3"));
+    }
+
+    @Test
+    void wordsAreStillIntersected() {
+        BookSearchIndex index = index();
+        assertEquals(List.of(2L), index.search("camus peste"));
+        assertEquals(List.of(), index.search("camus prince"));
+    }
+
+    @Test
+    void replacedBookIsRemovedWithItsIndexedContent() {
+        ObservableList<Book> books = FXCollections.observableArrayList(
+                new Book(1L, "La Peste", "Albert Camus", null, "Roman", 1, null, null),
+                new Book(2L, "Les Justes", "Albert Camus", null, "Théâtre", 1, null, null));
+        BookSearchIndex index = new BookSearchIndex();
+        index.attach(books);
+
+        books.set(0, new Book(1L, "La Chute", "Albert Camus", null, "Roman", 1, null, null));
+        assertEquals(List.of(), index.search("peste"));
+        assertEquals(List.of(1L), index.search("chute"));
+        assertEquals(List.of(1L, 2L), index.search("camus"));
+
+        books.remove(1);
+        assertEquals(List.of(1L), index.search("camus"));
+        assertEquals(List.of(), index.search("justes"));
+    }
+
+    @Test
+    void fullWordRanksBeforePrefix() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.add(new Book(1L, "Peste noire", "Inconnu", null, "Roman", 1, null, null));
+        index.add(new Book(2L, "Pest", "Inconnu", null, "Roman", 1, null, null));
+        assertEquals(List.of(2L, 1L), index.search("pest"));
+    }
+}
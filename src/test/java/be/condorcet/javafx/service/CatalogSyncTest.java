@@ -0,0 +1,102 @@
+package be.condorcet.javafx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+
+class CatalogSyncTest {
+
+    private HttpServer server;
+    private CatalogSync sync;
+    private final List<String> paths = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    static void noFxThread() {
+        PerfMetrics.setUiExecutor(Runnable::run);
+    }
+
+    @AfterEach
+    void stop() {
+        if (sync != null) {
+            sync.stop();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    // Backend Spring d'origine : GET /api/books et GET /api/books/{id} (Long), aucune route de changements
+    private void startBackendWithoutChanges() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/books", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            paths.add(path);
+            String rest = path.substring("/api/books".length());
+            if (rest.isEmpty()) {
+                reply(exchange, 200, "[]");
+            } else if (rest.substring(1).contains("/")) {
+                reply(exchange, 404, null);
+            } else {
+                // "changes" n'est pas un Long : MethodArgumentTypeMismatchException
+                reply(exchange, rest.substring(1).matches("\\d+") ? 404 : 400, null);
+            }
+        });
+        server.start();
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void backendWithoutChangesRouteFallsBackToFullRevalidation() throws Exception {
+        startBackendWithoutChanges();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        BookApiService api = new BookApiService(null, null, RequestScheduler.create()) {
+            @Override
+            URI endpoint(String path) {
+                return URI.create(base + path);
+            }
+
+            @Override
+            public String getCatalogVersion() {
+                return "1";
+            }
+        };
+
+        sync = api.newCatalogSync(delta -> { }, catalog -> { });
+        sync.start();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (sync.getMode() != CatalogSync.Mode.FULL) {
+            assertTrue(System.nanoTime() < deadline, "mode resté " + sync.getMode() + " après " + paths);
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("/api/books/changes/stream", "/api/books/changes"), paths);
+    }
+}
@@ -0,0 +1,118 @@
+package be.condorcet.javafx.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLSession;
+
+import be.condorcet.javafx.model.Book;
+
+/** BookApiService sans réseau : chaque écriture est retenue jusqu'à ce que le test lui donne une réponse. */
+class FakeBookApi extends BookApiService {
+
+    static final class Call {
+        final String method;
+        final Book book;
+        final Long id;
+        // Relevés à l'envoi : copy() ne garde pas les champs modifiés
+        final List<String> dirtyFields;
+        final CompletableFuture<HttpResponse<String>> response = new CompletableFuture<>();
+        // Recherche d'une création dans le catalogue du serveur (FIND)
+        final CompletableFuture<Book> found = new CompletableFuture<>();
+
+        Call(String method, Book book, Long id) {
+            this.method = method;
+            this.book = book == null ? null : book.copy();
+            this.id = id;
+            this.dirtyFields = book == null ? List.of() : book.getDirtyFields();
+        }
+
+        void reply(int status, String body) {
+            response.complete(new StringResponse(status, body));
+        }
+
+        void fail(Throwable ex) {
+            response.completeExceptionally(ex);
+        }
+
+        void answer(Book stored) {
+            found.complete(stored);
+        }
+    }
+
+    private final BlockingQueue<Call> calls = new LinkedBlockingQueue<>();
+
+    FakeBookApi() {
+        super(null, null, RequestScheduler.create());
+    }
+
+    // Prochaine requête envoyée par la file, null si rien n'est parti dans le délai
+    Call nextCall() throws InterruptedException {
+        return calls.poll(5, TimeUnit.SECONDS);
+    }
+
+    Call nextCallOrNull(long millis) throws InterruptedException {
+        return calls.poll(millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse<String>> createBookAsync(Book book) {
+        return record(new Call("POST", book, book.getId()));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse<String>> updateBookAsync(Book book) {
+        return record(new Call("PUT", book, book.getId()));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse<String>> patchBookAsync(Book book) {
+        return record(new Call("PATCH", book, book.getId()));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse<String>> deleteBookAsync(Long id) {
+        return record(new Call("DELETE", null, id));
+    }
+
+    @Override
+    CompletableFuture<Book> findCreatedAsync(Book sent) {
+        Call call = new Call("FIND", sent, null);
+        calls.add(call);
+        return call.found;
+    }
+
+    private CompletableFuture<HttpResponse<String>> record(Call call) {
+        calls.add(call);
+        return call.response;
+    }
+
+    static final class StringResponse implements HttpResponse<String> {
+        private final int status;
+        private final String body;
+
+        StringResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        @Override public int statusCode() { return status; }
+        @Override public HttpRequest request() { return null; }
+        @Override public Optional<HttpResponse<String>> previousResponse() { return Optional.empty(); }
+        @Override public HttpHeaders headers() { return HttpHeaders.of(Map.of(), (name, value) -> true); }
+        @Override public String body() { return body; }
+        @Override public Optional<SSLSession> sslSession() { return Optional.empty(); }
+        @Override public URI uri() { return URI.create(getBaseUrl()); }
+        @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_1_1; }
+    }
+}
@@ -0,0 +1,66 @@
+package be.condorcet.javafx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PostingListTest {
+
+    @Test
+    void matchesHashMapAcrossPutsAndRemovals() {
+        PostingList list = new PostingList();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            // Peu de numéros distincts : beaucoup de collisions, de remplacements et de décalages
+            int doc = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                list.remove(doc);
+                expected.remove(doc);
+            } else {
+                int score = random.nextInt(21);
+                list.put(doc, score);
+                expected.put(doc, score);
+            }
+        }
+        assertEquals(expected.size(), list.size());
+        for (int doc = 0; doc < 2_000; doc++) {
+            assertEquals(expected.getOrDefault(doc, PostingList.ABSENT), list.get(doc));
+        }
+        int seen = 0;
+        for (int slot = 0; slot < list.capacity(); slot++) {
+            if (list.docAt(slot) != PostingList.FREE) {
+                assertEquals(expected.get(list.docAt(slot)), list.scoreAt(slot));
+                seen++;
+            }
+        }
+        assertEquals(expected.size(), seen);
+    }
+
+    @Test
+    void docIdsReuseNumbersOfRemovedBooks() {
+        DocIds docs = new DocIds();
+        Random random = new Random(11);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long id = random.nextInt(3_000) - 100L;
+            if (random.nextInt(3) == 0) {
+                docs.remove(id);
+                expected.remove(id);
+            } else {
+                int doc = docs.add(id);
+                assertEquals(expected.computeIfAbsent(id, k -> doc), doc);
+                assertEquals(id, docs.idOf(doc));
+            }
+        }
+        expected.forEach((id, doc) -> assertEquals(doc, docs.get(id)));
+        assertEquals(DocIds.ABSENT, docs.get(5_000L));
+        // Les numéros restent denses : jamais plus que le nombre de livres présents à un même moment
+        assertTrue(expected.values().stream().allMatch(doc -> doc < 3_000));
+    }
+}
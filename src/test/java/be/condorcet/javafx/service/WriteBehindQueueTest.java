@@ -0,0 +1,326 @@
+package be.condorcet.javafx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import be.condorcet.javafx.metrics.PerfMetrics;
+import be.condorcet.javafx.model.Book;
+
+class WriteBehindQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private final FakeBookApi api = new FakeBookApi();
+    private final Recorder listener = new Recorder();
+    private WriteBehindQueue queue;
+
+    @BeforeAll
+    static void noFxThread() {
+        PerfMetrics.setUiExecutor(Runnable::run);
+    }
+
+    @AfterEach
+    void stop() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    private Path journalFile() {
+        return dir.resolve("writes.jsonl");
+    }
+
+    private WriteBehindQueue newQueue() {
+        queue = new WriteBehindQueue(api, journalFile(), listener);
+        return queue;
+    }
+
+    private static Book book(Long id, String title, int stock) {
+        return new Book(id, title, "Auteur", "9782070360024", "Roman", stock, null, null);
+    }
+
+    @Test
+    void createThenUpdatesLeaveOneCreationWithTheLatestContent() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Book created = book(writes.nextTempId(), "Brouillon", 1);
+        writes.create(created);
+        Book edited = created.copy();
+        edited.setTitle("Titre final");
+        writes.update(created, edited);
+        assertEquals(1, writes.getPendingCount());
+
+        writes.start();
+        FakeBookApi.Call call = api.nextCall();
+        assertEquals("POST", call.method);
+        assertEquals("Titre final", call.book.getTitle());
+        // L'id temporaire ne part pas au serveur
+        assertNull(call.book.getId());
+        assertNull(api.nextCallOrNull(500));
+    }
+
+    @Test
+    void createThenDeleteBeforeSendingCancelsOut() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Book created = book(writes.nextTempId(), "Éphémère", 1);
+        writes.create(created);
+        writes.delete(created);
+        assertEquals(0, writes.getPendingCount());
+
+        writes.start();
+        assertNull(api.nextCallOrNull(500));
+        writes.stop();
+        assertEquals(0, newQueue().getPendingCount());
+    }
+
+    @Test
+    void updatesKeepTheStateBeforeTheFirstOne() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Book original = book(7L, "Original", 3);
+        Book first = original.copy();
+        first.setStock(2);
+        writes.update(original, first);
+        Book second = first.copy();
+        second.setStock(0);
+        writes.update(first, second);
+
+        writes.start();
+        FakeBookApi.Call call = api.nextCall();
+        assertEquals("PATCH", call.method);
+        assertEquals(7L, call.id);
+        assertEquals(List.of("stock"), call.dirtyFields);
+        assertEquals(0, call.book.getStock());
+    }
+
+    @Test
+    void reloadReplaysPendingWritesAndMergesThoseOfTheSameBook() throws Exception {
+        // Journal laissé par un arrêt pendant l'envoi : l'écriture en vol et celle qui la suivait
+        WriteJournal journal = new WriteJournal(journalFile());
+        Book original = book(7L, "Original", 3);
+        Book first = original.copy();
+        first.setStock(2);
+        Book second = first.copy();
+        second.setTitle("Nouveau titre");
+        journal.append(new PendingWrite(1, PendingWrite.Type.UPDATE, 7L, first, original));
+        journal.append(new PendingWrite(2, PendingWrite.Type.CREATE, -1L, book(-1L, "Créé hors ligne", 1), null));
+        journal.append(new PendingWrite(3, PendingWrite.Type.UPDATE, 7L, second, first));
+        journal.remove(2);
+        journal.close();
+
+        WriteBehindQueue writes = newQueue();
+        assertEquals(1, writes.getPendingCount());
+        // Le journal est réécrit avec l'écriture fusionnée
+        List<PendingWrite> reloaded = new WriteJournal(journalFile()).load();
+        assertEquals(1, reloaded.size());
+        assertEquals(3, reloaded.get(0).getSeq());
+        assertEquals(3, reloaded.get(0).getBefore().getStock());
+
+        writes.start();
+        FakeBookApi.Call call = api.nextCall();
+        assertEquals("PATCH", call.method);
+        assertEquals(List.of("title", "stock"), call.dirtyFields);
+        call.reply(200, "");
+        waitUntil(() -> writes.getPendingCount() == 0);
+        writes.stop();
+        assertTrue(new WriteJournal(journalFile()).load().isEmpty());
+    }
+
+    @Test
+    void temporaryIdsAreNotReusedAfterReload() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Long first = writes.nextTempId();
+        writes.create(book(first, "Premier", 1));
+        writes.stop();
+
+        Long next = newQueue().nextTempId();
+        assertTrue(next < first, next + " doit être plus petit que " + first);
+    }
+
+    @Test
+    void writesMadeDuringCreationMoveToTheServerId() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Long tempId = writes.nextTempId();
+        Book created = book(tempId, "Nouveau", 1);
+        writes.create(created);
+        writes.start();
+        FakeBookApi.Call create = api.nextCall();
+        assertEquals("POST", create.method);
+
+        // Modifié pendant que la création est en vol : envoyé seulement après, sous l'id du serveur
+        Book edited = created.copy();
+        edited.setStock(5);
+        writes.update(created, edited);
+        assertNull(api.nextCallOrNull(500));
+
+        create.reply(201, "{\"id\":42,\"title\":\"Nouveau\",\"author\":\"Auteur\",\"genre\":\"Roman\",\"stock\":1}");
+        FakeBookApi.Call patch = api.nextCall();
+        assertEquals("PATCH", patch.method);
+        assertEquals(42L, patch.id);
+        assertEquals(List.of("stock"), patch.dirtyFields);
+
+        waitUntil(() -> !listener.created.isEmpty());
+        assertEquals(tempId, listener.created.get(0).tempId);
+        assertEquals(42L, listener.created.get(0).saved.getId());
+        // Le livre affiché garde la modification en attente
+        assertEquals(5, listener.created.get(0).saved.getStock());
+
+        // Le journal ne connaît plus que l'id du serveur
+        List<PendingWrite> journaled = new WriteJournal(journalFile()).load();
+        assertEquals(1, journaled.size());
+        assertEquals(42L, journaled.get(0).getKey());
+        assertEquals(42L, journaled.get(0).getBook().getId());
+    }
+
+    @Test
+    void unauthorizedPausesSendingWithoutDroppingWrites() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Book original = book(7L, "Original", 3);
+        Book edited = original.copy();
+        edited.setStock(0);
+        writes.update(original, edited);
+        writes.start();
+
+        api.nextCall().reply(401, "");
+        waitUntil(() -> !listener.unauthorized.isEmpty());
+        assertTrue(writes.isPaused());
+        assertEquals(List.of(401), listener.unauthorized);
+        assertTrue(listener.rejected.isEmpty());
+        assertEquals(1, writes.getPendingCount());
+
+        // Plus rien ne part, même pour une nouvelle écriture
+        Book other = book(8L, "Autre", 1);
+        Book otherEdited = other.copy();
+        otherEdited.setStock(4);
+        writes.update(other, otherEdited);
+        assertNull(api.nextCallOrNull(800));
+
+        // Reconnexion : le journal est repris par une nouvelle file
+        writes.stop();
+        WriteBehindQueue resumed = newQueue();
+        assertEquals(2, resumed.getPendingCount());
+        resumed.start();
+        assertNotNull(api.nextCall());
+        assertNotNull(api.nextCall());
+    }
+
+    @Test
+    void creationStoredDespiteTimeoutIsFoundInsteadOfPostedAgain() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Long tempId = writes.nextTempId();
+        writes.create(book(tempId, "Nouveau", 1));
+        writes.start();
+
+        // Le serveur enregistre le livre mais la réponse n'arrive pas
+        api.nextCall().fail(new HttpTimeoutException("request timed out"));
+        FakeBookApi.Call find = api.nextCall();
+        assertEquals("FIND", find.method);
+        assertEquals("Nouveau", find.book.getTitle());
+        find.answer(book(42L, "Nouveau", 1));
+
+        waitUntil(() -> !listener.created.isEmpty());
+        assertEquals(tempId, listener.created.get(0).tempId);
+        assertEquals(42L, listener.created.get(0).saved.getId());
+        assertEquals(0, writes.getPendingCount());
+        // Pas de second POST
+        assertNull(api.nextCallOrNull(500));
+    }
+
+    @Test
+    void creationMissingAfterServerErrorIsPostedAgain() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        writes.create(book(writes.nextTempId(), "Nouveau", 1));
+        writes.start();
+
+        api.nextCall().reply(500, "");
+        FakeBookApi.Call find = api.nextCall();
+        assertEquals("FIND", find.method);
+        find.answer(null);
+
+        FakeBookApi.Call again = api.nextCall();
+        assertEquals("POST", again.method);
+        again.reply(201, "{\"id\":42,\"title\":\"Nouveau\",\"author\":\"Auteur\",\"genre\":\"Roman\",\"stock\":1}");
+        waitUntil(() -> writes.getPendingCount() == 0);
+    }
+
+    @Test
+    void creationRefusedBeforeStoringIsPostedAgainWithoutLookup() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        writes.create(book(writes.nextTempId(), "Nouveau", 1));
+        writes.start();
+
+        api.nextCall().reply(503, "");
+        assertEquals("POST", api.nextCall().method);
+    }
+
+    @Test
+    void refusedWriteIsDroppedAndReported() throws Exception {
+        WriteBehindQueue writes = newQueue();
+        Book original = book(7L, "Original", 3);
+        Book edited = original.copy();
+        edited.setTitle("");
+        writes.update(original, edited);
+        writes.start();
+
+        api.nextCall().reply(400, "");
+        waitUntil(() -> !listener.rejected.isEmpty());
+        assertEquals(0, writes.getPendingCount());
+        assertEquals("Original", listener.rejected.get(0).getBefore().getTitle());
+        writes.stop();
+        assertTrue(new WriteJournal(journalFile()).load().isEmpty());
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition jamais atteinte");
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class Created {
+        final Long tempId;
+        final Book saved;
+
+        Created(Long tempId, Book saved) {
+            this.tempId = tempId;
+            this.saved = saved;
+        }
+    }
+
+    private static final class Recorder implements WriteBehindQueue.Listener {
+        final List<Created> created = new CopyOnWriteArrayList<>();
+        final List<PendingWrite> rejected = new CopyOnWriteArrayList<>();
+        final List<Integer> unauthorized = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onCreated(Long tempId, Book saved) {
+            created.add(new Created(tempId, saved));
+        }
+
+        @Override
+        public void onRejected(PendingWrite write, int status) {
+            rejected.add(write);
+        }
+
+        @Override
+        public void onBacklog(int pending, boolean offline) {
+        }
+
+        @Override
+        public void onUnauthorized(int status) {
+            unauthorized.add(status);
+        }
+    }
+}
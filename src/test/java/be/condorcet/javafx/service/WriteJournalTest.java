@@ -0,0 +1,88 @@
+package be.condorcet.javafx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import be.condorcet.javafx.model.Book;
+
+class WriteJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static PendingWrite update(long seq, long id, String title) {
+        Book book = new Book(id, title, "Auteur", null, "Roman", 1, null, null);
+        return new PendingWrite(seq, PendingWrite.Type.UPDATE, id, book, book.copy());
+    }
+
+    @Test
+    void replaysAppendsAndRemovalsInOrder() throws Exception {
+        Path file = dir.resolve("writes.jsonl");
+        WriteJournal journal = new WriteJournal(file);
+        journal.append(update(3, 30, "c"));
+        journal.append(update(1, 10, "a"));
+        journal.append(update(2, 20, "b"));
+        journal.remove(1);
+        journal.close();
+
+        List<PendingWrite> writes = new WriteJournal(file).load();
+        assertEquals(2, writes.size());
+        // Triées par numéro de séquence, pas par ordre des lignes
+        assertEquals(2, writes.get(0).getSeq());
+        assertEquals(3, writes.get(1).getSeq());
+        assertEquals("b", writes.get(0).getBook().getTitle());
+    }
+
+    @Test
+    void truncatedLastLineIsIgnored() throws Exception {
+        Path file = dir.resolve("writes.jsonl");
+        WriteJournal journal = new WriteJournal(file);
+        journal.append(update(1, 10, "a"));
+        journal.close();
+        Files.writeString(file, "{\"write\":{\"seq\":2,\"type\":\"UPD", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<PendingWrite> writes = new WriteJournal(file).load();
+        assertEquals(1, writes.size());
+        assertEquals(1, writes.get(0).getSeq());
+    }
+
+    @Test
+    void compactEmptiesTheFileOnceNothingIsPending() throws Exception {
+        Path file = dir.resolve("writes.jsonl");
+        WriteJournal journal = new WriteJournal(file);
+        journal.append(update(1, 10, "a"));
+        journal.remove(1);
+        journal.compact(List.of());
+        journal.close();
+
+        assertEquals(0, Files.size(file));
+        assertTrue(new WriteJournal(file).load().isEmpty());
+    }
+
+    @Test
+    void rewriteKeepsOnlyTheGivenWrites() throws Exception {
+        Path file = dir.resolve("writes.jsonl");
+        WriteJournal journal = new WriteJournal(file);
+        for (int i = 1; i <= 5; i++) {
+            journal.append(update(i, i * 10, "t" + i));
+        }
+        journal.rewrite(List.of(update(4, 40, "t4")));
+        journal.append(update(6, 60, "t6"));
+        journal.close();
+
+        List<PendingWrite> writes = new WriteJournal(file).load();
+        assertEquals(2, writes.size());
+        assertEquals(4, writes.get(0).getSeq());
+        assertEquals(6, writes.get(1).getSeq());
+        assertEquals(2, Files.readAllLines(file).size());
+    }
+}
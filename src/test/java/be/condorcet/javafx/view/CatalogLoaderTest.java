@@ -0,0 +1,120 @@
+package be.condorcet.javafx.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import be.condorcet.javafx.model.Book;
+import be.condorcet.javafx.model.BookCatalog;
+import be.condorcet.javafx.service.BookApiService;
+import be.condorcet.javafx.service.BookSearchIndex;
+import be.condorcet.javafx.service.RequestScheduler;
+
+class CatalogLoaderTest {
+
+    private final BookCatalog catalog = new BookCatalog();
+    private final List<String> loaded = new ArrayList<>();
+    private final List<String> failed = new ArrayList<>();
+    private final CatalogLoader loader = new CatalogLoader(catalog, new CatalogLoader.Listener() {
+        @Override
+        public void onProgress(String message) {
+        }
+
+        @Override
+        public void onLoaded(String message) {
+            loaded.add(message);
+        }
+
+        @Override
+        public void onFailed(String error) {
+            failed.add(error);
+        }
+    });
+
+    private static Book book(long id, String title) {
+        return new Book(id, title, "Auteur", null, "Roman", 1, null, null);
+    }
+
+    private List<Long> ids() {
+        List<Long> ids = new ArrayList<>();
+        for (Book book : catalog.getItems()) {
+            ids.add(book.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void loginAsAnotherUserShowsOnlyTheirSnapshot() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.attach(catalog.getItems());
+
+        StubApi alice = new StubApi("alice", List.of(book(1, "Germinal"), book(2, "Nana")));
+        loader.load(alice);
+        assertEquals(List.of(1L, 2L), ids());
+        // Livre créé hors ligne, pas encore confirmé par le serveur
+        catalog.applyCreated(book(-1, "Brouillon"));
+
+        // Déconnexion avant la fin du chargement, puis connexion hors ligne d'un autre compte
+        loader.reset();
+        StubApi bob = new StubApi("bob", List.of(book(7, "Candide")));
+        loader.load(bob);
+        bob.onError.accept("Serveur injoignable");
+
+        // Le flux d'alice arrive après coup : ignoré
+        alice.onBatch.accept(List.of(book(3, "Thérèse Raquin")));
+        alice.onComplete.run();
+
+        assertEquals(List.of(7L), ids());
+        assertEquals(List.of("Serveur injoignable"), failed);
+        assertTrue(loaded.isEmpty());
+        assertEquals(List.of(), index.search("germinal"));
+        assertEquals(List.of(), index.search("brouillon"));
+        assertEquals(List.of(7L), index.search("candide"));
+    }
+
+    @Test
+    void streamRevalidatesTheSnapshot() {
+        StubApi alice = new StubApi("alice", List.of(book(1, "Germinal"), book(2, "Nana")));
+        loader.load(alice);
+        alice.onBatch.accept(List.of(book(1, "Germinal"), book(3, "L'Assommoir")));
+        alice.onComplete.run();
+
+        assertEquals(List.of(1L, 3L), ids());
+        assertEquals(1, loaded.size());
+    }
+
+    /** Copie locale lue tout de suite ; le streaming reste en attente jusqu'à ce que le test le fasse avancer. */
+    private static final class StubApi extends BookApiService {
+        private final List<Book> snapshot;
+        Consumer<List<Book>> onBatch;
+        Runnable onComplete;
+        Consumer<String> onError;
+
+        StubApi(String user, List<Book> snapshot) {
+            super(user, "secret", RequestScheduler.create());
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasSnapshot() {
+            return true;
+        }
+
+        @Override
+        public void readSnapshotAsync(Consumer<List<Book>> onRead) {
+            onRead.accept(snapshot);
+        }
+
+        @Override
+        public void streamBooksAsync(Consumer<List<Book>> onBatch, Runnable onComplete, Consumer<String> onError) {
+            this.onBatch = onBatch;
+            this.onComplete = onComplete;
+            this.onError = onError;
+        }
+    }
+}